@@ -0,0 +1,97 @@
+package benchmark;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+import java.util.Random;
+
+import db.DB;
+import db.DbException;
+import db.MigrationRunner;
+
+/*
+ * Banco H2 em memória (modo MySQL) com o esquema das migrações e uma massa
+ * de dados gerada. Cada benchmark usa um banco com nome próprio, para que
+ * volumes diferentes não se misturem entre trials.
+ */
+public class BenchmarkDatabase {
+	
+	public static void start(String name, int departments, int sellers, Properties extra) {
+		Properties props = new Properties();
+		props.setProperty("dburl", "jdbc:h2:mem:" + name + ";MODE=MySQL;DB_CLOSE_DELAY=-1;DATABASE_TO_LOWER=TRUE");
+		props.setProperty("user", "sa");
+		props.setProperty("password", "");
+		props.setProperty("pool.maxSize", "16");
+		props.setProperty("cache.seller.enabled", "false");
+		props.putAll(extra);
+		DB.configure(props);
+		
+		// Mesmo esquema (tabelas e índices) que a aplicação cria na inicialização
+		MigrationRunner.migrate();
+		
+		Connection conn = DB.getConnection();
+		try {
+			seed(conn, departments, sellers);
+		}
+		catch (SQLException e) {
+			throw new DbException(e.getMessage());
+		}
+		finally {
+			DB.closeConnection(conn);
+		}
+	}
+	
+	public static void stop() {
+		Connection conn = DB.getConnection();
+		try (Statement st = conn.createStatement()) {
+			st.execute("DROP ALL OBJECTS");
+		}
+		catch (SQLException e) {
+			throw new DbException(e.getMessage());
+		}
+		finally {
+			DB.closeConnection(conn);
+			DB.closeConnection();
+		}
+	}
+	
+	private static void seed(Connection conn, int departments, int sellers) throws SQLException {
+		conn.setAutoCommit(false);
+		try (PreparedStatement st = conn.prepareStatement("INSERT INTO department (Name) VALUES (?)")) {
+			for (int i = 1; i <= departments; i++) {
+				st.setString(1, "Department " + i);
+				st.addBatch();
+			}
+			st.executeBatch();
+		}
+		
+		Random random = new Random(42);
+		try (PreparedStatement st = conn.prepareStatement("INSERT INTO seller "
+				+ "(Name, Email, BirthDate, BaseSalary, DepartmentId) VALUES (?, ?, ?, ?, ?)")) {
+			for (int i = 1; i <= sellers; i++) {
+				st.setString(1, randomName(random) + " " + i);
+				st.setString(2, "seller" + i + "@example.com");
+				st.setDate(3, java.sql.Date.valueOf(java.time.LocalDate.of(1950 + random.nextInt(50), 
+						1 + random.nextInt(12), 1 + random.nextInt(28))));
+				st.setDouble(4, 1000 + random.nextInt(9000));
+				st.setInt(5, 1 + random.nextInt(departments));
+				st.addBatch();
+				if (i % 1000 == 0) {
+					st.executeBatch();
+				}
+			}
+			st.executeBatch();
+		}
+		conn.commit();
+		conn.setAutoCommit(true);
+	}
+	
+	private static final String[] NAMES = { "Alex", "Bob", "Carla", "Donald", "Maria", "Martha", "Ana", "Bruno", 
+			"Carlos", "Diana", "Eva", "Felipe", "Gabriela", "Hugo", "Iris", "Joao" };
+	
+	private static String randomName(Random random) {
+		return NAMES[random.nextInt(NAMES.length)];
+	}
+}
@@ -0,0 +1,97 @@
+package benchmark;
+
+import java.text.SimpleDateFormat;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import gui.util.Formats;
+
+/*
+ * Custo de formatar uma célula de salário e uma de data, percorrendo os
+ * valores de uma tabela de "rows" linhas. Os métodos legacy* repetem o que
+ * as células faziam antes (Locale.setDefault + String.format com o padrão
+ * montado a cada chamada; SimpleDateFormat da célula); os cached* usam o
+ * mesmo caminho da FormattedCell. Com o profiler de GC do
+ * run-benchmarks.sh, gc.alloc.rate.norm mostra os bytes por célula.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CellFormatBenchmark {
+	
+	@Param({ "100000" })
+	public int rows;
+	
+	// Não é final, para o padrão "%.2f" ser montado a cada chamada como no código antigo
+	private int decimalPlaces = 2;
+	
+	private double[] salaries;
+	private Date[] birthDates;
+	private int cursor;
+	
+	private SimpleDateFormat legacyDateFormat;
+	private DateTimeFormatter dateFormatter;
+	private final StringBuffer buffer = new StringBuffer(32);
+	
+	@Setup
+	public void setUp() {
+		Random random = new Random(42);
+		salaries = new double[rows];
+		birthDates = new Date[rows];
+		long start = new Date(0).getTime();
+		for (int i = 0; i < rows; i++) {
+			salaries[i] = 1000 + random.nextInt(1_000_000) / 100.0;
+			birthDates[i] = new Date(start + random.nextInt(18_000) * 86_400_000L);
+		}
+		legacyDateFormat = new SimpleDateFormat("dd/MM/yyyy");
+		dateFormatter = Formats.dateFormatter("dd/MM/yyyy");
+	}
+	
+	private int next() {
+		cursor = cursor + 1 == rows ? 0 : cursor + 1;
+		return cursor;
+	}
+	
+	@Benchmark
+	public String legacyDouble() {
+		Locale.setDefault(Locale.US);
+		return String.format("%." + decimalPlaces + "f", salaries[next()]);
+	}
+	
+	@Benchmark
+	public String cachedDouble() {
+		buffer.setLength(0);
+		Formats.appendDecimal(salaries[next()], decimalPlaces, buffer);
+		return buffer.toString();
+	}
+	
+	@Benchmark
+	public String legacyDate() {
+		return legacyDateFormat.format(birthDates[next()]);
+	}
+	
+	@Benchmark
+	public String cachedDate() {
+		buffer.setLength(0);
+		Formats.appendDate(birthDates[next()], dateFormatter, buffer);
+		return buffer.toString();
+	}
+}
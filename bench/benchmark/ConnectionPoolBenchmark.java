@@ -0,0 +1,73 @@
+package benchmark;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import db.DB;
+
+/*
+ * Custo de emprestar/devolver uma conexão do pool e de preparar um
+ * statement (com e sem o cache de statements), com várias threads disputando.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class ConnectionPoolBenchmark {
+	
+	@Setup(Level.Trial)
+	public void setUp() {
+		BenchmarkDatabase.start("connection_pool", 1, 0, new Properties());
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		BenchmarkDatabase.stop();
+	}
+	
+	@Benchmark
+	public boolean borrowAndReturn() throws SQLException {
+		Connection conn = DB.getConnection();
+		try {
+			return conn.getAutoCommit();
+		}
+		finally {
+			DB.closeConnection(conn);
+		}
+	}
+	
+	@Benchmark
+	public boolean borrowAndPrepare() throws SQLException {
+		Connection conn = DB.getConnection();
+		PreparedStatement st = null;
+		try {
+			st = conn.prepareStatement("SELECT * FROM department WHERE Id = ?");
+			st.setInt(1, 1);
+			return st.execute();
+		}
+		finally {
+			DB.closeStatement(st);
+			DB.closeConnection(conn);
+		}
+	}
+}
@@ -0,0 +1,108 @@
+package benchmark;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.dao.DaoFactory;
+import model.dao.SellerDao;
+import model.entities.Department;
+import model.entities.Seller;
+
+/*
+ * Leituras e gravações do SellerDaoJDBC contra o H2 em memória.
+ * Rodar com "-prof gc" para ver a alocação por operação.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SellerDaoBenchmark {
+	
+	@Param({ "1000", "100000" })
+	public int sellers;
+	
+	@Param({ "10" })
+	public int departments;
+	
+	@Param({ "50" })
+	public int statementCacheSize;
+	
+	private SellerDao dao;
+	private Seller template;
+	
+	@Setup(Level.Trial)
+	public void setUp() {
+		Properties props = new Properties();
+		props.setProperty("pool.statementCacheSize", String.valueOf(statementCacheSize));
+		BenchmarkDatabase.start("seller_dao_" + sellers, departments, sellers, props);
+		dao = DaoFactory.createSellerDao();
+		template = dao.findById(1);
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		BenchmarkDatabase.stop();
+	}
+	
+	@Benchmark
+	public List<Seller> findAll() {
+		return dao.findAll();
+	}
+	
+	@Benchmark
+	public Seller findById() {
+		return dao.findById(1 + ThreadLocalRandom.current().nextInt(sellers));
+	}
+	
+	@Benchmark
+	public List<Seller> findByDepartment() {
+		return dao.findByDepartment(new Department(1 + ThreadLocalRandom.current().nextInt(departments), null));
+	}
+	
+	@Benchmark
+	public List<Seller> findFirstPage() {
+		return dao.findPage(null, 100);
+	}
+	
+	@Benchmark
+	public long streamAll() {
+		try (Stream<Seller> stream = dao.streamAll()) {
+			return stream.count();
+		}
+	}
+	
+	@Benchmark
+	public Seller insert() {
+		Seller obj = new Seller(null, "Bench", "bench@example.com", new Date(), 3000.0, template.getDepartment());
+		dao.insert(obj);
+		return obj;
+	}
+	
+	@Benchmark
+	public Seller update() {
+		Seller obj = new Seller(1 + ThreadLocalRandom.current().nextInt(sellers), "Bench", "bench@example.com", 
+				template.getBirthDate(), ThreadLocalRandom.current().nextDouble(1000, 10000), template.getDepartment());
+		dao.update(obj);
+		return obj;
+	}
+}
@@ -0,0 +1,187 @@
+package fx;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import gui.util.Utils;
+import javafx.animation.AnimationTimer;
+import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.scene.Scene;
+import javafx.scene.control.TableCell;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.cell.PropertyValueFactory;
+import javafx.stage.Stage;
+import model.entities.Department;
+import model.entities.Seller;
+
+/*
+ * Rola uma TableView de vendedores (em memória, sem banco) de cima a baixo
+ * e mede quadros por segundo, quadros acima de 16,7 ms, bytes alocados pela
+ * JavaFX Application Thread e coletas de lixo no período.
+ * "cached" usa as células de Utils (FormattedCell); "legacy" repete as
+ * células antigas (String.format com Locale.setDefault e SimpleDateFormat).
+ *
+ * Uso (via bench/run-scroll-fps.sh): [cached|legacy] [linhas] [segundos]
+ */
+public class ScrollFpsHarness extends Application {
+	
+	// Linhas avançadas a cada quadro
+	private static final int ROWS_PER_FRAME = 40;
+	
+	private static final long SLOW_FRAME_NANOS = 16_700_000;
+	
+	@Override
+	public void start(Stage stage) {
+		List<String> args = getParameters().getRaw();
+		boolean legacy = args.size() > 0 && args.get(0).equals("legacy");
+		int rows = args.size() > 1 ? Integer.parseInt(args.get(1)) : 100_000;
+		int seconds = args.size() > 2 ? Integer.parseInt(args.get(2)) : 10;
+		
+		TableView<Seller> table = new TableView<>(FXCollections.observableArrayList(sellers(rows)));
+		TableColumn<Seller, String> name = new TableColumn<>("Name");
+		name.setCellValueFactory(new PropertyValueFactory<>("name"));
+		TableColumn<Seller, String> email = new TableColumn<>("Email");
+		email.setCellValueFactory(new PropertyValueFactory<>("email"));
+		TableColumn<Seller, Date> birthDate = new TableColumn<>("Birth Date");
+		birthDate.setCellValueFactory(new PropertyValueFactory<>("birthDate"));
+		TableColumn<Seller, Double> baseSalary = new TableColumn<>("Base Salary");
+		baseSalary.setCellValueFactory(new PropertyValueFactory<>("baseSalary"));
+		if (legacy) {
+			legacyDateCells(birthDate, "dd/MM/yyyy");
+			legacyDoubleCells(baseSalary, 2);
+		}
+		else {
+			Utils.formatTableColumnDate(birthDate, "dd/MM/yyyy");
+			Utils.formatTableColumnDouble(baseSalary, 2);
+		}
+		table.getColumns().add(name);
+		table.getColumns().add(email);
+		table.getColumns().add(birthDate);
+		table.getColumns().add(baseSalary);
+		
+		stage.setScene(new Scene(table, 900, 700));
+		stage.setTitle("Scroll FPS - " + (legacy ? "legacy" : "cached"));
+		stage.show();
+		
+		new AnimationTimer() {
+			private long start;
+			private long last;
+			private int frames;
+			private int slowFrames;
+			private long maxFrame;
+			private int index;
+			private long allocatedAtStart;
+			private long gcCountAtStart;
+			private long gcTimeAtStart;
+			
+			@Override
+			public void handle(long now) {
+				if (start == 0) {
+					start = now;
+					allocatedAtStart = allocatedBytes();
+					gcCountAtStart = gcCount();
+					gcTimeAtStart = gcTime();
+				}
+				else {
+					long frame = now - last;
+					maxFrame = Math.max(maxFrame, frame);
+					if (frame > SLOW_FRAME_NANOS) {
+						slowFrames++;
+					}
+					frames++;
+				}
+				last = now;
+				
+				if (now - start >= seconds * 1_000_000_000L) {
+					stop();
+					double elapsed = (now - start) / 1e9;
+					long allocated = allocatedBytes() - allocatedAtStart;
+					System.out.printf(Locale.ROOT, "mode=%s rows=%d frames=%d fps=%.1f slowFrames=%d maxFrameMs=%.1f "
+							+ "fxAllocMB=%.1f allocPerFrameKB=%.1f gcCount=%d gcTimeMs=%d%n",
+							legacy ? "legacy" : "cached", rows, frames, frames / elapsed, slowFrames, maxFrame / 1e6,
+							allocated / 1048576.0, frames > 0 ? allocated / 1024.0 / frames : 0,
+							gcCount() - gcCountAtStart, gcTime() - gcTimeAtStart);
+					Platform.exit();
+					return;
+				}
+				index = index + ROWS_PER_FRAME >= rows ? 0 : index + ROWS_PER_FRAME;
+				table.scrollTo(index);
+			}
+		}.start();
+	}
+	
+	private static List<Seller> sellers(int rows) {
+		Random random = new Random(42);
+		Department department = new Department(1, "Books");
+		List<Seller> list = new ArrayList<>(rows);
+		for (int i = 0; i < rows; i++) {
+			list.add(new Seller(i + 1, "Seller " + i, "seller" + i + "@example.com", 
+					new Date(random.nextInt(18_000) * 86_400_000L), 1000 + random.nextInt(1_000_000) / 100.0, department));
+		}
+		return list;
+	}
+	
+	// Bytes alocados pela thread atual (a JavaFX Application Thread)
+	private static long allocatedBytes() {
+		com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+	
+	private static long gcCount() {
+		long count = 0;
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			count += Math.max(0, gc.getCollectionCount());
+		}
+		return count;
+	}
+	
+	private static long gcTime() {
+		long time = 0;
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			time += Math.max(0, gc.getCollectionTime());
+		}
+		return time;
+	}
+	
+	// Células como eram antes do FormattedCell, para comparação
+	private static <T> void legacyDateCells(TableColumn<T, Date> column, String format) {
+		column.setCellFactory(c -> new TableCell<T, Date>() {
+			private SimpleDateFormat sdf = new SimpleDateFormat(format);
+			
+			@Override
+			protected void updateItem(Date item, boolean empty) {
+				super.updateItem(item, empty);
+				setText(empty || item == null ? null : sdf.format(item));
+			}
+		});
+	}
+	
+	private static <T> void legacyDoubleCells(TableColumn<T, Double> column, int decimalPlaces) {
+		column.setCellFactory(c -> new TableCell<T, Double>() {
+			@Override
+			protected void updateItem(Double item, boolean empty) {
+				super.updateItem(item, empty);
+				if (empty || item == null) {
+					setText(null);
+				}
+				else {
+					Locale.setDefault(Locale.US);
+					setText(String.format("%." + decimalPlaces + "f", item));
+				}
+			}
+		});
+	}
+	
+	public static void main(String[] args) {
+		launch(args);
+	}
+}
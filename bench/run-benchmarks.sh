@@ -0,0 +1,37 @@
+#!/bin/sh
+#
+# Compila a aplicação e os benchmarks JMH e roda com o profiler de GC.
+# O resultado sai em JSON em bench/results/<commit>.json, para comparar entre commits.
+#
+# Requer em BENCH_LIBS (padrão: bench/lib) os jars:
+#   jmh-core, jmh-generator-annprocess, jopt-simple, commons-math3 e h2
+#
+# Uso: bench/run-benchmarks.sh [argumentos do JMH, ex.: SellerDaoBenchmark.findAll -p sellers=1000]
+
+set -e
+
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+LIBS=${BENCH_LIBS:-$ROOT/bench/lib}
+OUT=$ROOT/bench/build
+RESULTS=$ROOT/bench/results
+
+CP=$(find "$LIBS" -name '*.jar' | tr '\n' ':')
+if [ -z "$CP" ]; then
+	echo "No jars found in $LIBS (set BENCH_LIBS)" >&2
+	exit 1
+fi
+
+rm -rf "$OUT"
+mkdir -p "$OUT/classes" "$RESULTS"
+
+# Só o código sem JavaFX (db, model, metrics e os formatadores das células) entra nos benchmarks
+javac -encoding UTF-8 -cp "$CP" -d "$OUT/classes" \
+	$(find "$ROOT/src/db" "$ROOT/src/model" "$ROOT/src/metrics" -name '*.java') "$ROOT/src/gui/util/Formats.java"
+javac -encoding UTF-8 -cp "$OUT/classes:$CP" -d "$OUT/classes" \
+	-processor org.openjdk.jmh.generators.BenchmarkProcessor \
+	$(find "$ROOT/bench" -name '*.java' -path '*/benchmark/*' ! -path "$OUT/*")
+
+COMMIT=$(git -C "$ROOT" rev-parse --short HEAD 2>/dev/null || echo local)
+
+java -cp "$OUT/classes:$CP" org.openjdk.jmh.Main \
+	-prof gc -rf json -rff "$RESULTS/$COMMIT.json" "$@"
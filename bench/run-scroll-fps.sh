@@ -0,0 +1,34 @@
+#!/bin/sh
+#
+# Roda o fx.ScrollFpsHarness com as células atuais e com as antigas e
+# grava as duas linhas de resultado em bench/results/scroll-<commit>.txt.
+# Os pulsos do JavaFX rodam sem o limite de 60 por segundo
+# (javafx.animation.fullspeed), para o FPS mostrar a folga de cada versão.
+#
+# Requer as mesmas variáveis de launch/run.sh (JAVAFX_LIB) e um ambiente gráfico.
+#
+# Uso: bench/run-scroll-fps.sh [linhas, padrão 100000] [segundos, padrão 10]
+
+set -e
+
+. "$(dirname "$0")/../launch/common.sh"
+
+ROWS=${1:-100000}
+SECONDS_PER_MODE=${2:-10}
+OUT=$ROOT/bench/build/fx
+RESULTS=$ROOT/bench/results
+
+build_app
+rm -rf "$OUT"
+mkdir -p "$OUT" "$RESULTS"
+javac -encoding UTF-8 --module-path "$JAVAFX_LIB" --add-modules javafx.controls -cp "$APP_JAR" -d "$OUT" \
+	"$ROOT/bench/fx/ScrollFpsHarness.java"
+
+COMMIT=$(git -C "$ROOT" rev-parse --short HEAD 2>/dev/null || echo local)
+RESULT=$RESULTS/scroll-$COMMIT.txt
+: > "$RESULT"
+
+for MODE in legacy cached; do
+	"$JAVA" -Djavafx.animation.fullspeed=true --module-path "$JAVAFX_LIB" --add-modules javafx.controls \
+		-cp "$APP_JAR:$OUT" fx.ScrollFpsHarness $MODE "$ROWS" "$SECONDS_PER_MODE" | grep '^mode=' | tee -a "$RESULT"
+done
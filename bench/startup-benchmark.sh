@@ -0,0 +1,64 @@
+#!/bin/sh
+#
+# Mede a inicialização da aplicação com e sem o arquivo de CDS/AOT. Cada
+# execução usa --training (application.TrainingRun), que abre as telas e
+# fecha sozinha; os tempos vêm dos marcos que o StartupTimer grava no log:
+#   firstInteraction  janela principal pronta para eventos
+#   sellerListShown   primeira página de vendedores desenhada na tabela
+#   total             tempo de relógio do processo inteiro
+# Modos: off (-Xshare:off), jdk (só o CDS padrão do JDK) e app (arquivo
+# gerado por launch/cds-train.sh, criado aqui se não existir).
+# O resultado (medianas em ms) sai em bench/results/startup-<commit>.txt.
+#
+# Requer as mesmas variáveis de launch/run.sh (JAVAFX_LIB, MYSQL_JAR) e um
+# ambiente gráfico.
+#
+# Uso: bench/startup-benchmark.sh [execuções por modo, padrão 5]
+
+set -e
+
+. "$(dirname "$0")/../launch/common.sh"
+
+RUNS=${1:-5}
+RESULTS=$ROOT/bench/results
+LOG=$BUILD/startup-run.log
+
+build_app
+if [ ! -f "$ARCHIVE" ]; then
+	"$ROOT/launch/cds-train.sh"
+fi
+mkdir -p "$RESULTS"
+cd "$ROOT"
+
+milestone() {
+	sed -n "s/.*Startup milestone '$1' reached \([0-9]*\) ms.*/\1/p" "$LOG" | head -n 1
+}
+
+median() {
+	sort -n | awk '{ v[NR] = $1 } END { if (NR == 0) print "-"; else print v[int((NR + 1) / 2)] }'
+}
+
+COMMIT=$(git -C "$ROOT" rev-parse --short HEAD 2>/dev/null || echo local)
+OUT=$RESULTS/startup-$COMMIT.txt
+
+printf "%-6s %18s %18s %10s\n" mode firstInteraction sellerListShown total | tee "$OUT"
+for MODE in off jdk app; do
+	case $MODE in
+		off) OPTIONS="-Xshare:off" ;;
+		jdk) OPTIONS="-Xshare:auto" ;;
+		app) OPTIONS=$(archive_options) ;;
+	esac
+	: > "$BUILD/first.txt"; : > "$BUILD/list.txt"; : > "$BUILD/total.txt"
+	i=0
+	while [ $i -lt "$RUNS" ]; do
+		START=$(date +%s%N)
+		"$JAVA" $OPTIONS $JAVA_ARGS application.Main --training > "$LOG" 2>&1
+		END=$(date +%s%N)
+		milestone firstInteraction >> "$BUILD/first.txt"
+		milestone sellerListShown >> "$BUILD/list.txt"
+		echo $(( (END - START) / 1000000 )) >> "$BUILD/total.txt"
+		i=$((i + 1))
+	done
+	printf "%-6s %18s %18s %10s\n" $MODE $(median < "$BUILD/first.txt") $(median < "$BUILD/list.txt") \
+		$(median < "$BUILD/total.txt") | tee -a "$OUT"
+done
@@ -0,0 +1,32 @@
+#!/bin/sh
+#
+# Gera o arquivo de classes para a JVM em uso a partir de uma execução com
+# --training (application.TrainingRun), que passa pela janela principal,
+# pelas listas, pelo relatório e pelos formulários e fecha sozinha:
+#   JDK 25+     cache AOT (-XX:AOTCacheOutput)
+#   JDK 13-24   AppCDS dinâmico (-XX:ArchiveClassesAtExit)
+#   JDK 11-12   lista de classes + -Xshare:dump
+# O resultado fica em launch/build e é usado por launch/run.sh.
+# O banco deve estar acessível para que as classes do driver também entrem.
+#
+# Uso: launch/cds-train.sh
+
+set -e
+
+. "$(dirname "$0")/common.sh"
+
+build_app
+rm -f "$ARCHIVE"
+cd "$ROOT"
+
+if [ "$JAVA_VERSION" -ge 25 ]; then
+	"$JAVA" -XX:AOTCacheOutput="$ARCHIVE" $JAVA_ARGS application.Main --training
+elif [ "$JAVA_VERSION" -ge 13 ]; then
+	"$JAVA" -XX:ArchiveClassesAtExit="$ARCHIVE" $JAVA_ARGS application.Main --training
+else
+	CLASS_LIST=$BUILD/classes-jdk$JAVA_VERSION.lst
+	"$JAVA" -Xshare:off -XX:DumpLoadedClassList="$CLASS_LIST" $JAVA_ARGS application.Main --training
+	"$JAVA" -Xshare:dump -XX:SharedClassListFile="$CLASS_LIST" -XX:SharedArchiveFile="$ARCHIVE" $JAVA_ARGS
+fi
+
+echo "Created $ARCHIVE"
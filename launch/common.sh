@@ -0,0 +1,61 @@
+# Definições comuns aos scripts de execução (incluído com ".", não executar direto)
+#
+# Variáveis de ambiente:
+#   JAVAFX_LIB  pasta lib do JavaFX SDK (obrigatória)
+#   MYSQL_JAR   jar do MySQL Connector/J
+#   JAVA        executável java (padrão: java do PATH)
+
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+BUILD=$ROOT/launch/build
+APP_JAR=$BUILD/workshop-javafx-jdbc.jar
+JAVA=${JAVA:-java}
+
+if [ -z "$JAVAFX_LIB" ] || [ ! -d "$JAVAFX_LIB" ]; then
+	echo "Set JAVAFX_LIB to the lib folder of the JavaFX SDK" >&2
+	exit 1
+fi
+
+JAVA_VERSION=$("$JAVA" -XshowSettings:properties -version 2>&1 | sed -n 's/^ *java.specification.version = //p')
+JAVA_VERSION=${JAVA_VERSION#1.}
+
+# O arquivo de classes só vale para a JVM que o gerou
+if [ "$JAVA_VERSION" -ge 25 ]; then
+	ARCHIVE=$BUILD/app-jdk$JAVA_VERSION.aot
+else
+	ARCHIVE=$BUILD/app-jdk$JAVA_VERSION.jsa
+fi
+
+# Módulos e classpath precisam ser os mesmos ao gerar e ao usar o arquivo
+JAVA_ARGS="--module-path $JAVAFX_LIB --add-modules javafx.controls,javafx.fxml -cp $APP_JAR${MYSQL_JAR:+:$MYSQL_JAR}"
+
+# O CDS só guarda classes lidas de jars, por isso a aplicação é empacotada
+build_app() {
+	if [ -f "$APP_JAR" ] && [ -z "$(find "$ROOT/src" -newer "$APP_JAR" -type f | head -n 1)" ]; then
+		return
+	fi
+	echo "Building $APP_JAR" >&2
+	rm -rf "$BUILD/classes"
+	mkdir -p "$BUILD/classes"
+	javac --release 11 -encoding UTF-8 --module-path "$JAVAFX_LIB" --add-modules javafx.controls,javafx.fxml \
+		-d "$BUILD/classes" $(find "$ROOT/src" -name '*.java')
+	(cd "$ROOT/src" && find . -type f ! -name '*.java') | while read -r f; do
+		mkdir -p "$BUILD/classes/$(dirname "$f")"
+		cp "$ROOT/src/$f" "$BUILD/classes/$f"
+	done
+	rm -f "$APP_JAR"
+	jar --create --file "$APP_JAR" --main-class application.Main -C "$BUILD/classes" .
+	# Um arquivo de classes antigo não corresponde mais ao jar
+	rm -f "$BUILD"/app-jdk*.jsa "$BUILD"/app-jdk*.aot
+}
+
+# Opções da JVM para usar o arquivo de classes, se ele existir
+archive_options() {
+	if [ ! -f "$ARCHIVE" ]; then
+		return
+	fi
+	if [ "$JAVA_VERSION" -ge 25 ]; then
+		echo "-XX:AOTCache=$ARCHIVE"
+	else
+		echo "-XX:SharedArchiveFile=$ARCHIVE -Xshare:auto"
+	fi
+}
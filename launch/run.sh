@@ -0,0 +1,16 @@
+#!/bin/sh
+#
+# Inicia a aplicação usando o arquivo de CDS/AOT gerado por launch/cds-train.sh,
+# quando ele existe para a JVM em uso. Sem o arquivo, inicia normalmente.
+#
+# Uso: launch/run.sh [--training]
+
+set -e
+
+. "$(dirname "$0")/common.sh"
+
+build_app
+
+# O db.properties é lido da pasta atual
+cd "$ROOT"
+exec "$JAVA" $(archive_options) $JAVA_ARGS application.Main "$@"
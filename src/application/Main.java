@@ -3,6 +3,7 @@ package application;
 import java.io.IOException;
 
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
 import javafx.scene.control.ScrollPane;
@@ -12,6 +13,16 @@ public class Main extends Application {
 	
 	private static Scene mainScene;
 	
+	/*
+	 * Configuração, pool, migrações e cache de departamentos começam em
+	 * segundo plano enquanto o JavaFX abre a janela (StartupTasks)
+	 */
+	@Override
+	public void init() {
+		StartupTimer.milestone("init");
+		StartupTasks.start();
+	}
+	
 	@Override
 	public void start(Stage primaryStage) {
 		try {
@@ -26,11 +37,34 @@ public class Main extends Application {
 			primaryStage.setScene(mainScene);
 			primaryStage.setTitle("Sample JavaFX application");
 			primaryStage.show();
+			StartupTimer.milestone("windowShown");
+			
+			// Depois do primeiro layout a janela já aceita eventos; só então as outras telas são lidas
+			afterNextPulse(mainScene, () -> {
+				StartupTimer.milestone("firstInteraction");
+				StartupTasks.preloadViews();
+			});
+			
+			if (TrainingRun.isRequested(getParameters())) {
+				TrainingRun.start(loader.getController(), primaryStage);
+			}
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
 	}
 	
+	// Executa a ação logo depois do próximo pulso de layout da cena
+	public static void afterNextPulse(Scene scene, Runnable action) {
+		Runnable listener = new Runnable() {
+			@Override
+			public void run() {
+				scene.removePostLayoutPulseListener(this);
+				Platform.runLater(action);
+			}
+		};
+		scene.addPostLayoutPulseListener(listener);
+	}
+	
 	public static Scene getMainScene() {
 		return mainScene;
 	}
@@ -0,0 +1,115 @@
+package application;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import db.DB;
+import db.MigrationRunner;
+import gui.util.ViewRegistry;
+import javafx.application.Platform;
+import metrics.MetricsReporter;
+import model.services.DepartmentService;
+
+/*
+ * Inicialização em segundo plano, enquanto a janela principal já está na tela:
+ *
+ *   config ──┬── metrics
+ *            ├── pool (primeira conexão)
+ *            └── schema (migrações) ── departments (cache)
+ *
+ * As telas mais usadas são lidas do FXML depois da primeira interação, uma
+ * por vez na JavaFX Application Thread, para não travar a janela.
+ * Uma fase que falha só é registrada no log: o erro volta a aparecer, com
+ * alerta, quando o usuário usar a função.
+ */
+public class StartupTasks {
+
+	// Na ordem em que costumam ser abertas
+	private static final List<String> VIEWS = Arrays.asList(
+			"/gui/SellerList.fxml",
+			"/gui/DepartmentList.fxml",
+			"/gui/SellerForm.fxml",
+			"/gui/DepartmentForm.fxml");
+
+	private static CompletableFuture<Void> schema = CompletableFuture.completedFuture(null);
+	private static CompletableFuture<Void> background = CompletableFuture.completedFuture(null);
+
+	// Chamado em Application.init(), antes de a janela existir; não bloqueia
+	public static synchronized CompletableFuture<Void> start() {
+		AtomicInteger count = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(3, r -> {
+			Thread t = new Thread(r, "startup-" + count.incrementAndGet());
+			t.setDaemon(true);
+			return t;
+		});
+
+		CompletableFuture<Properties> config = CompletableFuture.supplyAsync(
+				() -> StartupTimer.time("config", DB::getProperties), executor);
+
+		CompletableFuture<Void> metrics = config.thenAcceptAsync(
+				props -> StartupTimer.time("metrics", () -> MetricsReporter.start(props)), executor);
+		CompletableFuture<Void> pool = config.thenRunAsync(
+				() -> StartupTimer.time("pool", DB::warmUp), executor);
+		schema = config.thenRunAsync(
+				() -> StartupTimer.time("schema", MigrationRunner::migrate), executor);
+		CompletableFuture<Void> departments = schema.thenRunAsync(
+				() -> StartupTimer.time("departments", () -> new DepartmentService().findAll()), executor);
+
+		background = CompletableFuture.allOf(metrics, pool, departments).whenComplete((x, e) -> {
+			executor.shutdown();
+			StartupTimer.milestone("backgroundReady");
+		});
+		return background;
+	}
+	
+	// Concluído (possivelmente com erro) quando todas as fases em segundo plano terminaram
+	public static synchronized CompletableFuture<Void> backgroundReady() {
+		return background;
+	}
+
+	/*
+	 * Concluído quando as migrações terminaram (com ou sem erro). As telas
+	 * que consultam o banco esperam por ele para não ler um esquema antigo.
+	 */
+	public static synchronized CompletableFuture<Void> schemaChecked() {
+		return schema.handle((x, e) -> null);
+	}
+
+	// Chamado na JavaFX Application Thread, com a janela principal já desenhada
+	public static void preloadViews() {
+		preloadNext(VIEWS.iterator());
+	}
+
+	// Uma tela por vez: entre elas a fila de eventos da janela é atendida
+	private static void preloadNext(Iterator<String> it) {
+		if (!it.hasNext()) {
+			StartupTimer.milestone("viewsReady");
+			return;
+		}
+		String absoluteName = it.next();
+		if (!ViewRegistry.isLoaded(absoluteName)) {
+			String viewName = absoluteName.substring(absoluteName.lastIndexOf('/') + 1).replace(".fxml", "");
+			try {
+				StartupTimer.time("view." + viewName, () -> {
+					try {
+						ViewRegistry.get(absoluteName);
+					}
+					catch (IOException e) {
+						throw new IllegalStateException(e.getMessage(), e);
+					}
+				});
+			}
+			catch (RuntimeException e) {
+				// Já registrado; a tela será lida de novo quando for aberta
+			}
+		}
+		Platform.runLater(() -> preloadNext(it));
+	}
+}
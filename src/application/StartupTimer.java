@@ -0,0 +1,72 @@
+package application;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import metrics.MetricsRegistry;
+
+/*
+ * Tempos da inicialização. Cada fase vira um timer "startup.<fase>" e uma
+ * linha no log; os marcos (ex.: primeira interação) são medidos a partir
+ * do início do processo e expostos como gauges "startup.<marco>Millis".
+ */
+public class StartupTimer {
+
+	private static final Logger LOG = Logger.getLogger("application.startup");
+
+	// Início do processo; se o SO não informar, usa o carregamento desta classe
+	private static final long PROCESS_START_MILLIS = ProcessHandle.current().info().startInstant()
+			.map(Instant::toEpochMilli)
+			.orElse(System.currentTimeMillis());
+
+	private static final Map<String, Long> milestones = new ConcurrentHashMap<>();
+
+	// Milissegundos desde o início do processo
+	public static long elapsedMillis() {
+		return System.currentTimeMillis() - PROCESS_START_MILLIS;
+	}
+
+	public static void time(String phase, Runnable action) {
+		time(phase, () -> {
+			action.run();
+			return null;
+		});
+	}
+
+	// Executa a fase medindo o tempo; se ela falhar, registra no log e relança a exceção
+	public static <T> T time(String phase, Supplier<T> action) {
+		long start = System.nanoTime();
+		try {
+			T result = action.get();
+			long millis = (System.nanoTime() - start) / 1_000_000;
+			LOG.info("Startup phase '" + phase + "' took " + millis + " ms (" + elapsedMillis() + " ms since process start)");
+			return result;
+		}
+		catch (RuntimeException e) {
+			long millis = (System.nanoTime() - start) / 1_000_000;
+			LOG.log(Level.WARNING, "Startup phase '" + phase + "' failed after " + millis + " ms", e);
+			throw e;
+		}
+		finally {
+			MetricsRegistry.getInstance().timer("startup." + phase).stop(start);
+		}
+	}
+
+	// Registra o marco uma única vez (ex.: "firstInteraction")
+	public static void milestone(String name) {
+		long millis = elapsedMillis();
+		if (milestones.putIfAbsent(name, millis) == null) {
+			MetricsRegistry.getInstance().gauge("startup." + name + "Millis", () -> millis);
+			LOG.info("Startup milestone '" + name + "' reached " + millis + " ms after process start");
+		}
+	}
+
+	// null se o marco ainda não foi atingido
+	public static Long getMilestone(String name) {
+		return milestones.get(name);
+	}
+}
@@ -0,0 +1,91 @@
+package application;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import gui.MainViewController;
+import gui.util.ViewRegistry;
+import javafx.animation.PauseTransition;
+import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.stage.Stage;
+import javafx.util.Duration;
+
+/*
+ * Roteiro executado com --training: espera a inicialização em segundo plano,
+ * passa pelas listas de vendedores e departamentos, pelo relatório e pelos
+ * dois formulários, e fecha o programa. Serve para gerar o arquivo de CDS/AOT
+ * (launch/cds-train.sh) com as classes que o uso normal carrega, e para o
+ * benchmark de inicialização (bench/startup-benchmark.sh), que lê o marco
+ * "sellerListShown" do log.
+ */
+public class TrainingRun {
+
+	public static final String FLAG = "--training";
+
+	// Intervalo entre os passos, para cada tela passar por CSS, layout e desenho
+	private static final Duration STEP_DELAY = Duration.millis(300);
+	
+	// Quanto esperar a primeira página de vendedores antes de seguir (ex.: banco fora do ar)
+	private static final long SELLER_LIST_TIMEOUT_NANOS = 10_000_000_000L;
+	private static long sellerListDeadline;
+
+	public static boolean isRequested(Application.Parameters parameters) {
+		return parameters.getRaw().contains(FLAG);
+	}
+
+	public static void start(MainViewController controller, Stage primaryStage) {
+		List<Runnable> steps = Arrays.asList(
+				// O marco "sellerListShown" vem da SellerListController, quando a primeira página é desenhada
+				() -> {
+					controller.onMenuItemSellerAction();
+					sellerListDeadline = System.nanoTime() + SELLER_LIST_TIMEOUT_NANOS;
+				},
+				controller::onMenuItemDepartmentAction,
+				controller::onMenuItemReportAction,
+				() -> showDialog("/gui/SellerForm.fxml", "Enter Seller data", primaryStage),
+				() -> showDialog("/gui/DepartmentForm.fxml", "Enter Department data", primaryStage),
+				() -> {
+					StartupTimer.milestone("trainingDone");
+					Platform.exit();
+				});
+
+		// Com o banco fora do ar o roteiro segue: as telas mostram o erro e as classes são carregadas do mesmo jeito
+		StartupTasks.backgroundReady().handle((x, e) -> null)
+				.thenRun(() -> Platform.runLater(() -> next(steps.iterator())));
+	}
+
+	private static void next(Iterator<Runnable> it) {
+		if (!it.hasNext()) {
+			return;
+		}
+		it.next().run();
+		PauseTransition pause = new PauseTransition(STEP_DELAY);
+		pause.setOnFinished(e -> {
+			// Não sai da lista de vendedores antes de as linhas chegarem
+			if (StartupTimer.getMilestone("sellerListShown") == null && System.nanoTime() < sellerListDeadline) {
+				pause.playFromStart();
+			}
+			else {
+				next(it);
+			}
+		});
+		pause.play();
+	}
+
+	// Abre e fecha a janela do formulário (a mesma que a lista usa depois, via ViewRegistry)
+	private static void showDialog(String absoluteName, String title, Stage owner) {
+		try {
+			Stage stage = ViewRegistry.get(absoluteName).getDialogStage(title, owner);
+			stage.show();
+			PauseTransition pause = new PauseTransition(STEP_DELAY.divide(2));
+			pause.setOnFinished(e -> stage.hide());
+			pause.play();
+		}
+		catch (IOException e) {
+			throw new IllegalStateException(e.getMessage(), e);
+		}
+	}
+}
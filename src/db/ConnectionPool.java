@@ -0,0 +1,381 @@
+package db;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import metrics.Counter;
+import metrics.MetricsRegistry;
+
+/*
+ * Pool de conexões limitado.
+ * Cada chamada a borrow() entrega uma conexão exclusiva para a thread;
+ * o close() da conexão devolve a conexão física para o pool em vez de fechá-la.
+ */
+public class ConnectionPool {
+
+	private static final Logger LOG = Logger.getLogger(ConnectionPool.class.getName());
+
+	private static final Counter TIMEOUTS = MetricsRegistry.getInstance().counter("db.pool.timeouts");
+	private static final Counter CONNECTIONS_OPENED = MetricsRegistry.getInstance().counter("db.pool.connectionsOpened");
+	private static final Counter LEAKS = MetricsRegistry.getInstance().counter("db.pool.leaks");
+
+	private final String url;
+	private final Properties props;
+
+	private final int minSize;
+	private final int maxSize;
+	private final long borrowTimeoutMillis;
+	private final int validationTimeoutSeconds;
+	private final long idleTimeoutMillis;
+	private final long leakDetectionThresholdMillis;
+	private final int statementCacheSize;
+	private final SqlTracer tracer;
+
+	// Conexões livres (LIFO, para reaproveitar as mais "quentes")
+	private final BlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+
+	// Conexões emprestadas, usadas para detectar vazamentos
+	private final Set<PooledConnection> borrowed = ConcurrentHashMap.newKeySet();
+
+	// Limita o total de conexões em uso ao maxSize
+	private final Semaphore permits;
+
+	private final ScheduledExecutorService housekeeper;
+
+	private volatile boolean closed;
+
+	public ConnectionPool(Properties props) {
+		this.props = driverProperties(props);
+		this.url = props.getProperty("dburl");
+		this.minSize = DB.intProperty(props, "pool.minSize", 1);
+		this.maxSize = DB.intProperty(props, "pool.maxSize", 10);
+		this.borrowTimeoutMillis = DB.intProperty(props, "pool.borrowTimeoutMillis", 30000);
+		this.validationTimeoutSeconds = DB.intProperty(props, "pool.validationTimeoutSeconds", 2);
+		this.idleTimeoutMillis = DB.intProperty(props, "pool.idleTimeoutMillis", 600000);
+		this.leakDetectionThresholdMillis = DB.intProperty(props, "pool.leakDetectionThresholdMillis", 60000);
+		this.statementCacheSize = DB.intProperty(props, "pool.statementCacheSize", 50);
+		this.tracer = SqlTracer.create(props);
+
+		if (minSize < 0 || maxSize < 1 || minSize > maxSize) {
+			throw new DbException("Invalid pool size: min=" + minSize + ", max=" + maxSize);
+		}
+		permits = new Semaphore(maxSize, true);
+
+		// Antes da thread de manutenção: com o banco fora do ar nada fica para trás a cada nova tentativa
+		try {
+			fillToMinimum();
+		}
+		catch (RuntimeException e) {
+			closeIdle();
+			throw e;
+		}
+
+		housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "db-pool-housekeeper");
+			t.setDaemon(true);
+			return t;
+		});
+		long period = Math.max(1000, Math.min(idleTimeoutMillis, leakDetectionThresholdMillis) / 2);
+		housekeeper.scheduleWithFixedDelay(this::houseKeep, period, period, TimeUnit.MILLISECONDS);
+	}
+
+	public Connection borrow() {
+		if (closed) {
+			throw new DbException("Connection pool is closed");
+		}
+		try {
+			if (!permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS)) {
+				TIMEOUTS.increment();
+				throw new DbException("Timeout waiting for a database connection after " + borrowTimeoutMillis
+						+ " ms (pool max size = " + maxSize + ")");
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new DbException("Interrupted while waiting for a database connection");
+		}
+
+		try {
+			PooledConnection pc = takeValidIdle();
+			if (pc == null) {
+				pc = newConnection();
+			}
+			pc.borrowedAt = System.currentTimeMillis();
+			pc.borrowTrace = leakDetectionThresholdMillis > 0 ? new Throwable("Connection borrowed here") : null;
+			borrowed.add(pc);
+			return pc.newHandle();
+		}
+		catch (RuntimeException e) {
+			permits.release();
+			throw e;
+		}
+	}
+
+	// Validação no empréstimo: descarta conexões que caíram enquanto estavam paradas
+	private PooledConnection takeValidIdle() {
+		PooledConnection pc;
+		while ((pc = idle.pollFirst()) != null) {
+			if (pc.isValid(validationTimeoutSeconds)) {
+				return pc;
+			}
+			pc.closePhysical();
+		}
+		return null;
+	}
+
+	void release(PooledConnection pc) {
+		borrowed.remove(pc);
+		try {
+			if (closed || !pc.reset()) {
+				pc.closePhysical();
+			}
+			else {
+				pc.lastUsed = System.currentTimeMillis();
+				idle.offerFirst(pc);
+			}
+		}
+		finally {
+			permits.release();
+		}
+	}
+
+	private PooledConnection newConnection() {
+		try {
+			PooledConnection pc = new PooledConnection(DriverManager.getConnection(url, props));
+			CONNECTIONS_OPENED.increment();
+			return pc;
+		}
+		catch (SQLException e) {
+			throw new DbException(e.getMessage());
+		}
+	}
+
+	private void fillToMinimum() {
+		while (!closed && idle.size() + borrowed.size() < minSize) {
+			PooledConnection pc = newConnection();
+			pc.lastUsed = System.currentTimeMillis();
+			idle.offerLast(pc);
+		}
+	}
+
+	private void houseKeep() {
+		try {
+			evictIdle();
+			detectLeaks();
+			fillToMinimum();
+		}
+		catch (RuntimeException e) {
+			LOG.log(Level.WARNING, "Connection pool housekeeping failed", e);
+		}
+	}
+
+	// Fecha conexões paradas há mais tempo que o idleTimeout, preservando o mínimo
+	private void evictIdle() {
+		if (idleTimeoutMillis <= 0) {
+			return;
+		}
+		long now = System.currentTimeMillis();
+		Iterator<PooledConnection> it = idle.descendingIterator();
+		while (it.hasNext() && idle.size() + borrowed.size() > minSize) {
+			PooledConnection pc = it.next();
+			if (now - pc.lastUsed > idleTimeoutMillis && idle.remove(pc)) {
+				pc.closePhysical();
+			}
+		}
+	}
+
+	private void detectLeaks() {
+		if (leakDetectionThresholdMillis <= 0) {
+			return;
+		}
+		long now = System.currentTimeMillis();
+		for (PooledConnection pc : borrowed) {
+			if (!pc.leakReported && now - pc.borrowedAt > leakDetectionThresholdMillis) {
+				pc.leakReported = true;
+				LEAKS.increment();
+				LOG.log(Level.WARNING, "Possible connection leak: connection held for " + (now - pc.borrowedAt)
+						+ " ms", pc.borrowTrace);
+			}
+		}
+	}
+
+	public void close() {
+		closed = true;
+		housekeeper.shutdownNow();
+		closeIdle();
+	}
+
+	private void closeIdle() {
+		PooledConnection pc;
+		while ((pc = idle.pollFirst()) != null) {
+			pc.closePhysical();
+		}
+	}
+
+	public int getIdleCount() {
+		return idle.size();
+	}
+
+	public int getActiveCount() {
+		return borrowed.size();
+	}
+
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	public int getWaitingCount() {
+		return permits.getQueueLength();
+	}
+
+	// Repassa ao driver apenas as propriedades dele (as da aplicação têm prefixo, ex.: "pool.")
+	private static Properties driverProperties(Properties props) {
+		Properties driverProps = new Properties();
+		for (String name : props.stringPropertyNames()) {
+			if (name.indexOf('.') < 0) {
+				driverProps.setProperty(name, props.getProperty(name));
+			}
+		}
+		return driverProps;
+	}
+
+	// Conexão física mantida pelo pool
+	class PooledConnection {
+
+		private final Connection physical;
+		private final StatementCache statementCache;
+
+		private volatile long lastUsed;
+		private volatile long borrowedAt;
+		private volatile Throwable borrowTrace;
+		private volatile boolean leakReported;
+
+		PooledConnection(Connection physical) {
+			this.physical = physical;
+			this.statementCache = statementCacheSize > 0 ? new StatementCache(physical, statementCacheSize) : null;
+		}
+
+		// Cada empréstimo recebe um novo proxy, para que um close() antigo não devolva a conexão de outro
+		Connection newHandle() {
+			leakReported = false;
+			return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+					new Class<?>[] { Connection.class }, new Handle(this));
+		}
+
+		boolean isValid(int timeoutSeconds) {
+			try {
+				return !physical.isClosed() && physical.isValid(timeoutSeconds);
+			}
+			catch (SQLException e) {
+				return false;
+			}
+		}
+
+		// Desfaz transações pendentes antes de devolver a conexão ao pool
+		boolean reset() {
+			try {
+				if (physical.isClosed()) {
+					return false;
+				}
+				if (!physical.getAutoCommit()) {
+					physical.rollback();
+					physical.setAutoCommit(true);
+				}
+				physical.clearWarnings();
+				return true;
+			}
+			catch (SQLException e) {
+				return false;
+			}
+		}
+
+		void closePhysical() {
+			if (statementCache != null) {
+				statementCache.closeAll();
+			}
+			try {
+				physical.close();
+			}
+			catch (SQLException e) {
+				LOG.log(Level.FINE, "Error closing pooled connection", e);
+			}
+		}
+	}
+
+	// Proxy entregue aos DAOs: close() devolve ao pool, as demais chamadas vão para a conexão física
+	private class Handle implements InvocationHandler {
+
+		private final PooledConnection pc;
+		private boolean handleClosed;
+
+		Handle(PooledConnection pc) {
+			this.pc = pc;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			switch (method.getName()) {
+			case "close":
+				if (!handleClosed) {
+					handleClosed = true;
+					release(pc);
+				}
+				return null;
+			case "isClosed":
+				return handleClosed || pc.physical.isClosed();
+			case "equals":
+				return proxy == args[0];
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			case "toString":
+				return "Pooled[" + pc.physical + "]";
+			case "prepareStatement": {
+				// prepareStatement(sql) e prepareStatement(sql, autoGeneratedKeys) passam pelo cache
+				PreparedStatement st;
+				if (!handleClosed && pc.statementCache != null
+						&& (args.length == 1 || (args.length == 2 && args[1] instanceof Integer))) {
+					int autoGeneratedKeys = args.length == 2 ? (Integer) args[1] : Statement.NO_GENERATED_KEYS;
+					st = pc.statementCache.prepare((String) args[0], autoGeneratedKeys);
+				}
+				else {
+					st = (PreparedStatement) invokePhysical(method, args);
+				}
+				return tracer != null ? TracingStatement.wrap(st, (String) args[0], tracer) : st;
+			}
+			default:
+				return invokePhysical(method, args);
+			}
+		}
+
+		private Object invokePhysical(Method method, Object[] args) throws Throwable {
+			if (handleClosed) {
+				throw new SQLException("Connection already returned to the pool");
+			}
+			try {
+				return method.invoke(pc.physical, args);
+			}
+			catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+		}
+	}
+}
@@ -1,51 +1,169 @@
 package db;
 
-import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.Properties;
 
+import metrics.MetricsRegistry;
+import metrics.Timer;
+
 public class DB {
 	
-	private static Connection conn = null;
+	private static volatile ConnectionPool pool = null;
+	
+	private static volatile Properties properties = null;
+	
+	// Tempo de espera por uma conexão livre do pool
+	private static final Timer ACQUIRE_TIMER = MetricsRegistry.getInstance().timer("db.connection.acquire");
+	
+	static {
+		registerGauges();
+	}
 	
+	/*
+	 * Empresta uma conexão do pool. Quem pede a conexão deve devolvê-la
+	 * com closeConnection(conn) ao final da operação.
+	 * Dentro de TransactionManager.execute() retorna a conexão da transação.
+	 */
 	public static Connection getConnection() {
-		if (conn == null) {
+		Connection conn = TransactionManager.currentConnection();
+		if (conn != null) {
+			return conn;
+		}
+		long start = System.nanoTime();
+		try {
+			return getPool().borrow();
+		}
+		finally {
+			ACQUIRE_TIMER.stop(start);
+		}
+	}
+	
+	public static ConnectionPool getPool() {
+		ConnectionPool p = pool;
+		if (p == null) {
+			synchronized (DB.class) {
+				p = pool;
+				if (p == null) {
+					p = new ConnectionPool(getProperties());
+					pool = p;
+				}
+			}
+		}
+		return p;
+	}
+	
+	/*
+	 * Cria o pool e empresta uma conexão validada, para que o driver e o
+	 * handshake com o servidor não fiquem para a primeira consulta do usuário.
+	 */
+	public static void warmUp() {
+		closeConnection(getPool().borrow());
+	}
+	
+	// Devolve a conexão ao pool (a conexão de uma transação só é devolvida no fim dela)
+	public static void closeConnection(Connection conn) {
+		if (conn != null && conn != TransactionManager.currentConnection()) {
 			try {
-				Properties props = loadProperties();
-				String url = props.getProperty("dburl");
-				conn = DriverManager.getConnection(url, props);	
+				conn.close();
 			}
 			catch (SQLException e) {
 				throw new DbException(e.getMessage());
 			}
 		}
-		return conn;
 	}
 	
+	// Fecha o pool e todas as conexões físicas livres
 	public static void closeConnection() {
-		if (conn != null) {
-			try {
-				conn.close();
+		synchronized (DB.class) {
+			if (pool != null) {
+				pool.close();
+				pool = null;
 			}
-			catch (SQLException e) {
-				throw new DbException(e.getMessage());
+		}
+	}
+	
+	/*
+	 * Usa a configuração informada em vez do db.properties (ex.: benchmarks
+	 * com banco em memória). Deve ser chamado antes do primeiro acesso ao banco.
+	 */
+	public static void configure(Properties props) {
+		synchronized (DB.class) {
+			closeConnection();
+			properties = props;
+		}
+	}
+	
+	// Configuração lida do db.properties, carregada uma única vez
+	public static Properties getProperties() {
+		Properties props = properties;
+		if (props == null) {
+			synchronized (DB.class) {
+				props = properties;
+				if (props == null) {
+					props = loadProperties();
+					properties = props;
+				}
 			}
 		}
+		return props;
+	}
+	
+	public static int getIntProperty(String name, int defaultValue) {
+		return intProperty(getProperties(), name, defaultValue);
+	}
+	
+	/*
+	 * Fetch size das consultas em streaming (stream.fetchSize).
+	 * No MySQL o driver só faz streaming linha a linha com Integer.MIN_VALUE;
+	 * nos demais bancos usa um valor positivo.
+	 */
+	public static int getStreamFetchSize() {
+		String url = getProperties().getProperty("dburl", "");
+		int defaultValue = url.startsWith("jdbc:mysql:") ? Integer.MIN_VALUE : 1000;
+		return getIntProperty("stream.fetchSize", defaultValue);
+	}
+	
+	// Lidos do pool atual, sem criá-lo só para exportar as métricas
+	private static void registerGauges() {
+		MetricsRegistry registry = MetricsRegistry.getInstance();
+		registry.gauge("db.pool.active", () -> pool != null ? pool.getActiveCount() : 0);
+		registry.gauge("db.pool.idle", () -> pool != null ? pool.getIdleCount() : 0);
+		registry.gauge("db.pool.waiting", () -> pool != null ? pool.getWaitingCount() : 0);
+		registry.gauge("db.pool.max", () -> pool != null ? pool.getMaxSize() : 0);
+		registry.gauge("db.statementCache.hits", StatementCache::getTotalHits);
+		registry.gauge("db.statementCache.misses", StatementCache::getTotalMisses);
+		registry.gauge("db.statementCache.evictions", StatementCache::getTotalEvictions);
+	}
+	
+	static int intProperty(Properties props, String name, int defaultValue) {
+		String value = props.getProperty(name);
+		if (value == null || value.trim().isEmpty()) {
+			return defaultValue;
+		}
+		try {
+			return Integer.parseInt(value.trim());
+		}
+		catch (NumberFormatException e) {
+			throw new DbException("Invalid value for " + name + ": " + value);
+		}
 	}
 	
 	private static Properties loadProperties() {
-		try (FileInputStream fs = new FileInputStream("db.properties")){
+		try (InputStream in = Files.newInputStream(Paths.get("db.properties"))) {
 			Properties props = new Properties();
-			props.load(fs);
+			props.load(in);
 			return props;
 		}
 		catch (IOException e ) {
-			throw new DbException(e.getMessage());
+			// A mensagem da NoSuchFileException é só o nome do arquivo
+			throw new DbException("Error reading db.properties: " + e);
 		}
 	}
 	
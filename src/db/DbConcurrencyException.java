@@ -0,0 +1,15 @@
+package db;
+
+// A linha foi alterada ou removida por outro usuário depois de ter sido lida (versão diferente)
+public class DbConcurrencyException extends DbException {
+
+	private static final long serialVersionUID = 1L;
+	
+	public static final String MESSAGE = "Row was changed or removed by another user";
+	
+	public DbConcurrencyException(String msg) {
+		super(msg);
+	}
+	
+
+}
@@ -0,0 +1,20 @@
+package db;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/*
+ * Um passo de evolução do esquema. As versões são aplicadas em ordem
+ * crescente e cada uma só uma vez (registrada em schema_version).
+ * Como o MySQL confirma DDL na hora (sem rollback), cada passo confere
+ * no metadata se a tabela, coluna ou índice já existe antes de criar,
+ * para poder ser repetido com segurança depois de uma falha no meio.
+ */
+public interface Migration {
+	
+	int getVersion();
+	
+	String getDescription();
+	
+	void apply(Connection conn) throws SQLException;
+}
@@ -0,0 +1,175 @@
+package db;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Locale;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/*
+ * Aplica as migrações pendentes, em ordem, e registra cada uma em
+ * schema_version. Chamado na inicialização (migrations.enabled=false
+ * desliga). Cada migração roda em sua própria transação; se falhar,
+ * as seguintes não são aplicadas e a exceção sobe para quem chamou.
+ * No MySQL, dois clientes iniciando juntos não aplicam a mesma migração:
+ * o segundo espera o lock "schema_migration" (migrations.lockTimeoutSeconds)
+ * e só então lê a versão atual.
+ */
+public class MigrationRunner {
+	
+	private static final Logger LOG = Logger.getLogger("db.migration");
+	
+	private static final String CREATE_VERSION_TABLE = "CREATE TABLE IF NOT EXISTS schema_version ("
+			+ "Version INT NOT NULL, "
+			+ "Description VARCHAR(200) NOT NULL, "
+			+ "AppliedAt DATETIME NOT NULL, "
+			+ "PRIMARY KEY (Version))";
+	
+	private static final String LOCK_NAME = "schema_migration";
+	
+	// Retorna quantas migrações foram aplicadas
+	public static int migrate() {
+		if (!Boolean.parseBoolean(DB.getProperties().getProperty("migrations.enabled", "true"))) {
+			return 0;
+		}
+		return migrate(Migrations.all());
+	}
+	
+	// synchronized: na mesma JVM também só uma thread migra por vez
+	static synchronized int migrate(List<Migration> migrations) {
+		Connection conn = null;
+		Boolean autoCommit = null;
+		boolean locked = false;
+		try {
+			conn = DB.getConnection();
+			autoCommit = conn.getAutoCommit();
+			locked = acquireLock(conn);
+			execute(conn, CREATE_VERSION_TABLE);
+			
+			// Lida depois do lock: inclui o que outro cliente acabou de aplicar
+			int current = currentVersion(conn);
+			int applied = 0;
+			conn.setAutoCommit(false);
+			for (Migration migration : migrations) {
+				if (migration.getVersion() <= current) {
+					continue;
+				}
+				apply(conn, migration);
+				current = migration.getVersion();
+				applied++;
+			}
+			if (applied > 0) {
+				LOG.info("Schema migrated to version " + current + " (" + applied + " migration(s) applied)");
+			}
+			return applied;
+		}
+		catch (SQLException e) {
+			throw new DbException(e.getMessage());
+		}
+		finally {
+			try {
+				if (locked) {
+					releaseLock(conn);
+				}
+				if (conn != null && autoCommit != null) {
+					conn.setAutoCommit(autoCommit);
+				}
+			}
+			catch (SQLException e) {
+				throw new DbException(e.getMessage());
+			}
+			finally {
+				DB.closeConnection(conn);
+			}
+		}
+	}
+	
+	/*
+	 * Lock nomeado do MySQL/MariaDB, preso à sessão: a conexão volta ao pool
+	 * aberta, então ele precisa ser liberado explicitamente. Nos outros bancos
+	 * (ex.: H2 nos testes de desempenho) não há lock entre processos.
+	 */
+	private static boolean acquireLock(Connection conn) throws SQLException {
+		String product = conn.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT);
+		if (!product.contains("mysql") && !product.contains("mariadb")) {
+			return false;
+		}
+		int timeoutSeconds = DB.getIntProperty("migrations.lockTimeoutSeconds", 60);
+		try (PreparedStatement st = conn.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+			st.setString(1, LOCK_NAME);
+			st.setInt(2, timeoutSeconds);
+			try (ResultSet rs = st.executeQuery()) {
+				if (rs.next() && rs.getInt(1) == 1) {
+					return true;
+				}
+			}
+		}
+		throw new SQLException("Timeout after " + timeoutSeconds + " s waiting for another client to finish the schema migration");
+	}
+	
+	private static void releaseLock(Connection conn) {
+		try (PreparedStatement st = conn.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+			st.setString(1, LOCK_NAME);
+			st.executeQuery().close();
+		}
+		catch (SQLException e) {
+			// O lock acaba com a sessão; até lá outro cliente espera o timeout
+			LOG.log(Level.WARNING, "Could not release the schema migration lock", e);
+		}
+	}
+	
+	// Versão mais alta já aplicada; 0 num banco sem migrações
+	public static int currentVersion() {
+		Connection conn = null;
+		try {
+			conn = DB.getConnection();
+			return SchemaInfo.tableExists(conn, "schema_version") ? currentVersion(conn) : 0;
+		}
+		catch (SQLException e) {
+			throw new DbException(e.getMessage());
+		}
+		finally {
+			DB.closeConnection(conn);
+		}
+	}
+	
+	private static int currentVersion(Connection conn) throws SQLException {
+		try (Statement st = conn.createStatement(); 
+				ResultSet rs = st.executeQuery("SELECT MAX(Version) FROM schema_version")) {
+			return rs.next() ? rs.getInt(1) : 0;
+		}
+	}
+	
+	private static void apply(Connection conn, Migration migration) throws SQLException {
+		long start = System.nanoTime();
+		try {
+			migration.apply(conn);
+			try (PreparedStatement st = conn.prepareStatement(
+					"INSERT INTO schema_version (Version, Description, AppliedAt) VALUES (?, ?, ?)")) {
+				st.setInt(1, migration.getVersion());
+				st.setString(2, migration.getDescription());
+				st.setTimestamp(3, new Timestamp(System.currentTimeMillis()));
+				st.executeUpdate();
+			}
+			conn.commit();
+		}
+		catch (SQLException e) {
+			conn.rollback();
+			throw new SQLException("Migration " + migration.getVersion() + " (" + migration.getDescription() 
+					+ ") failed: " + e.getMessage(), e);
+		}
+		LOG.info("Applied migration " + migration.getVersion() + " - " + migration.getDescription() 
+				+ " in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+	}
+	
+	private static void execute(Connection conn, String sql) throws SQLException {
+		try (Statement st = conn.createStatement()) {
+			st.execute(sql);
+		}
+	}
+}
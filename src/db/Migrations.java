@@ -0,0 +1,106 @@
+package db;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/*
+ * Histórico do esquema coursejdbc. Uma migração já publicada não deve ser
+ * alterada: mudanças novas entram como uma versão nova no fim da lista.
+ */
+class Migrations {
+	
+	static List<Migration> all() {
+		return Collections.unmodifiableList(Arrays.asList(
+				
+				// Tabelas originais do curso; num banco já existente não faz nada
+				migration(1, "Create department and seller tables", conn -> {
+					if (!SchemaInfo.tableExists(conn, "department")) {
+						execute(conn, "CREATE TABLE department ("
+								+ "Id INT NOT NULL AUTO_INCREMENT, "
+								+ "Name VARCHAR(60) DEFAULT NULL, "
+								+ "PRIMARY KEY (Id))");
+					}
+					if (!SchemaInfo.tableExists(conn, "seller")) {
+						execute(conn, "CREATE TABLE seller ("
+								+ "Id INT NOT NULL AUTO_INCREMENT, "
+								+ "Name VARCHAR(70) NOT NULL, "
+								+ "Email VARCHAR(100) NOT NULL, "
+								+ "BirthDate DATETIME NOT NULL, "
+								+ "BaseSalary DOUBLE NOT NULL, "
+								+ "DepartmentId INT NOT NULL, "
+								+ "PRIMARY KEY (Id), "
+								+ "CONSTRAINT fk_seller_department FOREIGN KEY (DepartmentId) REFERENCES department (Id))");
+					}
+				}),
+				
+				// Controle de concorrência otimista
+				migration(2, "Add Version columns", conn -> {
+					if (!SchemaInfo.columnExists(conn, "department", "Version")) {
+						execute(conn, "ALTER TABLE department ADD COLUMN Version INT NOT NULL DEFAULT 0");
+					}
+					if (!SchemaInfo.columnExists(conn, "seller", "Version")) {
+						execute(conn, "ALTER TABLE seller ADD COLUMN Version INT NOT NULL DEFAULT 0");
+					}
+				}),
+				
+				/*
+				 * Índices das consultas da aplicação:
+				 * - findByDepartment (WHERE DepartmentId = ? ORDER BY Name) e o filtro por departamento;
+				 * - listagem paginada por chave (ORDER BY Name, Id) e a busca por prefixo do nome;
+				 * - findAll de departamentos (ORDER BY Name).
+				 * Só cria quando não existe um índice que já comece pelas mesmas colunas.
+				 */
+				migration(3, "Add indexes for seller and department listings", conn -> {
+					if (!SchemaInfo.hasIndexOn(conn, "seller", "DepartmentId", "Name")) {
+						execute(conn, "CREATE INDEX idx_seller_department_name ON seller (DepartmentId, Name, Id)");
+					}
+					if (!SchemaInfo.hasIndexOn(conn, "seller", "Name")) {
+						execute(conn, "CREATE INDEX idx_seller_name ON seller (Name, Id)");
+					}
+					if (!SchemaInfo.hasIndexOn(conn, "department", "Name")) {
+						execute(conn, "CREATE INDEX idx_department_name ON department (Name)");
+					}
+				}),
+				
+				// O nome do vendedor aceita 70 caracteres (EntityRules); bancos criados antes tinham 60
+				migration(4, "Widen seller.Name to 70 characters", conn -> {
+					if (SchemaInfo.columnSize(conn, "seller", "Name") < 70) {
+						execute(conn, "ALTER TABLE seller MODIFY Name VARCHAR(70) NOT NULL");
+					}
+				})
+		));
+	}
+	
+	private interface Step {
+		void apply(Connection conn) throws SQLException;
+	}
+	
+	private static Migration migration(int version, String description, Step step) {
+		return new Migration() {
+			@Override
+			public int getVersion() {
+				return version;
+			}
+			
+			@Override
+			public String getDescription() {
+				return description;
+			}
+			
+			@Override
+			public void apply(Connection conn) throws SQLException {
+				step.apply(conn);
+			}
+		};
+	}
+	
+	private static void execute(Connection conn, String sql) throws SQLException {
+		try (Statement st = conn.createStatement()) {
+			st.execute(sql);
+		}
+	}
+}
@@ -0,0 +1,107 @@
+package db;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/*
+ * Consultas ao DatabaseMetaData usadas pelas migrações. Os nomes são
+ * procurados como escritos, em minúsculas e em maiúsculas, porque cada
+ * banco guarda os identificadores de um jeito.
+ */
+class SchemaInfo {
+	
+	static boolean tableExists(Connection conn, String table) throws SQLException {
+		DatabaseMetaData md = conn.getMetaData();
+		for (String name : variants(table)) {
+			try (ResultSet rs = md.getTables(conn.getCatalog(), null, name, new String[] { "TABLE" })) {
+				if (rs.next()) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+	
+	static boolean columnExists(Connection conn, String table, String column) throws SQLException {
+		DatabaseMetaData md = conn.getMetaData();
+		for (String name : variants(table)) {
+			try (ResultSet rs = md.getColumns(conn.getCatalog(), null, name, null)) {
+				while (rs.next()) {
+					if (column.equalsIgnoreCase(rs.getString("COLUMN_NAME"))) {
+						return true;
+					}
+				}
+			}
+		}
+		return false;
+	}
+	
+	// Tamanho declarado da coluna (ex.: 60 em VARCHAR(60)), ou -1 se ela não existe
+	static int columnSize(Connection conn, String table, String column) throws SQLException {
+		DatabaseMetaData md = conn.getMetaData();
+		for (String name : variants(table)) {
+			try (ResultSet rs = md.getColumns(conn.getCatalog(), null, name, null)) {
+				while (rs.next()) {
+					if (column.equalsIgnoreCase(rs.getString("COLUMN_NAME"))) {
+						return rs.getInt("COLUMN_SIZE");
+					}
+				}
+			}
+		}
+		return -1;
+	}
+	
+	/*
+	 * true se algum índice da tabela começa pelas colunas informadas, na
+	 * mesma ordem (um índice (A, B, C) atende a uma consulta por (A, B)).
+	 */
+	static boolean hasIndexOn(Connection conn, String table, String... columns) throws SQLException {
+		for (List<String> indexColumns : indexes(conn, table).values()) {
+			if (indexColumns.size() >= columns.length) {
+				boolean matches = true;
+				for (int i = 0; i < columns.length && matches; i++) {
+					matches = columns[i].equalsIgnoreCase(indexColumns.get(i));
+				}
+				if (matches) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+	
+	// Nome do índice -> colunas na ordem do índice
+	private static Map<String, List<String>> indexes(Connection conn, String table) throws SQLException {
+		DatabaseMetaData md = conn.getMetaData();
+		Map<String, Map<Integer, String>> positions = new HashMap<>();
+		for (String name : variants(table)) {
+			try (ResultSet rs = md.getIndexInfo(conn.getCatalog(), null, name, false, false)) {
+				while (rs.next()) {
+					String index = rs.getString("INDEX_NAME");
+					String column = rs.getString("COLUMN_NAME");
+					if (index != null && column != null) {
+						positions.computeIfAbsent(index, k -> new TreeMap<>()).put((int) rs.getShort("ORDINAL_POSITION"), column);
+					}
+				}
+			}
+			if (!positions.isEmpty()) {
+				break;
+			}
+		}
+		Map<String, List<String>> result = new HashMap<>();
+		positions.forEach((index, columns) -> result.put(index, new ArrayList<>(columns.values())));
+		return result;
+	}
+	
+	private static String[] variants(String name) {
+		return new String[] { name, name.toLowerCase(Locale.ROOT), name.toUpperCase(Locale.ROOT) };
+	}
+}
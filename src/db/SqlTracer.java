@@ -0,0 +1,162 @@
+package db;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Properties;
+import java.util.logging.Logger;
+
+import metrics.Counter;
+import metrics.MetricsRegistry;
+import metrics.Timer;
+
+/*
+ * Rastreia os SQLs executados pelas conexões do pool (trace.enabled=true,
+ * desligado por padrão):
+ * tempo de execução, tempo de leitura das linhas, linhas e parâmetros.
+ * Execuções acima de trace.slowQueryMillis vão para o logger "db.slowquery";
+ * as trace.topN mais lentas desde o início ficam disponíveis em getSlowest().
+ * Com trace.parameters=masked (padrão) só inteiros aparecem por extenso
+ * (Ids, limites); os demais valores viram tipo e tamanho. "plain" mostra
+ * tudo e "none" omite os parâmetros.
+ */
+public class SqlTracer {
+	
+	private static final Logger SLOW_LOG = Logger.getLogger("db.slowquery");
+	
+	private static final Comparator<StatementTrace> BY_TOTAL = Comparator.comparingLong(StatementTrace::getTotalNanos);
+	
+	// Menor no topo, para descartar rapidamente quando chega uma mais lenta
+	private static final PriorityQueue<StatementTrace> slowest = new PriorityQueue<>(BY_TOTAL);
+	private static volatile int topN = 50;
+	
+	private static final Timer EXECUTE_TIMER = MetricsRegistry.getInstance().timer("db.sql.execute");
+	private static final Timer FETCH_TIMER = MetricsRegistry.getInstance().timer("db.sql.fetch");
+	private static final Counter SLOW_COUNTER = MetricsRegistry.getInstance().counter("db.sql.slow");
+	
+	enum ParameterMode { MASKED, PLAIN, NONE }
+	
+	private final long slowQueryNanos;
+	private final ParameterMode parameterMode;
+	
+	private SqlTracer(long slowQueryNanos, ParameterMode parameterMode) {
+		this.slowQueryNanos = slowQueryNanos;
+		this.parameterMode = parameterMode;
+	}
+	
+	// null quando o rastreamento está desligado
+	static SqlTracer create(Properties props) {
+		if (!isEnabled(props)) {
+			return null;
+		}
+		topN = Math.max(1, DB.intProperty(props, "trace.topN", 50));
+		String mode = props.getProperty("trace.parameters", "masked").trim().toUpperCase();
+		try {
+			return new SqlTracer(DB.intProperty(props, "trace.slowQueryMillis", 200) * 1_000_000L,
+					ParameterMode.valueOf(mode));
+		}
+		catch (IllegalArgumentException e) {
+			throw new DbException("Invalid value for trace.parameters: " + props.getProperty("trace.parameters"));
+		}
+	}
+	
+	// false: getSlowest() fica sempre vazia
+	public static boolean isEnabled() {
+		return isEnabled(DB.getProperties());
+	}
+	
+	private static boolean isEnabled(Properties props) {
+		return Boolean.parseBoolean(props.getProperty("trace.enabled", "false"));
+	}
+	
+	// Ordem decrescente de tempo total
+	public static List<StatementTrace> getSlowest() {
+		List<StatementTrace> list;
+		synchronized (slowest) {
+			list = new ArrayList<>(slowest);
+		}
+		list.sort(BY_TOTAL.reversed());
+		return list;
+	}
+	
+	public static void clear() {
+		synchronized (slowest) {
+			slowest.clear();
+		}
+	}
+	
+	void record(String sql, Object[] parameters, long executeNanos, long fetchNanos, long rows) {
+		record(sql, parameters, -1, executeNanos, fetchNanos, rows);
+	}
+	
+	// Os parâmetros de cada linha do lote não são guardados, só o tamanho dele
+	void recordBatch(String sql, int batchSize, long executeNanos, long rows) {
+		record(sql, null, batchSize, executeNanos, 0, rows);
+	}
+	
+	private void record(String sql, Object[] parameters, int batchSize, long executeNanos, long fetchNanos, long rows) {
+		EXECUTE_TIMER.record(executeNanos);
+		if (fetchNanos > 0) {
+			FETCH_TIMER.record(fetchNanos);
+		}
+		long total = executeNanos + fetchNanos;
+		
+		// Caminho comum: mais rápida que a mais lenta guardada, nada a formatar
+		if (total < slowQueryNanos && !mayEnterTop(total)) {
+			return;
+		}
+		String formatted = batchSize >= 0 ? "[batch of " + batchSize + "]" : formatParameters(parameters);
+		StatementTrace trace = new StatementTrace(sql, formatted, executeNanos, fetchNanos, rows);
+		if (total >= slowQueryNanos) {
+			SLOW_COUNTER.increment();
+			SLOW_LOG.warning("Slow query: " + trace);
+		}
+		synchronized (slowest) {
+			slowest.offer(trace);
+			while (slowest.size() > topN) {
+				slowest.poll();
+			}
+		}
+	}
+	
+	private static boolean mayEnterTop(long totalNanos) {
+		synchronized (slowest) {
+			return slowest.size() < topN || slowest.peek().getTotalNanos() < totalNanos;
+		}
+	}
+	
+	String formatParameters(Object[] parameters) {
+		if (parameters == null || parameters.length == 0 || parameterMode == ParameterMode.NONE) {
+			return "";
+		}
+		StringBuilder sb = new StringBuilder("[");
+		for (int i = 0; i < parameters.length; i++) {
+			if (i > 0) {
+				sb.append(", ");
+			}
+			sb.append(formatValue(parameters[i]));
+		}
+		return sb.append(']').toString();
+	}
+	
+	private String formatValue(Object value) {
+		if (value == null) {
+			return "NULL";
+		}
+		if (value instanceof Integer || value instanceof Long || value instanceof Short) {
+			return value.toString();
+		}
+		if (parameterMode == ParameterMode.PLAIN) {
+			return value instanceof CharSequence ? "'" + value + "'" : value.toString();
+		}
+		if (value instanceof CharSequence) {
+			return "<String(" + ((CharSequence) value).length() + ")>";
+		}
+		if (value instanceof Double || value instanceof Float || value instanceof BigDecimal) {
+			return "<Number>";
+		}
+		return "<" + value.getClass().getSimpleName() + ">";
+	}
+}
@@ -0,0 +1,269 @@
+package db;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Cache LRU de PreparedStatements de uma conexão física do pool.
+ * A chave é o texto do SQL mais o flag de chaves geradas. O close() do
+ * statement entregue ao DAO só fecha os ResultSets abertos e devolve o
+ * statement ao cache; o fechamento real ocorre na remoção do cache.
+ * Ao voltar para o cache o statement é limpo: parâmetros, lote não
+ * executado e as configurações alteradas pelo DAO (fetch size etc.).
+ */
+public class StatementCache {
+
+	// Configurações restauradas na devolução (o valor original é lido antes da primeira alteração)
+	private static final Set<String> RESETTABLE_SETTINGS = new HashSet<>(Arrays.asList(
+			"setFetchSize", "setMaxRows", "setLargeMaxRows", "setQueryTimeout"));
+
+	// Demais configurações: o statement alterado é fechado em vez de voltar ao cache
+	private static final Set<String> OTHER_SETTINGS = new HashSet<>(Arrays.asList(
+			"setFetchDirection", "setMaxFieldSize", "setEscapeProcessing", "setCursorName", 
+			"setPoolable", "closeOnCompletion"));
+
+	// Contadores globais de todas as conexões
+	private static final AtomicLong totalHits = new AtomicLong();
+	private static final AtomicLong totalMisses = new AtomicLong();
+	private static final AtomicLong totalEvictions = new AtomicLong();
+
+	private final Connection physical;
+	private final int maxSize;
+	private final Map<String, CachedStatement> statements;
+
+	// Uma conexão do pool é usada por uma thread de cada vez, mas o housekeeper pode fechar o cache
+	StatementCache(Connection physical, int maxSize) {
+		this.physical = physical;
+		this.maxSize = maxSize;
+		this.statements = new LinkedHashMap<String, CachedStatement>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+				if (size() > StatementCache.this.maxSize) {
+					totalEvictions.incrementAndGet();
+					eldest.getValue().evict();
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	synchronized PreparedStatement prepare(String sql, int autoGeneratedKeys) throws SQLException {
+		String key = autoGeneratedKeys + ":" + sql;
+		CachedStatement cached = statements.get(key);
+
+		if (cached != null && !cached.inUse) {
+			totalHits.incrementAndGet();
+			return cached.borrow();
+		}
+		totalMisses.incrementAndGet();
+
+		PreparedStatement st = autoGeneratedKeys == Statement.NO_GENERATED_KEYS
+				? physical.prepareStatement(sql)
+				: physical.prepareStatement(sql, autoGeneratedKeys);
+
+		// O mesmo SQL já está em uso (ex.: chamada aninhada): entrega um statement fora do cache
+		if (cached != null) {
+			CachedStatement uncached = new CachedStatement(this, key, st);
+			uncached.evicted = true;
+			return uncached.borrow();
+		}
+		cached = new CachedStatement(this, key, st);
+		statements.put(key, cached);
+		return cached.borrow();
+	}
+
+	// Tira do cache um statement que não pode ser reaproveitado
+	synchronized void remove(String key, CachedStatement cached) {
+		statements.remove(key, cached);
+	}
+
+	synchronized void closeAll() {
+		for (CachedStatement cached : statements.values()) {
+			cached.closePhysical();
+		}
+		statements.clear();
+	}
+
+	public static long getTotalHits() {
+		return totalHits.get();
+	}
+
+	public static long getTotalMisses() {
+		return totalMisses.get();
+	}
+
+	public static long getTotalEvictions() {
+		return totalEvictions.get();
+	}
+
+	private static class CachedStatement {
+
+		private final StatementCache owner;
+		private final String key;
+		private final PreparedStatement physicalStatement;
+		private boolean inUse;
+		private boolean evicted;
+		
+		// Valores originais, lidos só quando o DAO altera alguma configuração
+		private boolean settingsSaved;
+		private boolean settingsChanged;
+		private boolean reusable = true;
+		private int fetchSize;
+		private int maxRows;
+		private int queryTimeout;
+
+		CachedStatement(StatementCache owner, String key, PreparedStatement physicalStatement) {
+			this.owner = owner;
+			this.key = key;
+			this.physicalStatement = physicalStatement;
+		}
+		
+		// Chamado antes de o DAO executar um setter de configuração
+		void beforeSetting(String method) throws SQLException {
+			if (OTHER_SETTINGS.contains(method)) {
+				reusable = false;
+			}
+			else if (RESETTABLE_SETTINGS.contains(method)) {
+				if (!settingsSaved) {
+					fetchSize = physicalStatement.getFetchSize();
+					maxRows = physicalStatement.getMaxRows();
+					queryTimeout = physicalStatement.getQueryTimeout();
+					settingsSaved = true;
+				}
+				settingsChanged = true;
+			}
+		}
+
+		PreparedStatement borrow() {
+			inUse = true;
+			return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+					new Class<?>[] { PreparedStatement.class }, new Handle(this));
+		}
+
+		void giveBack() throws SQLException {
+			inUse = false;
+			if (!evicted && !reusable) {
+				owner.remove(key, this);
+				evicted = true;
+			}
+			if (evicted) {
+				closePhysical();
+				return;
+			}
+			try {
+				physicalStatement.clearParameters();
+				// Um lote montado e não executado (ex.: exceção no meio dos addBatch) iria junto no próximo executeBatch
+				physicalStatement.clearBatch();
+				if (settingsChanged) {
+					physicalStatement.setFetchSize(fetchSize);
+					physicalStatement.setMaxRows(maxRows);
+					physicalStatement.setQueryTimeout(queryTimeout);
+					settingsChanged = false;
+				}
+			}
+			catch (SQLException e) {
+				// Statement em estado desconhecido: não volta para o cache
+				owner.remove(key, this);
+				evicted = true;
+				closePhysical();
+				throw e;
+			}
+		}
+
+		void evict() {
+			evicted = true;
+			if (!inUse) {
+				closePhysical();
+			}
+		}
+
+		void closePhysical() {
+			try {
+				physicalStatement.close();
+			}
+			catch (SQLException e) {
+				// Ignorado: o statement já está sendo descartado
+			}
+		}
+	}
+
+	// Statement entregue ao DAO enquanto ele está usando o cache
+	private static class Handle implements InvocationHandler {
+
+		private final CachedStatement cached;
+		private final List<ResultSet> openResults = new ArrayList<>();
+		private boolean closed;
+
+		Handle(CachedStatement cached) {
+			this.cached = cached;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			switch (method.getName()) {
+			case "close":
+				if (!closed) {
+					closed = true;
+					closeResults();
+					cached.giveBack();
+				}
+				return null;
+			case "isClosed":
+				return closed || cached.physicalStatement.isClosed();
+			case "equals":
+				return proxy == args[0];
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			case "toString":
+				return "Cached[" + cached.physicalStatement + "]";
+			default:
+				if (closed) {
+					throw new SQLException("Statement already closed");
+				}
+				cached.beforeSetting(method.getName());
+				Object result;
+				try {
+					result = method.invoke(cached.physicalStatement, args);
+				}
+				catch (InvocationTargetException e) {
+					throw e.getCause();
+				}
+				// Guarda os ResultSets para não vazarem quando o statement voltar ao cache
+				if (result instanceof ResultSet) {
+					openResults.add((ResultSet) result);
+				}
+				return result;
+			}
+		}
+
+		private void closeResults() {
+			for (ResultSet rs : openResults) {
+				try {
+					rs.close();
+				}
+				catch (SQLException e) {
+					// Ignorado: o ResultSet pode já ter sido fechado pelo DAO
+				}
+			}
+			openResults.clear();
+		}
+	}
+}
@@ -0,0 +1,70 @@
+package db;
+
+import java.time.LocalDateTime;
+import java.util.Locale;
+
+// Uma execução de SQL registrada pelo SqlTracer
+public class StatementTrace {
+	
+	private final String sql;
+	private final String parameters;
+	private final long executeNanos;
+	private final long fetchNanos;
+	private final long rows;
+	private final LocalDateTime executedAt;
+	private final String threadName;
+	
+	StatementTrace(String sql, String parameters, long executeNanos, long fetchNanos, long rows) {
+		this.sql = sql;
+		this.parameters = parameters;
+		this.executeNanos = executeNanos;
+		this.fetchNanos = fetchNanos;
+		this.rows = rows;
+		this.executedAt = LocalDateTime.now();
+		this.threadName = Thread.currentThread().getName();
+	}
+	
+	public String getSql() {
+		return sql;
+	}
+	
+	public String getParameters() {
+		return parameters;
+	}
+	
+	public double getExecuteMillis() {
+		return executeNanos / 1_000_000.0;
+	}
+	
+	// Tempo gasto no ResultSet.next(), isto é, buscando as linhas no driver
+	public double getFetchMillis() {
+		return fetchNanos / 1_000_000.0;
+	}
+	
+	public double getTotalMillis() {
+		return (executeNanos + fetchNanos) / 1_000_000.0;
+	}
+	
+	long getTotalNanos() {
+		return executeNanos + fetchNanos;
+	}
+	
+	// Linhas lidas (consultas) ou afetadas (atualizações)
+	public long getRows() {
+		return rows;
+	}
+	
+	public LocalDateTime getExecutedAt() {
+		return executedAt;
+	}
+	
+	public String getThreadName() {
+		return threadName;
+	}
+	
+	@Override
+	public String toString() {
+		return String.format(Locale.ROOT, "%.3f ms (execute %.3f ms, fetch %.3f ms, %d rows) %s %s",
+				getTotalMillis(), getExecuteMillis(), getFetchMillis(), rows, sql, parameters);
+	}
+}
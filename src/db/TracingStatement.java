@@ -0,0 +1,207 @@
+package db;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Arrays;
+
+/*
+ * PreparedStatement entregue pelo pool quando o SqlTracer está ligado.
+ * Guarda os parâmetros dos setXxx(índice, valor), mede o execute e, nas
+ * consultas, o tempo gasto nos next() do ResultSet. A execução é registrada
+ * quando o ResultSet (ou o statement) é fechado.
+ */
+class TracingStatement implements InvocationHandler {
+	
+	private final PreparedStatement target;
+	private final String sql;
+	private final SqlTracer tracer;
+	
+	private Object[] parameters = new Object[8];
+	private int parameterCount;
+	private int batchSize;
+	
+	// Consulta aberta, ainda sendo lida
+	private Query pending;
+	
+	private TracingStatement(PreparedStatement target, String sql, SqlTracer tracer) {
+		this.target = target;
+		this.sql = sql;
+		this.tracer = tracer;
+	}
+	
+	static PreparedStatement wrap(PreparedStatement target, String sql, SqlTracer tracer) {
+		return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+				new Class<?>[] { PreparedStatement.class }, new TracingStatement(target, sql, tracer));
+	}
+	
+	@Override
+	public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+		String name = method.getName();
+		switch (name) {
+		case "executeQuery":
+			if (args == null) {
+				finishPending();
+				long start = System.nanoTime();
+				ResultSet rs = (ResultSet) invokeTarget(method, args);
+				pending = new Query(System.nanoTime() - start);
+				return pending.wrap(rs, (PreparedStatement) proxy);
+			}
+			break;
+		case "executeUpdate":
+		case "executeLargeUpdate":
+		case "execute":
+			if (args == null) {
+				finishPending();
+				long start = System.nanoTime();
+				Object result = invokeTarget(method, args);
+				long rows = result instanceof Number ? ((Number) result).longValue() : 0;
+				tracer.record(sql, currentParameters(), System.nanoTime() - start, 0, rows);
+				return result;
+			}
+			break;
+		case "executeBatch":
+		case "executeLargeBatch": {
+			long start = System.nanoTime();
+			Object result = invokeTarget(method, args);
+			tracer.recordBatch(sql, batchSize, System.nanoTime() - start, sum(result));
+			batchSize = 0;
+			return result;
+		}
+		case "addBatch":
+			batchSize++;
+			break;
+		case "clearBatch":
+			batchSize = 0;
+			break;
+		case "clearParameters":
+			Arrays.fill(parameters, null);
+			parameterCount = 0;
+			break;
+		case "close":
+			finishPending();
+			break;
+		case "equals":
+			return proxy == args[0];
+		case "hashCode":
+			return System.identityHashCode(proxy);
+		case "toString":
+			return "Traced[" + target + "]";
+		default:
+			if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+				setParameter((Integer) args[0], name.equals("setNull") ? null : args[1]);
+			}
+		}
+		return invokeTarget(method, args);
+	}
+	
+	private Object invokeTarget(Method method, Object[] args) throws Throwable {
+		try {
+			return method.invoke(target, args);
+		}
+		catch (InvocationTargetException e) {
+			throw e.getCause();
+		}
+	}
+	
+	private void setParameter(int index, Object value) {
+		if (index < 1) {
+			return;
+		}
+		if (index > parameters.length) {
+			parameters = Arrays.copyOf(parameters, Math.max(index, parameters.length * 2));
+		}
+		parameters[index - 1] = value;
+		parameterCount = Math.max(parameterCount, index);
+	}
+	
+	private Object[] currentParameters() {
+		return Arrays.copyOf(parameters, parameterCount);
+	}
+	
+	private void finishPending() {
+		if (pending != null) {
+			pending.finish();
+		}
+	}
+	
+	private static long sum(Object counts) {
+		long total = 0;
+		if (counts instanceof int[]) {
+			for (int c : (int[]) counts) {
+				total += Math.max(c, 0);
+			}
+		}
+		else if (counts instanceof long[]) {
+			for (long c : (long[]) counts) {
+				total += Math.max(c, 0);
+			}
+		}
+		return total;
+	}
+	
+	// Leitura de uma consulta: linhas e tempo dentro do next()
+	private class Query {
+		
+		private final long executeNanos;
+		private final Object[] queryParameters;
+		private long fetchNanos;
+		private long rows;
+		private boolean finished;
+		
+		Query(long executeNanos) {
+			this.executeNanos = executeNanos;
+			this.queryParameters = currentParameters();
+		}
+		
+		ResultSet wrap(ResultSet rs, PreparedStatement statement) {
+			return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+					new Class<?>[] { ResultSet.class }, (proxy, method, args) -> invokeResultSet(rs, statement, proxy, method, args));
+		}
+		
+		private Object invokeResultSet(ResultSet rs, PreparedStatement statement, Object proxy, Method method,
+				Object[] args) throws Throwable {
+			switch (method.getName()) {
+			case "next": {
+				long start = System.nanoTime();
+				boolean hasRow = rs.next();
+				fetchNanos += System.nanoTime() - start;
+				if (hasRow) {
+					rows++;
+				}
+				return hasRow;
+			}
+			case "close":
+				finish();
+				break;
+			case "getStatement":
+				return statement;
+			case "equals":
+				return proxy == args[0];
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			default:
+				break;
+			}
+			try {
+				return method.invoke(rs, args);
+			}
+			catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+		}
+		
+		void finish() {
+			if (!finished) {
+				finished = true;
+				tracer.record(sql, queryParameters, executeNanos, fetchNanos, rows);
+				if (pending == this) {
+					pending = null;
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,150 @@
+package db;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Unidade de trabalho: liga uma conexão do pool à thread atual durante o
+ * execute(). Todas as chamadas a DB.getConnection() feitas dentro dele
+ * (inclusive pelos DAOs) recebem essa mesma conexão, e o commit acontece
+ * uma única vez no final. Uma exceção desfaz tudo.
+ * Um execute() dentro de outro participa da transação de fora.
+ * O que só pode mudar na memória se o banco confirmar (ex.: o id gerado
+ * num INSERT) é registrado com afterCommit().
+ */
+public class TransactionManager {
+	
+	// Mantém o nível de isolamento padrão do driver
+	public static final int DEFAULT_ISOLATION = -1;
+	
+	public interface TransactionCallback<T> {
+		T doInTransaction();
+	}
+	
+	private static final ThreadLocal<Connection> current = new ThreadLocal<>();
+	private static final ThreadLocal<List<Runnable>> afterCommit = new ThreadLocal<>();
+	
+	public static <T> T execute(TransactionCallback<T> work) {
+		return execute(DEFAULT_ISOLATION, work);
+	}
+	
+	// isolationLevel: uma das constantes Connection.TRANSACTION_* ou DEFAULT_ISOLATION
+	public static <T> T execute(int isolationLevel, TransactionCallback<T> work) {
+		if (current.get() != null) {
+			return work.doInTransaction();
+		}
+		
+		Connection conn = DB.getConnection();
+		int previousIsolation = -1;
+		try {
+			conn.setAutoCommit(false);
+			if (isolationLevel != DEFAULT_ISOLATION) {
+				previousIsolation = conn.getTransactionIsolation();
+				conn.setTransactionIsolation(isolationLevel);
+			}
+			List<Runnable> actions = new ArrayList<>();
+			current.set(conn);
+			afterCommit.set(actions);
+			
+			T result = work.doInTransaction();
+			conn.commit();
+			afterCommit.remove();
+			for (Runnable action : actions) {
+				action.run();
+			}
+			return result;
+		}
+		catch (SQLException e) {
+			rollback(conn);
+			throw new DbException(e.getMessage());
+		}
+		catch (RuntimeException | Error e) {
+			rollback(conn);
+			throw e;
+		}
+		finally {
+			current.remove();
+			afterCommit.remove();
+			try {
+				if (previousIsolation != -1) {
+					conn.setTransactionIsolation(previousIsolation);
+				}
+				conn.setAutoCommit(true);
+			}
+			catch (SQLException e) {
+				// O pool desfaz o que estiver pendente ao receber a conexão de volta
+			}
+			DB.closeConnection(conn);
+		}
+	}
+	
+	/*
+	 * Executa a ação depois do commit da transação em andamento; se ela for
+	 * desfeita, a ação é descartada. Fora de uma transação executa na hora.
+	 */
+	public static void afterCommit(Runnable action) {
+		List<Runnable> actions = afterCommit.get();
+		if (actions == null) {
+			action.run();
+		}
+		else {
+			actions.add(action);
+		}
+	}
+	
+	public static boolean isActive() {
+		return current.get() != null;
+	}
+	
+	// Conexão da transação da thread atual, ou null
+	static Connection currentConnection() {
+		return current.get();
+	}
+	
+	public static Savepoint setSavepoint() {
+		try {
+			return requireConnection().setSavepoint();
+		}
+		catch (SQLException e) {
+			throw new DbException(e.getMessage());
+		}
+	}
+	
+	public static void rollbackTo(Savepoint savepoint) {
+		try {
+			requireConnection().rollback(savepoint);
+		}
+		catch (SQLException e) {
+			throw new DbException(e.getMessage());
+		}
+	}
+	
+	public static void releaseSavepoint(Savepoint savepoint) {
+		try {
+			requireConnection().releaseSavepoint(savepoint);
+		}
+		catch (SQLException e) {
+			throw new DbException(e.getMessage());
+		}
+	}
+	
+	private static Connection requireConnection() {
+		Connection conn = current.get();
+		if (conn == null) {
+			throw new IllegalStateException("No active transaction");
+		}
+		return conn;
+	}
+	
+	private static void rollback(Connection conn) {
+		try {
+			conn.rollback();
+		}
+		catch (SQLException e) {
+			// Mantém a exceção original; o pool descarta a conexão se ela estiver inválida
+		}
+	}
+}
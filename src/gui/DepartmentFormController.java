@@ -5,24 +5,30 @@ import java.net.URL;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.ResourceBundle;
 import java.util.Set;
 
-import db.DbException;
+import db.DbConcurrencyException;
+import gui.listerners.DataChangeEvent;
 import gui.listerners.DataChangeListener;
 import gui.util.Alerts;
 import gui.util.Constraints;
+import gui.util.TaskScope;
 import gui.util.Utils;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.Alert.AlertType;
 import javafx.scene.control.Button;
+import javafx.scene.control.ButtonType;
 import javafx.scene.control.Label;
 import javafx.scene.control.TextField;
+import javafx.stage.Stage;
 import model.entities.Department;
 import model.exceptions.ValidationException;
 import model.services.DepartmentService;
+import model.validation.EntityRules;
 
 public class DepartmentFormController implements Initializable{
 
@@ -30,7 +36,9 @@ public class DepartmentFormController implements Initializable{
 	
 	private DepartmentService service;
 	
-	private List<DataChangeListener> dataChangeListeners = new ArrayList<>();
+	private List<DataChangeListener<Department>> dataChangeListeners = new ArrayList<>();
+	
+	private TaskScope scope = new TaskScope();
 	
 	
 	//Declaração dos componentes da tela
@@ -58,8 +66,11 @@ public class DepartmentFormController implements Initializable{
 	}
 	
 	//Executar quando o mudar os dados do Departmanto
-	public void subscribeDataChangeListener(DataChangeListener listener) {
-		dataChangeListeners.add(listener);
+	// O formulário é reaproveitado (ViewRegistry): o mesmo ouvinte não é registrado duas vezes
+	public void subscribeDataChangeListener(DataChangeListener<Department> listener) {
+		if (!dataChangeListeners.contains(listener)) {
+			dataChangeListeners.add(listener);
+		}
 	}
 	
 	@FXML
@@ -72,43 +83,83 @@ public class DepartmentFormController implements Initializable{
 		}
 		try {
 			entity = getFormData();
-			service.saveOrUpdate(entity);	
-			notifyDataChangeListeners();
-			Utils.currentStage(event).close();
 		}
 		catch (ValidationException e) {
 			setErrorMessages(e.getErrors());
-		}
-		catch (DbException e) {
-			Alerts.showAlert("Error saving object", null, e.getMessage(), AlertType.ERROR);
+			return;
 		}
 		
+		save(Utils.currentStage(event));
+	}
+	
+	// Grava fora da thread da interface; a janela só fecha depois da confirmação do banco
+	private void save(Stage stage) {
+		btnSave.setDisable(true);
+		DataChangeEvent.Operation operation = entity.getId() == null 
+				? DataChangeEvent.Operation.INSERT : DataChangeEvent.Operation.UPDATE;
+		scope.submit(service.saveOrUpdateAsync(entity), v -> {
+			notifyDataChangeListeners(new DataChangeEvent<>(operation, entity));
+			stage.close();
+		}, e -> {
+			btnSave.setDisable(false);
+			if (e instanceof DbConcurrencyException) {
+				handleConcurrencyConflict(stage);
+			}
+			else {
+				Alerts.showAlert("Error saving object", null, e.getMessage(), AlertType.ERROR);
+			}
+		});
+	}
+	
+	/*
+	 * Outro usuário gravou o department depois que o formulário foi aberto.
+	 * Reload descarta o que foi digitado e mostra os dados atuais; Keep mine
+	 * grava os dados do formulário por cima da versão atual.
+	 */
+	private void handleConcurrencyConflict(Stage stage) {
+		scope.submit(service.findByIdAsync(entity.getId()), current -> {
+			if (current == null) {
+				Alerts.showAlert("Department removed", null, "This department was removed by another user.", AlertType.WARNING);
+				notifyDataChangeListeners(new DataChangeEvent<>(DataChangeEvent.Operation.DELETE, entity));
+				stage.close();
+				return;
+			}
+			ButtonType reload = new ButtonType("Reload");
+			ButtonType keepMine = new ButtonType("Keep mine");
+			Optional<ButtonType> choice = Alerts.showChoice("Department changed", "This department was changed by another user", 
+					"Reload discards your changes and shows the current data. " 
+					+ "Keep mine saves your changes over the other user's.", reload, keepMine, ButtonType.CANCEL);
+			if (!choice.isPresent() || choice.get() == ButtonType.CANCEL) {
+				return;
+			}
+			if (choice.get() == reload) {
+				entity = current;
+				updateFormData();
+				notifyDataChangeListeners(new DataChangeEvent<>(DataChangeEvent.Operation.UPDATE, current));
+			}
+			else {
+				entity.setVersion(current.getVersion());
+				save(stage);
+			}
+		}, e -> Alerts.showAlert("Error loading department", null, e.getMessage(), AlertType.ERROR));
 	}
 	
-	private void notifyDataChangeListeners() {
-		for (DataChangeListener listener : dataChangeListeners) {
-			listener.onDataChanged();
+	private void notifyDataChangeListeners(DataChangeEvent<Department> event) {
+		for (DataChangeListener<Department> listener : dataChangeListeners) {
+			listener.onDataChanged(event);
 		}
 	}
 
+	// As regras ficam em EntityRules, compartilhadas com a importação e os lotes
 	private Department getFormData() {
 		Department obj = new Department();
 		
-		//Instanciar a ValidationException
-		ValidationException exception = new ValidationException("Validation error");
-		
 		obj.setId(Utils.tryParseToInt(txtId.getText()));
-		
-		if (txtName.getText() == null || txtName.getText().trim().equals("")) {
-			exception.addError("name", "Field can´t be empty");
-		}
-		
-		//Verifica se na coleção tem pelo menos 1 erro
-		if (exception.getErrors().size() > 0) {
-			throw exception;
-		}
+		obj.setVersion(entity.getVersion());
 		obj.setName(txtName.getText());
 		
+		EntityRules.DEPARTMENT.validate(obj);
+		
 		return obj;
 	}
 
@@ -124,15 +175,20 @@ public class DepartmentFormController implements Initializable{
 	
 	private void initializeNodes() {
 		Constraints.setTextFieldInteger(txtId);
-		Constraints.setTextFieldMaxLength(txtName, 30);
+		Constraints.setTextFieldRule(txtName, EntityRules.DEPARTMENT.get("name"));
 	}
 	
 	public void updateFormData() {
 		if (entity == null) {
 			throw new IllegalStateException("Entity was null.");
 		}
-		txtId.setText(String.valueOf(entity.getId()));
+		// O formulário é reaproveitado: entidade nova limpa o campo ("null" seria recusado pelo filtro)
+		txtId.setText(entity.getId() == null ? "" : String.valueOf(entity.getId()));
 		txtName.setText(entity.getName());
+		
+		// Limpa o que sobrou da última vez que o formulário foi aberto
+		labelErrorName.setText("");
+		btnSave.setDisable(false);
 	}
 	
 	private void setErrorMessages(Map<String, String> errors) {
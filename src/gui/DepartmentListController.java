@@ -1,42 +1,55 @@
 package gui;
 
+import java.io.File;
 import java.io.IOException;
 import java.net.URL;
-import java.util.List;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Optional;
 import java.util.ResourceBundle;
 
 import application.Main;
-import db.DbIntegrityException;
+import gui.listerners.DataChangeEvent;
 import gui.listerners.DataChangeListener;
 import gui.util.Alerts;
+import gui.util.LoadStamp;
+import gui.util.ProgressDialog;
+import gui.util.TaskScope;
 import gui.util.Utils;
+import gui.util.ViewRegistry;
 import javafx.beans.property.ReadOnlyObjectWrapper;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
-import javafx.scene.Scene;
 import javafx.scene.control.Alert.AlertType;
 import javafx.scene.control.Button;
 import javafx.scene.control.ButtonType;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.control.TableCell;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
 import javafx.scene.control.cell.PropertyValueFactory;
-import javafx.scene.layout.Pane;
-import javafx.stage.Modality;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 import model.entities.Department;
 import model.services.DepartmentService;
+import model.services.ExportService;
+import model.services.ImportService;
 
-public class DepartmentListController implements Initializable, DataChangeListener {
+public class DepartmentListController implements Initializable, DataChangeListener<Department> {
+
+	// Mesma ordem do findAll (ORDER BY Name)
+	private static final Comparator<Department> ORDER = Comparator.comparing(Department::getName, String.CASE_INSENSITIVE_ORDER);
 
 	// Dependência ao DepartmentService
 	private DepartmentService service;
 
+	private ImportService importService = new ImportService();
+
+	private ExportService exportService = new ExportService();
+
 	// Definir todos os objetos
 	@FXML
 	private TableView<Department> tableViewDepartment;
@@ -56,7 +69,21 @@ public class DepartmentListController implements Initializable, DataChangeListen
 	@FXML
 	private Button btnNew;
 
+	@FXML
+	private Button btnImport;
+
+	@FXML
+	private Button btnExport;
+
+	@FXML
+	private ProgressIndicator progressIndicator;
+
 	private ObservableList<Department> obsList;
+	
+	// Tarefas assíncronas da tela, canceladas quando o usuário navega para outra
+	private TaskScope scope = new TaskScope();
+	
+	private final LoadStamp loadStamp = new LoadStamp();
 
 	// Defini o método de ação
 	@FXML
@@ -67,10 +94,73 @@ public class DepartmentListController implements Initializable, DataChangeListen
 		createDialogForm(obj, "/gui/DepartmentForm.fxml", parentStage);
 	}
 
+	// Importa um CSV em segundo plano, com progresso e cancelamento
+	@FXML
+	public void onBtnImportAction(ActionEvent event) {
+		Stage parentStage = Utils.currentStage(event);
+		FileChooser chooser = new FileChooser();
+		chooser.setTitle("Import departments");
+		chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV files", "*.csv"));
+		File file = chooser.showOpenDialog(parentStage);
+		if (file == null) {
+			return;
+		}
+		
+		ProgressDialog dialog = new ProgressDialog("Import departments", parentStage);
+		dialog.show();
+		btnImport.setDisable(true);
+		scope.submit(importService.importDepartmentsAsync(file.toPath(), dialog), result -> {
+			dialog.close();
+			btnImport.setDisable(false);
+			updateTableView();
+			Alerts.showAlert("Import departments", null, result.getSummary(), 
+					result.getErrorReport() != null ? AlertType.WARNING : AlertType.INFORMATION);
+		}, e -> {
+			dialog.close();
+			btnImport.setDisable(false);
+			Alerts.showAlert("Error importing file", null, e.getMessage(), AlertType.ERROR);
+		});
+	}
+
+	// Exporta em segundo plano; CSV ou JSON Lines, com gzip, conforme a extensão escolhida
+	@FXML
+	public void onBtnExportAction(ActionEvent event) {
+		Stage parentStage = Utils.currentStage(event);
+		FileChooser chooser = new FileChooser();
+		chooser.setTitle("Export departments");
+		chooser.getExtensionFilters().addAll(
+				new FileChooser.ExtensionFilter("CSV", "*.csv"),
+				new FileChooser.ExtensionFilter("CSV (gzip)", "*.csv.gz"),
+				new FileChooser.ExtensionFilter("JSON Lines", "*.jsonl"),
+				new FileChooser.ExtensionFilter("JSON Lines (gzip)", "*.jsonl.gz"));
+		File file = chooser.showSaveDialog(parentStage);
+		if (file == null) {
+			return;
+		}
+		
+		ProgressDialog dialog = new ProgressDialog("Export departments", parentStage);
+		dialog.show();
+		btnExport.setDisable(true);
+		scope.submit(exportService.exportDepartmentsAsync(file.toPath(), dialog), result -> {
+			dialog.close();
+			btnExport.setDisable(false);
+			Alerts.showAlert("Export departments", null, result.getSummary(), AlertType.INFORMATION);
+		}, e -> {
+			dialog.close();
+			btnExport.setDisable(false);
+			Alerts.showAlert("Error exporting file", null, e.getMessage(), AlertType.ERROR);
+		});
+	}
+
 	// Injetar dependencia
 	public void setDepartmentService(DepartmentService service) {
 		this.service = service;
 	}
+	
+	public void setTaskScope(TaskScope scope) {
+		this.scope = scope;
+		progressIndicator.visibleProperty().bind(scope.busyProperty());
+	}
 
 	@Override
 	public void initialize(URL url, ResourceBundle rb) {
@@ -81,6 +171,10 @@ public class DepartmentListController implements Initializable, DataChangeListen
 		// Para iniciar o comportamento das colunas
 		tableColumnId.setCellValueFactory(new PropertyValueFactory<>("id"));
 		tableColumnName.setCellValueFactory(new PropertyValueFactory<>("name"));
+		
+		// Os botões leem o item da própria linha, então bastam ser criados uma vez
+		initEditButtons();
+		initRemoveButtons();
 
 		// Para ficar do tamanho total da Janela
 		Stage stage = (Stage) Main.getMainScene().getWindow();
@@ -92,44 +186,78 @@ public class DepartmentListController implements Initializable, DataChangeListen
 			throw new IllegalStateException("Service was null");
 		}
 
-		// recebe os serviços retornados do métodos findAll()
-		List<Department> list = service.findAll();
-		obsList = FXCollections.observableArrayList(list);
+		// recebe os serviços retornados do métodos findAll(), fora da thread da interface
+		long version = loadStamp.begin();
+		scope.submit(service.findAllAsync(), list -> {
+			loadStamp.loaded(version);
+			obsList = FXCollections.observableArrayList(list);
+
+			// Para carregar as obslist na TableView
+			tableViewDepartment.setItems(obsList);
+		}, e -> Alerts.showAlert("Error loading departments", null, e.getMessage(), AlertType.ERROR));
+	}
 
-		// Para carregar as obslist na TableView
-		tableViewDepartment.setItems(obsList);
-		initEditButtons(); // Chamada para o método para criar o botão de edição
-		initRemoveButtons(); // Chamada para o método para criar o botão de removação.
+	// Ao voltar para a tela, só relê se houve gravação ou os dados passaram da idade máxima
+	public void refreshIfStale() {
+		if (loadStamp.isStale()) {
+			updateTableView();
+		}
 	}
 
+	// O formulário e a janela são criados uma vez e reaproveitados (ViewRegistry)
 	private void createDialogForm(Department obj, String absoluteName, Stage parentStage) {
 		try {
-			FXMLLoader loader = new FXMLLoader(getClass().getResource(absoluteName));
-			Pane pane = loader.load();
+			ViewRegistry.View<DepartmentFormController> view = ViewRegistry.get(absoluteName);
 
 			// Pega o controle da tela na qual está no momento para carregar no formulário
-			DepartmentFormController controller = loader.getController();
+			DepartmentFormController controller = view.getController();
 			controller.setDepartment(obj);
-			controller.setDepartmentService(new DepartmentService());
+			controller.setDepartmentService(service);
 			controller.subscribeDataChangeListener(this);
 			controller.updateFormData();
 
-			Stage dialogStage = new Stage();
-			dialogStage.setTitle("Enter Department data");
-			dialogStage.setScene(new Scene(pane));
-			dialogStage.setResizable(false);
-			dialogStage.initOwner(parentStage);
-			dialogStage.initModality(Modality.WINDOW_MODAL); // Fica travada não podendo chamar outra janela
-			dialogStage.showAndWait();
+			view.getDialogStage("Enter Department data", parentStage).showAndWait();
 		} catch (IOException e) {
 			e.printStackTrace(); //Aparece o erro no console
 			Alerts.showAlert("IO Exception", "Error loading view", e.getMessage(), AlertType.ERROR);
 		}
 	}
 
+	// Atualiza só a linha afetada, sem reler a tabela
 	@Override
-	public void onDataChanged() {
-		updateTableView();
+	public void onDataChanged(DataChangeEvent<Department> event) {
+		if (obsList == null) {
+			updateTableView();
+			return;
+		}
+		Department obj = event.getEntity();
+		int index = obsList.indexOf(obj);
+		switch (event.getOperation()) {
+		case INSERT:
+			insertSorted(obj);
+			break;
+		case UPDATE:
+			if (index >= 0 && ORDER.compare(obsList.get(index), obj) == 0) {
+				obsList.set(index, obj);
+			}
+			else {
+				// O nome mudou: a linha muda de posição
+				if (index >= 0) {
+					obsList.remove(index);
+				}
+				insertSorted(obj);
+			}
+			break;
+		default:
+			if (index >= 0) {
+				obsList.remove(index);
+			}
+		}
+	}
+	
+	private void insertSorted(Department obj) {
+		int pos = Collections.binarySearch(obsList, obj, ORDER);
+		obsList.add(pos >= 0 ? pos : -pos - 1, obj);
 	}
 
 	// Para criar um botão de edit em cada linha da Tabela
@@ -179,13 +307,9 @@ public class DepartmentListController implements Initializable, DataChangeListen
 			if (service == null) {
 				throw new IllegalStateException("Service was null.");
 			}
-			try {
-				service.remove(obj);
-				updateTableView();
-			}
-			catch (DbIntegrityException e) {
-				Alerts.showAlert("Error removing object", null, e.getMessage(), AlertType.ERROR);
-			}
+			scope.submit(service.removeAsync(obj), 
+					v -> onDataChanged(new DataChangeEvent<>(DataChangeEvent.Operation.DELETE, obj)), 
+					e -> Alerts.showAlert("Error removing object", null, e.getMessage(), AlertType.ERROR));
 		}
 	}
 }
@@ -3,12 +3,16 @@ package gui;
 import java.io.IOException;
 import java.net.URL;
 import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 
 import application.Main;
+import application.StartupTasks;
 import gui.util.Alerts;
+import gui.util.TaskScope;
+import gui.util.ViewRegistry;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
 import javafx.scene.Node;
 import javafx.scene.Scene;
@@ -16,7 +20,9 @@ import javafx.scene.control.Alert.AlertType;
 import javafx.scene.control.MenuItem;
 import javafx.scene.control.ScrollPane;
 import javafx.scene.layout.VBox;
+import metrics.MetricsRegistry;
 import model.services.DepartmentService;
+import model.services.ReportService;
 import model.services.SellerService;
 
 public class MainViewController implements Initializable {
@@ -27,24 +33,55 @@ public class MainViewController implements Initializable {
 	@FXML
 	private MenuItem menuItemDepartment;
 	
+	@FXML
+	private MenuItem menuItemReport;
+	
+	@FXML
+	private MenuItem menuItemSlowQueries;
+	
 	@FXML
 	private MenuItem menuItemAbout;
 	
+	// Tarefas assíncronas da tela atual; canceladas ao trocar de tela
+	private TaskScope viewScope;
+	
+	// As telas ficam em memória (ViewRegistry), então os serviços também são os mesmos
+	private final SellerService sellerService = new SellerService();
+	private final DepartmentService departmentService = new DepartmentService();
+	private final ReportService reportService = new ReportService();
+	
 	//Para tratar os eventos do Menu
 	@FXML
 	public void onMenuItemSellerAction() {
-		loadView("/gui/SellerList.fxml", (SellerListController controller) -> {
-			controller.setSellerService(new SellerService());
-			controller.updateTableView();
-		});
+		afterSchemaCheck(() -> loadView("/gui/SellerList.fxml", (SellerListController controller) -> {
+			controller.setTaskScope(viewScope);
+			controller.setSellerService(sellerService);
+			controller.refreshIfStale();
+		}));
 	}
 	
 	@FXML
 	public void onMenuItemDepartmentAction() {
-		loadView("/gui/DepartmentList.fxml", (DepartmentListController controller) -> {
-			controller.setDepartmentService(new DepartmentService());
-			controller.updateTableView();
-		});
+		afterSchemaCheck(() -> loadView("/gui/DepartmentList.fxml", (DepartmentListController controller) -> {
+			controller.setTaskScope(viewScope);
+			controller.setDepartmentService(departmentService);
+			controller.refreshIfStale();
+		}));
+	}
+	
+	@FXML
+	public void onMenuItemReportAction() {
+		afterSchemaCheck(() -> loadView("/gui/Report.fxml", (ReportController controller) -> {
+			controller.setTaskScope(viewScope);
+			controller.setReportService(reportService);
+			// O ReportService só vai ao banco se os dados mudaram
+			controller.updateReport();
+		}));
+	}
+	
+	@FXML
+	public void onMenuItemSlowQueriesAction() {
+		loadView("/gui/SlowQueries.fxml", (SlowQueriesController controller) -> controller.updateTableView());
 	}
 	
 	@FXML
@@ -56,14 +93,35 @@ public class MainViewController implements Initializable {
 	public void initialize(URL uri, ResourceBundle rb) {
 	}
 	
+	// Logo depois de abrir o programa as migrações podem ainda estar rodando em segundo plano
+	private void afterSchemaCheck(Runnable action) {
+		CompletableFuture<Void> schema = StartupTasks.schemaChecked();
+		if (schema.isDone()) {
+			action.run();
+		}
+		else {
+			schema.thenRun(() -> Platform.runLater(action));
+		}
+	}
+	
 	/* 
 	 * Synchronized -> Garante que será executado até o final 
+	 * A tela é lida do FXML só na primeira vez; depois os mesmos nós e o
+	 * mesmo controller são recolocados na janela (ViewRegistry).
 	 * */
 	
 	private synchronized <T> void loadView(String absoluteName, Consumer<T> initializingAction) { 
+		// O usuário saiu da tela anterior: descarta o que ela ainda estava carregando
+		if (viewScope != null) {
+			viewScope.cancelAll();
+		}
+		viewScope = new TaskScope();
+		
+		// Ex.: "view.load.SellerList" (parse do FXML na primeira vez + inicialização do controller)
+		String viewName = absoluteName.substring(absoluteName.lastIndexOf('/') + 1).replace(".fxml", "");
+		long start = System.nanoTime();
 		try {
-			FXMLLoader loader = new FXMLLoader(getClass().getResource(absoluteName));
-			VBox newVBox = loader.load();	
+			ViewRegistry.View<T> view = ViewRegistry.get(absoluteName);
 			
 			Scene mainScene = Main.getMainScene();
 			
@@ -75,16 +133,17 @@ public class MainViewController implements Initializable {
 			
 			mainVBox.getChildren().clear();
 			mainVBox.getChildren().add(mainMenu);
-			mainVBox.getChildren().addAll(newVBox.getChildren()); //Adiciona uma coleção.
+			mainVBox.getChildren().addAll(view.getChildren()); //Adiciona uma coleção.
 			
 			//Para inicializar as variáveis passada como parâmetro
-			T controller = loader.getController();
-			initializingAction.accept(controller);
+			initializingAction.accept(view.getController());
 			
 		}
 		catch (IOException e) {
 			Alerts.showAlert("IO Exception", "Error loading view", e.getMessage(), AlertType.ERROR);
-		}	
+		}
+		finally {
+			MetricsRegistry.getInstance().timer("view.load." + viewName).stop(start);
+		}
 	}
 }
-	
\ No newline at end of file
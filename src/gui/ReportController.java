@@ -0,0 +1,153 @@
+package gui;
+
+import java.net.URL;
+import java.util.ResourceBundle;
+
+import application.Main;
+import gui.util.Alerts;
+import gui.util.TaskScope;
+import gui.util.Utils;
+import javafx.collections.FXCollections;
+import javafx.fxml.FXML;
+import javafx.fxml.Initializable;
+import javafx.scene.control.Alert.AlertType;
+import javafx.scene.control.Button;
+import javafx.scene.control.ProgressIndicator;
+import javafx.scene.control.TabPane;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.cell.PropertyValueFactory;
+import javafx.stage.Stage;
+import model.entities.BirthYearBucket;
+import model.entities.DepartmentSummary;
+import model.entities.SalaryBand;
+import model.services.ReportService;
+
+public class ReportController implements Initializable {
+	
+	private ReportService service;
+	
+	@FXML
+	private TabPane tabPane;
+	
+	@FXML
+	private TableView<DepartmentSummary> tableViewSummary;
+	
+	@FXML
+	private TableColumn<DepartmentSummary, String> tableColumnSummaryDepartment;
+	
+	@FXML
+	private TableColumn<DepartmentSummary, Integer> tableColumnSummaryHeadcount;
+	
+	@FXML
+	private TableColumn<DepartmentSummary, Double> tableColumnSummaryTotal;
+	
+	@FXML
+	private TableColumn<DepartmentSummary, Double> tableColumnSummaryAverage;
+	
+	@FXML
+	private TableColumn<DepartmentSummary, Double> tableColumnSummaryMin;
+	
+	@FXML
+	private TableColumn<DepartmentSummary, Double> tableColumnSummaryMax;
+	
+	@FXML
+	private TableView<SalaryBand> tableViewSalaryBand;
+	
+	@FXML
+	private TableColumn<SalaryBand, Double> tableColumnBandLower;
+	
+	@FXML
+	private TableColumn<SalaryBand, Double> tableColumnBandUpper;
+	
+	@FXML
+	private TableColumn<SalaryBand, Integer> tableColumnBandHeadcount;
+	
+	@FXML
+	private TableColumn<SalaryBand, Double> tableColumnBandAverage;
+	
+	@FXML
+	private TableView<BirthYearBucket> tableViewBirthYear;
+	
+	@FXML
+	private TableColumn<BirthYearBucket, String> tableColumnBirthDepartment;
+	
+	@FXML
+	private TableColumn<BirthYearBucket, Integer> tableColumnBirthFrom;
+	
+	@FXML
+	private TableColumn<BirthYearBucket, Integer> tableColumnBirthTo;
+	
+	@FXML
+	private TableColumn<BirthYearBucket, Integer> tableColumnBirthHeadcount;
+	
+	@FXML
+	private Button btnRefresh;
+	
+	@FXML
+	private ProgressIndicator progressIndicator;
+	
+	private TaskScope scope = new TaskScope();
+	
+	@FXML
+	public void onBtnRefreshAction() {
+		updateReport();
+	}
+	
+	public void setReportService(ReportService service) {
+		this.service = service;
+	}
+	
+	public void setTaskScope(TaskScope scope) {
+		this.scope = scope;
+		progressIndicator.visibleProperty().bind(scope.busyProperty());
+	}
+	
+	@Override
+	public void initialize(URL url, ResourceBundle rb) {
+		tableColumnSummaryDepartment.setCellValueFactory(new PropertyValueFactory<>("departmentName"));
+		tableColumnSummaryHeadcount.setCellValueFactory(new PropertyValueFactory<>("headcount"));
+		tableColumnSummaryTotal.setCellValueFactory(new PropertyValueFactory<>("totalSalary"));
+		Utils.formatTableColumnDouble(tableColumnSummaryTotal, 2);
+		tableColumnSummaryAverage.setCellValueFactory(new PropertyValueFactory<>("averageSalary"));
+		Utils.formatTableColumnDouble(tableColumnSummaryAverage, 2);
+		tableColumnSummaryMin.setCellValueFactory(new PropertyValueFactory<>("minSalary"));
+		Utils.formatTableColumnDouble(tableColumnSummaryMin, 2);
+		tableColumnSummaryMax.setCellValueFactory(new PropertyValueFactory<>("maxSalary"));
+		Utils.formatTableColumnDouble(tableColumnSummaryMax, 2);
+		
+		tableColumnBandLower.setCellValueFactory(new PropertyValueFactory<>("lowerBound"));
+		Utils.formatTableColumnDouble(tableColumnBandLower, 2);
+		tableColumnBandUpper.setCellValueFactory(new PropertyValueFactory<>("upperBound"));
+		Utils.formatTableColumnDouble(tableColumnBandUpper, 2);
+		tableColumnBandHeadcount.setCellValueFactory(new PropertyValueFactory<>("headcount"));
+		tableColumnBandAverage.setCellValueFactory(new PropertyValueFactory<>("averageSalary"));
+		Utils.formatTableColumnDouble(tableColumnBandAverage, 2);
+		
+		tableColumnBirthDepartment.setCellValueFactory(new PropertyValueFactory<>("departmentName"));
+		tableColumnBirthFrom.setCellValueFactory(new PropertyValueFactory<>("fromYear"));
+		tableColumnBirthTo.setCellValueFactory(new PropertyValueFactory<>("toYear"));
+		tableColumnBirthHeadcount.setCellValueFactory(new PropertyValueFactory<>("headcount"));
+		
+		// Para ficar do tamanho total da Janela
+		Stage stage = (Stage) Main.getMainScene().getWindow();
+		tabPane.prefHeightProperty().bind(stage.heightProperty());
+	}
+	
+	// Os três relatórios são consultados em paralelo; sem gravações desde a última vez, vêm do cache
+	public void updateReport() {
+		if (service == null) {
+			throw new IllegalStateException("Service was null");
+		}
+		scope.submit(service.findDepartmentSummariesAsync(), 
+				list -> tableViewSummary.setItems(FXCollections.observableArrayList(list)), this::showError);
+		scope.submit(service.findSalaryBandsAsync(ReportService.DEFAULT_BAND_WIDTH), 
+				list -> tableViewSalaryBand.setItems(FXCollections.observableArrayList(list)), this::showError);
+		scope.submit(service.findBirthYearBucketsAsync(ReportService.DEFAULT_YEARS_PER_BUCKET), 
+				list -> tableViewBirthYear.setItems(FXCollections.observableArrayList(list)), this::showError);
+	}
+	
+	private void showError(Throwable e) {
+		Alerts.showAlert("Error loading report", null, e.getMessage(), AlertType.ERROR);
+	}
+}
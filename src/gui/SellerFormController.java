@@ -2,20 +2,23 @@ package gui;
 
 import java.net.URL;
 import java.time.Instant;
-import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
 import java.util.ResourceBundle;
 import java.util.Set;
 
-import db.DbException;
+import db.DbConcurrencyException;
+import gui.listerners.DataChangeEvent;
 import gui.listerners.DataChangeListener;
 import gui.util.Alerts;
 import gui.util.Constraints;
+import gui.util.Formats;
+import gui.util.TaskScope;
 import gui.util.Utils;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -24,18 +27,21 @@ import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.Alert.AlertType;
 import javafx.scene.control.Button;
+import javafx.scene.control.ButtonType;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.DatePicker;
 import javafx.scene.control.Label;
 import javafx.scene.control.ListCell;
 import javafx.scene.control.ListView;
 import javafx.scene.control.TextField;
+import javafx.stage.Stage;
 import javafx.util.Callback;
 import model.entities.Department;
 import model.entities.Seller;
 import model.exceptions.ValidationException;
 import model.services.DepartmentService;
 import model.services.SellerService;
+import model.validation.EntityRules;
 
 public class SellerFormController implements Initializable {
 
@@ -45,7 +51,9 @@ public class SellerFormController implements Initializable {
 
 	private DepartmentService departmentService;
 
-	private List<DataChangeListener> dataChangeListeners = new ArrayList<>();
+	private List<DataChangeListener<Seller>> dataChangeListeners = new ArrayList<>();
+	
+	private TaskScope scope = new TaskScope();
 
 	// Declaração dos componentes da tela
 	@FXML
@@ -78,6 +86,9 @@ public class SellerFormController implements Initializable {
 	@FXML
 	private Label labelErrorBaseSalary;
 
+	@FXML
+	private Label labelErrorDepartment;
+
 	@FXML
 	private Button btnSave;
 
@@ -97,8 +108,11 @@ public class SellerFormController implements Initializable {
 	}
 
 	// Executar quando o mudar os dados do Departmanto
-	public void subscribeDataChangeListener(DataChangeListener listener) {
-		dataChangeListeners.add(listener);
+	// O formulário é reaproveitado (ViewRegistry): o mesmo ouvinte não é registrado duas vezes
+	public void subscribeDataChangeListener(DataChangeListener<Seller> listener) {
+		if (!dataChangeListeners.contains(listener)) {
+			dataChangeListeners.add(listener);
+		}
 	}
 
 	@FXML
@@ -111,70 +125,96 @@ public class SellerFormController implements Initializable {
 		}
 		try {
 			entity = getFormData();
-			service.saveOrUpdate(entity);
-			notifyDataChangeListeners();
-			Utils.currentStage(event).close();
-		} catch (ValidationException e) {
+		}
+		catch (ValidationException e) {
 			setErrorMessages(e.getErrors());
-		} catch (DbException e) {
-			Alerts.showAlert("Error saving object", null, e.getMessage(), AlertType.ERROR);
+			return;
 		}
-
+		
+		save(Utils.currentStage(event));
+	}
+	
+	// Grava fora da thread da interface; a janela só fecha depois da confirmação do banco
+	private void save(Stage stage) {
+		btnSave.setDisable(true);
+		DataChangeEvent.Operation operation = entity.getId() == null 
+				? DataChangeEvent.Operation.INSERT : DataChangeEvent.Operation.UPDATE;
+		scope.submit(service.saveOrUpdateAsync(entity), v -> {
+			notifyDataChangeListeners(new DataChangeEvent<>(operation, entity));
+			stage.close();
+		}, e -> {
+			btnSave.setDisable(false);
+			if (e instanceof DbConcurrencyException) {
+				handleConcurrencyConflict(stage);
+			}
+			else {
+				Alerts.showAlert("Error saving object", null, e.getMessage(), AlertType.ERROR);
+			}
+		});
+	}
+	
+	/*
+	 * Outro usuário gravou o seller depois que o formulário foi aberto.
+	 * Reload descarta o que foi digitado e mostra os dados atuais; Keep mine
+	 * grava os dados do formulário por cima da versão atual.
+	 */
+	private void handleConcurrencyConflict(Stage stage) {
+		scope.submit(service.findByIdAsync(entity.getId()), current -> {
+			if (current == null) {
+				Alerts.showAlert("Seller removed", null, "This seller was removed by another user.", AlertType.WARNING);
+				notifyDataChangeListeners(new DataChangeEvent<>(DataChangeEvent.Operation.DELETE, entity));
+				stage.close();
+				return;
+			}
+			ButtonType reload = new ButtonType("Reload");
+			ButtonType keepMine = new ButtonType("Keep mine");
+			Optional<ButtonType> choice = Alerts.showChoice("Seller changed", "This seller was changed by another user", 
+					"Reload discards your changes and shows the current data. " 
+					+ "Keep mine saves your changes over the other user's.", reload, keepMine, ButtonType.CANCEL);
+			if (!choice.isPresent() || choice.get() == ButtonType.CANCEL) {
+				return;
+			}
+			if (choice.get() == reload) {
+				entity = current;
+				updateFormData();
+				notifyDataChangeListeners(new DataChangeEvent<>(DataChangeEvent.Operation.UPDATE, current));
+			}
+			else {
+				entity.setVersion(current.getVersion());
+				save(stage);
+			}
+		}, e -> Alerts.showAlert("Error loading seller", null, e.getMessage(), AlertType.ERROR));
 	}
 
-	private void notifyDataChangeListeners() {
-		for (DataChangeListener listener : dataChangeListeners) {
-			listener.onDataChanged();
+	private void notifyDataChangeListeners(DataChangeEvent<Seller> event) {
+		for (DataChangeListener<Seller> listener : dataChangeListeners) {
+			listener.onDataChanged(event);
 		}
 	}
 
 	/* 
 	 *  Pega os dados do formulário e 
 	 *  carrega um objeto com esses dados e retornado o objeto no final.
+	 *  As regras ficam em EntityRules, compartilhadas com a importação e os lotes.
 	 */
 	private Seller getFormData() {
 		Seller obj = new Seller();
 
-		// Instanciar a ValidationException
-		ValidationException exception = new ValidationException("Validation error");
-
 		obj.setId(Utils.tryParseToInt(txtId.getText()));
-
-		// Valida o Name
-		if (txtName.getText() == null || txtName.getText().trim().equals("")) {
-			exception.addError("name", "Field can´t be empty");
-		}
+		obj.setVersion(entity.getVersion());
 		obj.setName(txtName.getText());
-		
-		// Valida o Email
-		if (txtEmail.getText() == null || txtEmail.getText().trim().equals("")) {
-			exception.addError("email", "Field can´t be empty");
-		}
 		obj.setEmail(txtEmail.getText());
 		
-		// Para obter o valor do DatePicker() e validar o BirthDate
-		if (dpBirthDate.getValue() == null) {
-			exception.addError("birthDate", "Field can´t be empty");
-		}
-		else {
+		// Para obter o valor do DatePicker()
+		if (dpBirthDate.getValue() != null) {
 			Instant instant = Instant.from(dpBirthDate.getValue().atStartOfDay(ZoneId.systemDefault()));
 			obj.setBirthDate(Date.from(instant)); // Para converter o instante para Data
 		}
 		
-		//Validar BaseSalary
-		if (txtBaseSalary.getText() == null || txtBaseSalary.getText().trim().equals("")) {
-			exception.addError("baseSalary", "Field can´t be empty");
-		}
 		obj.setBaseSalary(Utils.tryParseToDouble(txtBaseSalary.getText()));
-		
-		//Validar Departamento
 		obj.setDepartment(comboBoxDepartment.getValue());
 		
-		// Verifica se na coleção tem pelo menos 1 erro
-		if (exception.getErrors().size() > 0) {
-			throw exception;
-		}
-		
+		EntityRules.SELLER.validate(obj);
 
 		return obj;
 	}
@@ -191,9 +231,9 @@ public class SellerFormController implements Initializable {
 
 	private void initializeNodes() {
 		Constraints.setTextFieldInteger(txtId);
-		Constraints.setTextFieldMaxLength(txtName, 70);
-		Constraints.setTextFieldDouble(txtBaseSalary);
-		Constraints.setTextFieldMaxLength(txtEmail, 60);
+		Constraints.setTextFieldRule(txtName, EntityRules.SELLER.get("name"));
+		Constraints.setTextFieldRule(txtBaseSalary, EntityRules.SELLER.get("baseSalary"));
+		Constraints.setTextFieldRule(txtEmail, EntityRules.SELLER.get("email"));
 		Utils.formatDatePicker(dpBirthDate, "dd/MM/yyyy");
 		
 		initializeComboBoxDepartment();
@@ -205,18 +245,24 @@ public class SellerFormController implements Initializable {
 		if (entity == null) {
 			throw new IllegalStateException("Entity was null.");
 		}
-		txtId.setText(String.valueOf(entity.getId()));
+		// O formulário é reaproveitado: entidade nova limpa o campo ("null" seria recusado pelo filtro)
+		txtId.setText(entity.getId() == null ? "" : String.valueOf(entity.getId()));
 		txtName.setText(entity.getName());
 		txtEmail.setText(entity.getEmail());
 
-		Locale.setDefault(Locale.US);
-		txtBaseSalary.setText(String.format("%.2f", entity.getBaseSalary()));
+		txtBaseSalary.setText(entity.getBaseSalary() == null ? "" : Formats.formatDecimal(entity.getBaseSalary(), 2));
 
 		if (entity.getBirthDate() != null) {
-			dpBirthDate.setValue(
-					LocalDateTime.ofInstant(entity.getBirthDate().toInstant(), ZoneId.systemDefault()).toLocalDate());
+			dpBirthDate.setValue(Formats.toLocalDate(entity.getBirthDate()));
+		}
+		else {
+			dpBirthDate.setValue(null);
 		}
 		
+		// Limpa o que sobrou da última vez que o formulário foi aberto
+		setErrorMessages(Collections.emptyMap());
+		btnSave.setDisable(false);
+		
 		
 		//Vendedor novo não dados do departamento
 		if (entity.getDepartment() == null) {
@@ -264,15 +310,29 @@ public class SellerFormController implements Initializable {
 		else {
 			labelErrorBirthDate.setText("");
 		}
+		
+		// Errors = department
+		if (fields.contains("department")) {
+			labelErrorDepartment.setText(errors.get("department"));
+		}
+		else {
+			labelErrorDepartment.setText("");
+		}
 	}
 
 	public void loadAssociatedObjects() {
 		if (departmentService == null) {
 			throw new IllegalStateException("DepartmentService was null.");
 		}
-		List<Department> list = departmentService.findAll();
-		obsList = FXCollections.observableArrayList(list);
-		comboBoxDepartment.setItems(obsList);
+		scope.submit(departmentService.findAllAsync(), list -> {
+			obsList = FXCollections.observableArrayList(list);
+			comboBoxDepartment.setItems(obsList);
+			
+			// Vendedor novo: a lista chega depois do updateFormData(), então seleciona aqui
+			if (entity != null && entity.getDepartment() == null) {
+				comboBoxDepartment.getSelectionModel().selectFirst();
+			}
+		}, e -> Alerts.showAlert("Error loading departments", null, e.getMessage(), AlertType.ERROR));
 	}
 
 	private void initializeComboBoxDepartment() {
@@ -1,44 +1,70 @@
 package gui;
 
+import java.io.File;
 import java.io.IOException;
 import java.net.URL;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.ResourceBundle;
+import java.util.function.Function;
 
 import application.Main;
-import db.DbIntegrityException;
+import application.StartupTimer;
+import gui.listerners.DataChangeEvent;
 import gui.listerners.DataChangeListener;
 import gui.util.Alerts;
+import gui.util.LoadStamp;
+import gui.util.PagedList;
+import gui.util.ProgressDialog;
+import gui.util.TaskScope;
 import gui.util.Utils;
+import gui.util.ViewRegistry;
+import javafx.animation.PauseTransition;
 import javafx.beans.property.ReadOnlyObjectWrapper;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
-import javafx.scene.Scene;
 import javafx.scene.control.Alert.AlertType;
 import javafx.scene.control.Button;
 import javafx.scene.control.ButtonType;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.control.TableCell;
 import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableColumn.SortType;
 import javafx.scene.control.TableView;
+import javafx.scene.control.TextField;
 import javafx.scene.control.cell.PropertyValueFactory;
-import javafx.scene.layout.Pane;
-import javafx.stage.Modality;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
+import javafx.util.Duration;
+import model.dao.SellerCriteria;
 import model.entities.Seller;
 import model.services.DepartmentService;
+import model.services.ExportService;
+import model.services.ImportService;
 import model.services.SellerService;
 
-public class SellerListController implements Initializable, DataChangeListener {
+public class SellerListController implements Initializable, DataChangeListener<Seller> {
+
+	// Tamanho da página lida do banco e quantas páginas ficam em memória
+	private static final int PAGE_SIZE = 100;
+	private static final int MAX_PAGES = 10;
+	
+	// Espera o usuário parar de digitar antes de consultar o banco
+	private static final Duration SEARCH_DELAY = Duration.millis(300);
 
 	// Dependência ao SellerService
 	private SellerService service;
 
+	private DepartmentService departmentService = new DepartmentService();
+
+	private ImportService importService = new ImportService();
+
+	private ExportService exportService = new ExportService();
+
 	// Definir todos os objetos
 	@FXML
 	private TableView<Seller> tableViewSeller;
@@ -67,7 +93,31 @@ public class SellerListController implements Initializable, DataChangeListener {
 	@FXML
 	private Button btnNew;
 
-	private ObservableList<Seller> obsList;
+	@FXML
+	private Button btnImport;
+
+	@FXML
+	private Button btnExport;
+	
+	@FXML
+	private TextField txtSearch;
+
+	@FXML
+	private ProgressIndicator progressIndicator;
+
+	private PagedList<Seller> obsList;
+	
+	private SellerPageLoader pageLoader;
+	
+	// Filtro e ordenação atuais; cada mudança cria uma nova instância (as páginas são lidas em outra thread)
+	private SellerCriteria criteria = new SellerCriteria();
+	
+	private final PauseTransition searchPause = new PauseTransition(SEARCH_DELAY);
+	
+	// Tarefas assíncronas da tela, canceladas quando o usuário navega para outra
+	private TaskScope scope = new TaskScope();
+	
+	private final LoadStamp loadStamp = new LoadStamp();
 
 	// Defini o método de ação
 	@FXML
@@ -78,10 +128,106 @@ public class SellerListController implements Initializable, DataChangeListener {
 		createDialogForm(obj, "/gui/SellerForm.fxml", parentStage);
 	}
 
+	// Importa um CSV em segundo plano, com progresso e cancelamento
+	@FXML
+	public void onBtnImportAction(ActionEvent event) {
+		Stage parentStage = Utils.currentStage(event);
+		FileChooser chooser = new FileChooser();
+		chooser.setTitle("Import sellers");
+		chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV files", "*.csv"));
+		File file = chooser.showOpenDialog(parentStage);
+		if (file == null) {
+			return;
+		}
+		
+		ProgressDialog dialog = new ProgressDialog("Import sellers", parentStage);
+		dialog.show();
+		btnImport.setDisable(true);
+		scope.submit(importService.importSellersAsync(file.toPath(), dialog), result -> {
+			dialog.close();
+			btnImport.setDisable(false);
+			updateTableView();
+			Alerts.showAlert("Import sellers", null, result.getSummary(), 
+					result.getErrorReport() != null ? AlertType.WARNING : AlertType.INFORMATION);
+		}, e -> {
+			dialog.close();
+			btnImport.setDisable(false);
+			Alerts.showAlert("Error importing file", null, e.getMessage(), AlertType.ERROR);
+		});
+	}
+
+	// Exporta em segundo plano; CSV ou JSON Lines, com gzip, conforme a extensão escolhida
+	@FXML
+	public void onBtnExportAction(ActionEvent event) {
+		Stage parentStage = Utils.currentStage(event);
+		FileChooser chooser = new FileChooser();
+		chooser.setTitle("Export sellers");
+		chooser.getExtensionFilters().addAll(
+				new FileChooser.ExtensionFilter("CSV", "*.csv"),
+				new FileChooser.ExtensionFilter("CSV (gzip)", "*.csv.gz"),
+				new FileChooser.ExtensionFilter("JSON Lines", "*.jsonl"),
+				new FileChooser.ExtensionFilter("JSON Lines (gzip)", "*.jsonl.gz"));
+		File file = chooser.showSaveDialog(parentStage);
+		if (file == null) {
+			return;
+		}
+		
+		ProgressDialog dialog = new ProgressDialog("Export sellers", parentStage);
+		dialog.show();
+		btnExport.setDisable(true);
+		scope.submit(exportService.exportSellersAsync(criteria, file.toPath(), dialog), result -> {
+			dialog.close();
+			btnExport.setDisable(false);
+			Alerts.showAlert("Export sellers", null, result.getSummary(), AlertType.INFORMATION);
+		}, e -> {
+			dialog.close();
+			btnExport.setDisable(false);
+			Alerts.showAlert("Error exporting file", null, e.getMessage(), AlertType.ERROR);
+		});
+	}
+
 	// Injetar dependencia
 	public void setSellerService(SellerService service) {
 		this.service = service;
 	}
+	
+	// A tela é reaproveitada (ViewRegistry): a cada abertura recebe o TaskScope novo
+	public void setTaskScope(TaskScope scope) {
+		this.scope = scope;
+		progressIndicator.visibleProperty().bind(scope.busyProperty());
+		if (obsList != null) {
+			obsList.setExecutor(scope);
+		}
+	}
+	
+	// Página por chave quando a anterior está em memória; por posição quando a tabela salta
+	private static class SellerPageLoader implements PagedList.PageLoader<Seller> {
+		
+		private final SellerService service;
+		private volatile SellerCriteria criteria;
+		
+		SellerPageLoader(SellerService service, SellerCriteria criteria) {
+			this.service = service;
+			this.criteria = criteria;
+		}
+		
+		void setCriteria(SellerCriteria criteria) {
+			this.criteria = criteria;
+		}
+		
+		@Override
+		public int count() {
+			return service.count(criteria);
+		}
+		
+		@Override
+		public List<Seller> loadPage(int pageIndex, Seller previousLast, int pageSize) {
+			if (pageIndex == 0 || previousLast != null) {
+				return service.findPage(criteria, previousLast, pageSize);
+			}
+			return service.findRange(criteria, pageIndex * pageSize, pageSize);
+		}
+	}
 
 	@Override
 	public void initialize(URL url, ResourceBundle rb) {
@@ -99,6 +245,22 @@ public class SellerListController implements Initializable, DataChangeListener {
 		
 		tableColumnBaseSalary.setCellValueFactory(new PropertyValueFactory<>("baseSalary"));
 		Utils.formatTableColumnDouble(tableColumnBaseSalary, 2);
+		
+		// A lista é paginada no banco: clicar no cabeçalho refaz a consulta com outro ORDER BY
+		tableColumnEDIT.setSortable(false);
+		tableColumnREMOVE.setSortable(false);
+		tableViewSeller.setSortPolicy(table -> {
+			applySort();
+			return true;
+		});
+		
+		// Busca por prefixo: com "@" procura no email, senão no nome
+		searchPause.setOnFinished(event -> applySearch(txtSearch.getText()));
+		txtSearch.textProperty().addListener((obs, oldValue, newValue) -> searchPause.playFromStart());
+
+		// Os botões leem o item da própria linha, então bastam ser criados uma vez
+		initEditButtons();
+		initRemoveButtons();
 
 		// Para ficar do tamanho total da Janela
 		Stage stage = (Stage) Main.getMainScene().getWindow();
@@ -110,46 +272,181 @@ public class SellerListController implements Initializable, DataChangeListener {
 			throw new IllegalStateException("Service was null");
 		}
 
-		// recebe os serviços retornados do métodos findAll()
-		List<Seller> list = service.findAll();
-		obsList = FXCollections.observableArrayList(list);
-
-		// Para carregar as obslist na TableView
-		tableViewSeller.setItems(obsList);
-		initEditButtons(); // Chamada para o método para criar o botão de edição
-		initRemoveButtons(); // Chamada para o método para criar o botão de removação.
+		// Carrega só as páginas visíveis, em segundo plano
+		if (obsList == null) {
+			pageLoader = new SellerPageLoader(service, criteria);
+			obsList = new PagedList<>(pageLoader, PAGE_SIZE, MAX_PAGES, scope);
+			obsList.setOnPageLoaded(this::pageLoaded);
+			tableViewSeller.setItems(obsList);
+		}
+		loadStamp.mark();
+		obsList.refresh();
+	}
+	
+	// Marco de inicialização: a primeira página de vendedores já desenhada na tabela
+	private void pageLoaded(int pageIndex) {
+		if (pageIndex != 0 || StartupTimer.getMilestone("sellerListShown") != null) {
+			return;
+		}
+		if (tableViewSeller.getScene() == null) {
+			StartupTimer.milestone("sellerListShown");
+		}
+		else {
+			Main.afterNextPulse(tableViewSeller.getScene(), () -> StartupTimer.milestone("sellerListShown"));
+		}
+	}
+	
+	// Ao voltar para a tela, só relê se houve gravação ou os dados passaram da idade máxima
+	public void refreshIfStale() {
+		if (obsList == null || loadStamp.isStale()) {
+			updateTableView();
+		}
+	}
+	
+	private void applySearch(String text) {
+		SellerCriteria newCriteria = new SellerCriteria(criteria);
+		String prefix = text == null ? "" : text.trim();
+		newCriteria.setNamePrefix(prefix.contains("@") ? null : prefix);
+		newCriteria.setEmailPrefix(prefix.contains("@") ? prefix : null);
+		setCriteria(newCriteria);
+	}
+	
+	private void applySort() {
+		SellerCriteria newCriteria = new SellerCriteria(criteria);
+		if (tableViewSeller.getSortOrder().isEmpty()) {
+			newCriteria.setSortField(SellerCriteria.SortField.NAME);
+			newCriteria.setAscending(true);
+		}
+		else {
+			TableColumn<Seller, ?> column = tableViewSeller.getSortOrder().get(0);
+			newCriteria.setSortField(sortFieldOf(column));
+			newCriteria.setAscending(column.getSortType() == SortType.ASCENDING);
+		}
+		setCriteria(newCriteria);
+	}
+	
+	private SellerCriteria.SortField sortFieldOf(TableColumn<Seller, ?> column) {
+		if (column == tableColumnId) {
+			return SellerCriteria.SortField.ID;
+		}
+		if (column == tableColumnEmail) {
+			return SellerCriteria.SortField.EMAIL;
+		}
+		if (column == tableColumnBirthDate) {
+			return SellerCriteria.SortField.BIRTH_DATE;
+		}
+		if (column == tableColumnBaseSalary) {
+			return SellerCriteria.SortField.BASE_SALARY;
+		}
+		return SellerCriteria.SortField.NAME;
+	}
+	
+	private void setCriteria(SellerCriteria newCriteria) {
+		if (newCriteria.equals(criteria)) {
+			return;
+		}
+		criteria = newCriteria;
+		if (pageLoader != null) {
+			pageLoader.setCriteria(newCriteria);
+			loadStamp.mark();
+			obsList.refresh();
+		}
+	}
+	
+	/*
+	 * Mesma ordem das páginas (coluna escolhida e depois Id), para posicionar
+	 * linhas inseridas ou alteradas. null nas colunas de texto: a ordem delas
+	 * vem da collation do banco (acentos, regras do idioma), que o Java não
+	 * reproduz, e a linha poderia cair em outra posição que a da próxima página.
+	 * Os NULLs vêm primeiro na ordem crescente, como no MySQL.
+	 */
+	private static Comparator<Seller> orderOf(SellerCriteria criteria) {
+		Comparator<Seller> order;
+		switch (criteria.getSortField()) {
+		case ID:
+			order = Comparator.comparing(Seller::getId);
+			break;
+		case BIRTH_DATE:
+			order = Comparator.comparing(Seller::getBirthDate, Comparator.nullsFirst(Comparator.naturalOrder()));
+			break;
+		case BASE_SALARY:
+			order = Comparator.comparing(Seller::getBaseSalary, Comparator.nullsFirst(Comparator.naturalOrder()));
+			break;
+		default:
+			return null;
+		}
+		order = order.thenComparing(Seller::getId);
+		return criteria.isAscending() ? order : order.reversed();
+	}
+	
+	// Valor da coluna de ordenação de texto, como o SELECT a compara
+	private static Function<Seller, Object> sortKeyOf(SellerCriteria criteria) {
+		switch (criteria.getSortField()) {
+		case EMAIL:
+			return Seller::getEmail;
+		case DEPARTMENT:
+			return obj -> obj.getDepartment() == null || obj.getDepartment().getName() == null 
+					? "" : obj.getDepartment().getName();
+		default:
+			return Seller::getName;
+		}
 	}
 
 	 
+	// O formulário e a janela são criados uma vez e reaproveitados (ViewRegistry)
 	private void createDialogForm(Seller obj, String absoluteName, Stage parentStage) { 
 		try {
-			FXMLLoader loader = new FXMLLoader(getClass().getResource(absoluteName));
-			Pane pane = loader.load();
+			ViewRegistry.View<SellerFormController> view = ViewRegistry.get(absoluteName);
 
 			// Pega o controle da tela na qual está no momento para carregar no formulário
-			SellerFormController controller = loader.getController();
+			SellerFormController controller = view.getController();
 			controller.setSeller(obj);
-			controller.setServices(new SellerService(), new DepartmentService());
+			controller.setServices(service, departmentService);
 			controller.loadAssociatedObjects();
 			controller.subscribeDataChangeListener(this);
 			controller.updateFormData();
 
-			Stage dialogStage = new Stage();
-			dialogStage.setTitle("Enter Seller data");
-			dialogStage.setScene(new Scene(pane));
-			dialogStage.setResizable(false);
-			dialogStage.initOwner(parentStage);
-			dialogStage.initModality(Modality.WINDOW_MODAL); // Fica travada não podendo chamar outra janela
-			dialogStage.showAndWait();
+			view.getDialogStage("Enter Seller data", parentStage).showAndWait();
 		} catch (IOException e) {
 			e.printStackTrace(); // aparece no console as mensagens de erro que possam ocorrer.
 			Alerts.showAlert("IO Exception", "Error loading view", e.getMessage(), AlertType.ERROR);
 		}
 	}
 
+	// Atualiza só a linha afetada; se ela não está em uma página carregada (ou há filtro), relê a lista
 	@Override
-	public void onDataChanged() {
-		updateTableView();
+	public void onDataChanged(DataChangeEvent<Seller> event) {
+		if (obsList == null) {
+			updateTableView();
+			return;
+		}
+		Seller obj = event.getEntity();
+		Comparator<Seller> order = orderOf(criteria);
+		boolean patched;
+		switch (event.getOperation()) {
+		case INSERT:
+			// Com filtro ativo não dá para saber aqui se a linha nova entra no resultado
+			patched = !criteria.hasFilters() && order != null && obsList.insertItem(obj, order);
+			break;
+		case UPDATE:
+			if (criteria.hasFilters()) {
+				patched = false;
+			}
+			else if (order != null) {
+				patched = obsList.updateItem(obj, order);
+			}
+			else {
+				// Ordem por texto: a linha só fica onde está se o valor da coluna não mudou
+				Function<Seller, Object> key = sortKeyOf(criteria);
+				patched = obsList.replaceItem(obj, (old, updated) -> Objects.equals(key.apply(old), key.apply(updated)));
+			}
+			break;
+		default:
+			patched = obsList.removeItem(obj);
+		}
+		if (!patched) {
+			obsList.refresh();
+		}
 	}
 
 	// Para criar um botão de edit em cada linha da Tabela
@@ -200,13 +497,9 @@ public class SellerListController implements Initializable, DataChangeListener {
 			if (service == null) {
 				throw new IllegalStateException("Service was null.");
 			}
-			try {
-				service.remove(obj);
-				updateTableView();
-			}
-			catch (DbIntegrityException e) {
-				Alerts.showAlert("Error removing object", null, e.getMessage(), AlertType.ERROR);
-			}
+			scope.submit(service.removeAsync(obj), 
+					v -> onDataChanged(new DataChangeEvent<>(DataChangeEvent.Operation.DELETE, obj)), 
+					e -> Alerts.showAlert("Error removing object", null, e.getMessage(), AlertType.ERROR));
 		}
 	}
 }
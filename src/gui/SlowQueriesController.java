@@ -0,0 +1,92 @@
+package gui;
+
+import java.net.URL;
+import java.time.LocalDateTime;
+import java.util.ResourceBundle;
+
+import application.Main;
+import db.SqlTracer;
+import db.StatementTrace;
+import gui.util.Utils;
+import javafx.collections.FXCollections;
+import javafx.fxml.FXML;
+import javafx.fxml.Initializable;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.cell.PropertyValueFactory;
+import javafx.stage.Stage;
+
+// Execuções de SQL mais lentas desde que a aplicação iniciou (SqlTracer)
+public class SlowQueriesController implements Initializable {
+	
+	@FXML
+	private TableView<StatementTrace> tableViewTrace;
+	
+	@FXML
+	private TableColumn<StatementTrace, Double> tableColumnTotal;
+	
+	@FXML
+	private TableColumn<StatementTrace, Double> tableColumnExecute;
+	
+	@FXML
+	private TableColumn<StatementTrace, Double> tableColumnFetch;
+	
+	@FXML
+	private TableColumn<StatementTrace, Long> tableColumnRows;
+	
+	@FXML
+	private TableColumn<StatementTrace, String> tableColumnSql;
+	
+	@FXML
+	private TableColumn<StatementTrace, String> tableColumnParameters;
+	
+	@FXML
+	private TableColumn<StatementTrace, LocalDateTime> tableColumnExecutedAt;
+	
+	@FXML
+	private Button btnRefresh;
+	
+	@FXML
+	private Button btnClear;
+	
+	@FXML
+	public void onBtnRefreshAction() {
+		updateTableView();
+	}
+	
+	@FXML
+	public void onBtnClearAction() {
+		SqlTracer.clear();
+		updateTableView();
+	}
+	
+	@Override
+	public void initialize(URL url, ResourceBundle rb) {
+		tableColumnTotal.setCellValueFactory(new PropertyValueFactory<>("totalMillis"));
+		Utils.formatTableColumnDouble(tableColumnTotal, 3);
+		tableColumnExecute.setCellValueFactory(new PropertyValueFactory<>("executeMillis"));
+		Utils.formatTableColumnDouble(tableColumnExecute, 3);
+		tableColumnFetch.setCellValueFactory(new PropertyValueFactory<>("fetchMillis"));
+		Utils.formatTableColumnDouble(tableColumnFetch, 3);
+		tableColumnRows.setCellValueFactory(new PropertyValueFactory<>("rows"));
+		tableColumnSql.setCellValueFactory(new PropertyValueFactory<>("sql"));
+		tableColumnParameters.setCellValueFactory(new PropertyValueFactory<>("parameters"));
+		tableColumnExecutedAt.setCellValueFactory(new PropertyValueFactory<>("executedAt"));
+		
+		// Desligado por padrão: sem isso a tabela vazia não diz por quê
+		if (!SqlTracer.isEnabled()) {
+			tableViewTrace.setPlaceholder(new Label("SQL tracing is disabled (set trace.enabled=true in db.properties)"));
+			btnClear.setDisable(true);
+		}
+		
+		Stage stage = (Stage) Main.getMainScene().getWindow();
+		tableViewTrace.prefHeightProperty().bind(stage.heightProperty());
+	}
+	
+	// A lista já está em memória, não precisa sair da thread da interface
+	public void updateTableView() {
+		tableViewTrace.setItems(FXCollections.observableArrayList(SqlTracer.getSlowest()));
+	}
+}
@@ -0,0 +1,23 @@
+package gui.listerners;
+
+// Mudança de uma única entidade, já confirmada no banco
+public class DataChangeEvent<T> {
+	
+	public enum Operation { INSERT, UPDATE, DELETE }
+	
+	private final Operation operation;
+	private final T entity;
+	
+	public DataChangeEvent(Operation operation, T entity) {
+		this.operation = operation;
+		this.entity = entity;
+	}
+	
+	public Operation getOperation() {
+		return operation;
+	}
+	
+	public T getEntity() {
+		return entity;
+	}
+}
@@ -1,8 +1,8 @@
 package gui.listerners;
 
-public interface DataChangeListener {
+public interface DataChangeListener<T> {
 	
-	//Evento para ser disparado qdo os dados mudarem
-	void onDataChanged();
+	//Evento para ser disparado qdo os dados mudarem; traz a entidade e a operação para atualizar só a linha afetada
+	void onDataChanged(DataChangeEvent<T> event);
 
 }
@@ -23,4 +23,12 @@ public class Alerts {
 		alert.setContentText(content);
 		return alert.showAndWait();
 	}
+
+	// Pergunta com botões próprios (ex.: Reload / Keep mine / Cancel)
+	public static Optional<ButtonType> showChoice(String title, String header, String content, ButtonType... buttons) {
+		Alert alert = new Alert(AlertType.WARNING, content, buttons);
+		alert.setTitle(title);
+		alert.setHeaderText(header);
+		return alert.showAndWait();
+	}
 }
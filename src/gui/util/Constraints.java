@@ -1,30 +1,57 @@
 package gui.util;
 
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+import java.util.regex.Pattern;
+
 import javafx.scene.control.TextField;
+import javafx.scene.control.TextFormatter;
+import javafx.scene.control.TextFormatter.Change;
+import model.validation.FieldRule;
+import model.validation.Patterns;
 
+/*
+ * Filtros de digitação com TextFormatter: a alteração inválida é recusada
+ * antes de chegar ao texto, sem o setText de volta (e sem o evento extra)
+ * que um listener precisaria. Vários filtros no mesmo campo são encadeados.
+ */
 public class Constraints {
 
 	public static void setTextFieldInteger(TextField txt) {
-		txt.textProperty().addListener((obs, oldValue, newValue) -> {
-	        if (newValue != null && !newValue.matches("\\d*")) {
-	        	txt.setText(oldValue);
-	        }
-	    });
+		setTextFieldPattern(txt, Patterns.DIGITS);
 	}
 
 	public static void setTextFieldMaxLength(TextField txt, int max) {
-		txt.textProperty().addListener((obs, oldValue, newValue) -> {
-	        if (newValue != null && newValue.length() > max) {
-	        	txt.setText(oldValue);
-	        }
-	    });
+		addFilter(txt, text -> text.length() <= max);
 	}
 
 	public static void setTextFieldDouble(TextField txt) {
-		txt.textProperty().addListener((obs, oldValue, newValue) -> {
-		    	if (newValue != null && !newValue.matches("\\d*([\\.]\\d*)?")) {
-                    txt.setText(oldValue);
-                }
-		    });
+		setTextFieldPattern(txt, Patterns.DECIMAL);
+	}
+	
+	public static void setTextFieldPattern(TextField txt, Pattern pattern) {
+		addFilter(txt, text -> pattern.matcher(text).matches());
+	}
+	
+	// Digitação conforme a regra do campo (EntityRules): padrão e tamanho máximo
+	public static void setTextFieldRule(TextField txt, FieldRule<?> rule) {
+		if (rule.getInput() != null) {
+			setTextFieldPattern(txt, rule.getInput());
+		}
+		if (rule.getMaxLength() > 0) {
+			setTextFieldMaxLength(txt, rule.getMaxLength());
+		}
+	}
+	
+	private static void addFilter(TextField txt, Predicate<String> accept) {
+		TextFormatter<?> current = txt.getTextFormatter();
+		UnaryOperator<Change> previous = current != null ? current.getFilter() : null;
+		txt.setTextFormatter(new TextFormatter<String>(change -> {
+			Change filtered = previous != null ? previous.apply(change) : change;
+			if (filtered == null || !filtered.isContentChange()) {
+				return filtered;
+			}
+			return accept.test(filtered.getControlNewText()) ? filtered : null;
+		}));
 	}
-}
\ No newline at end of file
+}
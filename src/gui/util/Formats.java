@@ -0,0 +1,116 @@
+package gui.util;
+
+import java.math.RoundingMode;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.FieldPosition;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * Formatadores das telas, criados uma vez e reaproveitados. O Locale é
+ * sempre o LOCALE daqui (ponto decimal, o mesmo que os campos de digitação
+ * aceitam), sem alterar o Locale padrão da JVM.
+ * Os métodos append* escrevem num buffer de quem chama (FormattedCell),
+ * para que a formatação não crie Strings intermediárias.
+ */
+public final class Formats {
+	
+	public static final Locale LOCALE = Locale.US;
+	
+	private static final int MAX_DECIMAL_PLACES = 6;
+	
+	private static final long[] POWERS_OF_TEN = { 1, 10, 100, 1_000, 10_000, 100_000, 1_000_000 };
+	
+	// Acima disso o valor multiplicado perde precisão no double e o DecimalFormat é usado
+	private static final double FAST_PATH_LIMIT = 1e15;
+	
+	private static final long MILLIS_PER_DAY = 86_400_000L;
+	
+	// Guardado uma vez: TimeZone.getDefault() devolve uma cópia a cada chamada
+	private static final TimeZone TIME_ZONE = TimeZone.getDefault();
+	
+	// DateTimeFormatter é imutável e pode ser compartilhado entre threads
+	private static final Map<String, DateTimeFormatter> dateFormatters = new ConcurrentHashMap<>();
+	
+	// DecimalFormat não é thread-safe: uma instância por thread e por número de casas
+	private static final ThreadLocal<DecimalFormat[]> decimalFormats = 
+			ThreadLocal.withInitial(() -> new DecimalFormat[MAX_DECIMAL_PLACES + 1]);
+	
+	// O DecimalFormat só usa o FieldPosition para informar posições, que ninguém lê aqui
+	private static final ThreadLocal<FieldPosition> fieldPosition = ThreadLocal.withInitial(() -> new FieldPosition(0));
+	
+	private Formats() {
+	}
+	
+	public static DateTimeFormatter dateFormatter(String pattern) {
+		return dateFormatters.computeIfAbsent(pattern, p -> DateTimeFormatter.ofPattern(p, LOCALE));
+	}
+	
+	// Como String.format("%.Nf"): sem separador de milhar e com HALF_UP
+	// (em empates raros, como 2.675, o último dígito pode diferir)
+	public static DecimalFormat decimalFormat(int decimalPlaces) {
+		if (decimalPlaces < 0 || decimalPlaces > MAX_DECIMAL_PLACES) {
+			throw new IllegalArgumentException("Invalid decimal places: " + decimalPlaces);
+		}
+		DecimalFormat[] formats = decimalFormats.get();
+		DecimalFormat format = formats[decimalPlaces];
+		if (format == null) {
+			format = new DecimalFormat("0", DecimalFormatSymbols.getInstance(LOCALE));
+			format.setGroupingUsed(false);
+			format.setMinimumFractionDigits(decimalPlaces);
+			format.setMaximumFractionDigits(decimalPlaces);
+			format.setRoundingMode(RoundingMode.HALF_UP);
+			formats[decimalPlaces] = format;
+		}
+		return format;
+	}
+	
+	public static String formatDecimal(double value, int decimalPlaces) {
+		StringBuffer out = new StringBuffer(24);
+		appendDecimal(value, decimalPlaces, out);
+		return out.toString();
+	}
+	
+	/*
+	 * Valores comuns (salários, totais) são escritos direto no buffer, em
+	 * ponto fixo; NaN, infinito e valores enormes ficam com o DecimalFormat.
+	 */
+	public static void appendDecimal(double value, int decimalPlaces, StringBuffer out) {
+		DecimalFormat format = decimalFormat(decimalPlaces);
+		long power = POWERS_OF_TEN[decimalPlaces];
+		double scaled = Math.abs(value) * power;
+		if (!(scaled < FAST_PATH_LIMIT)) {
+			format.format(value, out, fieldPosition.get());
+			return;
+		}
+		long units = (long) (scaled + 0.5);
+		if (value < 0) {
+			out.append('-');
+		}
+		out.append(units / power);
+		if (decimalPlaces > 0) {
+			long fraction = units % power;
+			out.append('.');
+			for (long digit = power / 10; digit > fraction && digit > 1; digit /= 10) {
+				out.append('0');
+			}
+			out.append(fraction);
+		}
+	}
+	
+	// Pelo getTime(), que também funciona com java.sql.Date (não implementa toInstant())
+	public static LocalDate toLocalDate(Date date) {
+		long millis = date.getTime();
+		return LocalDate.ofEpochDay(Math.floorDiv(millis + TIME_ZONE.getOffset(millis), MILLIS_PER_DAY));
+	}
+	
+	public static void appendDate(Date date, DateTimeFormatter formatter, StringBuffer out) {
+		formatter.formatTo(toLocalDate(date), out);
+	}
+}
@@ -0,0 +1,41 @@
+package gui.util;
+
+import java.util.function.BiConsumer;
+
+import javafx.scene.control.TableCell;
+
+/*
+ * Célula de texto que formata o valor num buffer reaproveitado e guarda
+ * o último texto: quando a tabela redesenha a célula com o mesmo valor
+ * (layout, rolagem de volta), nenhum objeto novo é criado.
+ * StringBuffer porque é o que o DecimalFormat aceita.
+ * Linhas ainda não carregadas (item null, ver PagedList) ficam em branco.
+ */
+public class FormattedCell<S, T> extends TableCell<S, T> {
+	
+	private final BiConsumer<? super T, StringBuffer> formatter;
+	private final StringBuffer buffer = new StringBuffer(32);
+	
+	private T lastItem;
+	private String lastText;
+	
+	public FormattedCell(BiConsumer<? super T, StringBuffer> formatter) {
+		this.formatter = formatter;
+	}
+	
+	@Override
+	protected void updateItem(T item, boolean empty) {
+		super.updateItem(item, empty);
+		if (empty || item == null) {
+			setText(null);
+			return;
+		}
+		if (!item.equals(lastItem)) {
+			buffer.setLength(0);
+			formatter.accept(item, buffer);
+			lastText = buffer.toString();
+			lastItem = item;
+		}
+		setText(lastText);
+	}
+}
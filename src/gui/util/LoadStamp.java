@@ -0,0 +1,47 @@
+package gui.util;
+
+import db.DB;
+import model.services.DataVersion;
+
+/*
+ * Marca de quando os dados de uma tela foram lidos do banco. Ficam velhos
+ * quando houve gravação na aplicação depois disso (DataVersion) ou quando
+ * passaram de views.maxAgeSeconds, para pegar alterações de outros usuários.
+ */
+public class LoadStamp {
+	
+	private static final long MAX_AGE_NANOS = DB.getIntProperty("views.maxAgeSeconds", 60) * 1_000_000_000L;
+	
+	private long version;
+	private long loadedAt;
+	private boolean loaded;
+	
+	// Chamar antes de iniciar a leitura: uma gravação durante a carga deixa os dados velhos
+	public void mark() {
+		loaded(DataVersion.current());
+	}
+	
+	/*
+	 * Para cargas que podem ser descartadas no meio (TaskScope cancelado):
+	 * begin() antes da leitura e loaded() com o valor retornado quando os
+	 * dados chegarem. Até lá a tela conta como velha.
+	 */
+	public long begin() {
+		loaded = false;
+		return DataVersion.current();
+	}
+	
+	public void loaded(long version) {
+		this.version = version;
+		loadedAt = System.nanoTime();
+		loaded = true;
+	}
+	
+	public boolean isStale() {
+		return !loaded || version != DataVersion.current() || System.nanoTime() - loadedAt > MAX_AGE_NANOS;
+	}
+	
+	public void invalidate() {
+		loaded = false;
+	}
+}
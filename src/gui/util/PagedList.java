@@ -0,0 +1,373 @@
+package gui.util;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.BiPredicate;
+import java.util.function.IntConsumer;
+
+import javafx.application.Platform;
+import javafx.collections.ObservableListBase;
+import javafx.scene.control.Alert.AlertType;
+
+/*
+ * Lista observável "virtual" para TableView: conhece só o total de linhas
+ * e carrega em segundo plano as páginas que a tabela pede no get(index).
+ * Enquanto a página não chega, a linha aparece vazia (null).
+ * A página seguinte na direção da rolagem é pré-carregada e as páginas
+ * menos usadas são descartadas quando passam de maxPages.
+ * Todo o estado é acessado apenas na JavaFX Application Thread.
+ */
+public class PagedList<T> extends ObservableListBase<T> {
+
+	public interface PageLoader<T> {
+		
+		int count();
+		
+		/*
+		 * Carrega a página pageIndex. Quando a página anterior está em memória,
+		 * previousLast é o último item dela (permite paginação por chave);
+		 * caso contrário é null e a página deve ser lida por posição.
+		 */
+		List<T> loadPage(int pageIndex, T previousLast, int pageSize);
+	}
+
+	private final PageLoader<T> loader;
+	private final int pageSize;
+	private Executor executor;
+	private final Map<Integer, List<T>> pages;
+	
+	// Página em carga -> identificação do pedido, para ignorar respostas de pedidos descartados
+	private final Map<Integer, Object> loading = new HashMap<>();
+	
+	// Páginas que perderam uma linha numa remoção e precisam ser relidas
+	private final Set<Integer> stale = new HashSet<>();
+
+	private int size;
+	private int lastPageIndex;
+	
+	// Descarta respostas de páginas pedidas antes do último refresh()
+	private int generation;
+	private int errorGeneration = -1;
+	
+	// Há um refresh() cuja contagem ainda não voltou
+	private boolean refreshPending;
+	
+	private IntConsumer onPageLoaded = pageIndex -> { };
+	
+	// Já houve um refresh() por causa de uma página curta e nenhuma página completa chegou depois dele
+	private boolean shortPageRefreshed;
+
+	public PagedList(PageLoader<T> loader, int pageSize, int maxPages, Executor executor) {
+		this.loader = loader;
+		this.pageSize = pageSize;
+		this.executor = executor;
+		this.pages = new LinkedHashMap<Integer, List<T>>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Integer, List<T>> eldest) {
+				return size() > maxPages;
+			}
+		};
+	}
+
+	/*
+	 * Chamado com o índice de cada página entregue à tabela. Uma lista vazia
+	 * conta como a página 0 entregue, já que não haverá carga.
+	 */
+	public void setOnPageLoaded(IntConsumer onPageLoaded) {
+		this.onPageLoaded = onPageLoaded;
+	}
+	
+	// Relê o total de linhas e descarta as páginas carregadas
+	public void refresh() {
+		int requestGeneration = ++generation;
+		refreshPending = true;
+		CompletableFuture.supplyAsync(loader::count, executor).whenComplete((count, error) -> Platform.runLater(() -> {
+			if (requestGeneration != generation) {
+				return;
+			}
+			refreshPending = false;
+			if (error != null) {
+				showError(error);
+				return;
+			}
+			reset(count);
+		}));
+	}
+
+	/*
+	 * Troca o executor (a tela foi reaberta com um novo TaskScope). As cargas
+	 * pedidas ao executor antigo podem ter sido descartadas, então são
+	 * esquecidas e pedidas de novo quando a tabela chamar get(); um refresh()
+	 * que não terminou é refeito.
+	 */
+	public void setExecutor(Executor executor) {
+		this.executor = executor;
+		loading.clear();
+		stale.clear();
+		generation++;
+		if (refreshPending) {
+			refresh();
+		}
+	}
+
+	private void reset(int newSize) {
+		int oldSize = size;
+		pages.clear();
+		loading.clear();
+		stale.clear();
+		size = newSize;
+		beginChange();
+		if (oldSize > 0) {
+			nextRemove(0, Collections.nCopies(oldSize, (T) null));
+		}
+		if (newSize > 0) {
+			nextAdd(0, newSize);
+		}
+		endChange();
+		if (newSize == 0) {
+			onPageLoaded.accept(0);
+		}
+	}
+
+	@Override
+	public T get(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+		int pageIndex = index / pageSize;
+		List<T> page = pages.get(pageIndex);
+		
+		// Pré-carrega a próxima página no sentido da rolagem
+		if (pageIndex > lastPageIndex) {
+			request(pageIndex + 1);
+		}
+		else if (pageIndex < lastPageIndex) {
+			request(pageIndex - 1);
+		}
+		lastPageIndex = pageIndex;
+		
+		if (page == null) {
+			request(pageIndex);
+			return null;
+		}
+		int offset = index - pageIndex * pageSize;
+		if (offset < page.size()) {
+			return page.get(offset);
+		}
+		// A página ficou curta depois de uma remoção: relê mantendo as linhas atuais na tela
+		if (stale.add(pageIndex)) {
+			load(pageIndex);
+		}
+		return null;
+	}
+	
+	/*
+	 * Alterações de uma única linha, sem reler a lista: custam uma
+	 * notificação para a tabela. Retornam false quando o item não está
+	 * em uma página carregada (quem chama decide se faz refresh()).
+	 */
+	
+	// Troca o item igual (equals) que está em memória pelo novo; se a posição na ordem mudou, move a linha
+	public boolean updateItem(T item, Comparator<? super T> order) {
+		if (replaceItem(item, (old, updated) -> order.compare(old, updated) == 0)) {
+			return true;
+		}
+		return removeItem(item) && insertItem(item, order);
+	}
+	
+	/*
+	 * Troca o item igual (equals) que está em memória pelo novo, sem mover a
+	 * linha; false se ele não está carregado ou se samePosition(antigo, novo)
+	 * diz que a posição na ordem pode ter mudado.
+	 */
+	public boolean replaceItem(T item, BiPredicate<? super T, ? super T> samePosition) {
+		int index = indexOf(item);
+		if (index < 0) {
+			return false;
+		}
+		int pageIndex = index / pageSize;
+		List<T> page = pages.get(pageIndex);
+		int offset = index - pageIndex * pageSize;
+		if (!samePosition.test(page.get(offset), item)) {
+			return false;
+		}
+		T old = page.set(offset, item);
+		beginChange();
+		nextSet(index, old);
+		endChange();
+		return true;
+	}
+	
+	public boolean removeItem(T item) {
+		int index = indexOf(item);
+		if (index < 0) {
+			return false;
+		}
+		int pageIndex = index / pageSize;
+		T old = pages.get(pageIndex).remove(index - pageIndex * pageSize);
+		dropPagesAfter(pageIndex);
+		size--;
+		beginChange();
+		nextRemove(index, old);
+		endChange();
+		return true;
+	}
+	
+	// Insere na posição dada pela ordem da lista, se ela cair dentro de uma página carregada
+	public boolean insertItem(T item, Comparator<? super T> order) {
+		for (Map.Entry<Integer, List<T>> entry : pages.entrySet()) {
+			int pageIndex = entry.getKey();
+			List<T> page = entry.getValue();
+			int pos = Collections.binarySearch(page, item, order);
+			if (pos >= 0) {
+				return false;
+			}
+			pos = -pos - 1;
+			boolean lastPage = pageIndex * pageSize + page.size() == size;
+			if ((pos > 0 || pageIndex == 0) && (pos < page.size() || lastPage)) {
+				page.add(pos, item);
+				// O último item passa para a página seguinte, que será relida
+				if (page.size() > pageSize) {
+					page.remove(pageSize);
+				}
+				dropPagesAfter(pageIndex);
+				size++;
+				beginChange();
+				nextAdd(pageIndex * pageSize + pos, pageIndex * pageSize + pos + 1);
+				endChange();
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	// As páginas seguintes ficaram deslocadas em uma posição; são relidas quando a tabela pedir
+	private void dropPagesAfter(int pageIndex) {
+		pages.keySet().removeIf(i -> i > pageIndex);
+		loading.keySet().removeIf(i -> i > pageIndex);
+		stale.removeIf(i -> i > pageIndex);
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	// Não percorre a lista inteira (isso carregaria todas as páginas): procura só nas páginas em memória
+	@Override
+	public int indexOf(Object o) {
+		for (Map.Entry<Integer, List<T>> entry : pages.entrySet()) {
+			int offset = entry.getValue().indexOf(o);
+			if (offset >= 0) {
+				return entry.getKey() * pageSize + offset;
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public int lastIndexOf(Object o) {
+		return indexOf(o);
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		return indexOf(o) >= 0;
+	}
+
+	private void request(int pageIndex) {
+		if (pageIndex < 0 || pageIndex * pageSize >= size || pages.containsKey(pageIndex)) {
+			return;
+		}
+		load(pageIndex);
+	}
+	
+	private void load(int pageIndex) {
+		if (loading.containsKey(pageIndex)) {
+			return;
+		}
+		Object token = new Object();
+		loading.put(pageIndex, token);
+		int requestGeneration = generation;
+		List<T> previousPage = pages.get(pageIndex - 1);
+		T previousLast = previousPage != null && previousPage.size() == pageSize 
+				? previousPage.get(pageSize - 1) : null;
+		
+		CompletableFuture.supplyAsync(() -> loader.loadPage(pageIndex, previousLast, pageSize), executor)
+				.whenComplete((page, error) -> Platform.runLater(() -> {
+					// Resposta de antes de um refresh() ou de uma página descartada por insert/remove
+					if (requestGeneration != generation || !loading.remove(pageIndex, token)) {
+						return;
+					}
+					stale.remove(pageIndex);
+					if (error != null) {
+						showError(error);
+					}
+					else {
+						pageLoaded(pageIndex, page);
+					}
+				}));
+	}
+
+	// Mostra só o primeiro erro de cada carga, para não abrir um alerta por página
+	private void showError(Throwable error) {
+		if (errorGeneration == generation) {
+			return;
+		}
+		errorGeneration = generation;
+		Throwable cause = error.getCause() != null ? error.getCause() : error;
+		Alerts.showAlert("Error loading data", null, cause.getMessage(), AlertType.ERROR);
+	}
+
+	private void pageLoaded(int pageIndex, List<T> page) {
+		pages.put(pageIndex, page);
+		int from = pageIndex * pageSize;
+		int to = Math.min(from + pageSize, size);
+		if (from >= to) {
+			return;
+		}
+		// Linhas apagadas por outro usuário depois do count(): reler a mesma página voltaria curta de novo
+		if (from + page.size() < to) {
+			shortPageLoaded(pageIndex, from + page.size());
+			return;
+		}
+		shortPageRefreshed = false;
+		beginChange();
+		nextReplace(from, to, Collections.nCopies(to - from, (T) null));
+		endChange();
+		onPageLoaded.accept(pageIndex);
+	}
+	
+	/*
+	 * Relê o total uma vez; se a página continua curta depois disso, a lista
+	 * passa a terminar na última linha que ela trouxe.
+	 */
+	private void shortPageLoaded(int pageIndex, int newSize) {
+		if (!shortPageRefreshed) {
+			shortPageRefreshed = true;
+			refresh();
+			return;
+		}
+		int from = pageIndex * pageSize;
+		int oldSize = size;
+		dropPagesAfter(pageIndex);
+		size = newSize;
+		beginChange();
+		if (newSize > from) {
+			nextReplace(from, newSize, Collections.nCopies(newSize - from, (T) null));
+		}
+		nextRemove(newSize, Collections.nCopies(oldSize - newSize, (T) null));
+		endChange();
+		onPageLoaded.accept(pageIndex);
+	}
+}
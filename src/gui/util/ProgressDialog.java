@@ -0,0 +1,87 @@
+package gui.util;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javafx.application.Platform;
+import javafx.geometry.Insets;
+import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.layout.VBox;
+import javafx.stage.Modality;
+import javafx.stage.Stage;
+import javafx.stage.Window;
+import model.services.ProgressMonitor;
+
+/*
+ * Janela modal com barra de progresso e botão Cancel para tarefas longas.
+ * update() pode ser chamado de qualquer thread: guarda o último valor e
+ * agenda no máximo uma atualização por vez na JavaFX Application Thread,
+ * para não encher a fila de eventos quando o trabalho avança rápido.
+ */
+public class ProgressDialog implements ProgressMonitor {
+	
+	private final Stage stage = new Stage();
+	private final ProgressBar progressBar = new ProgressBar(ProgressBar.INDETERMINATE_PROGRESS);
+	private final Label labelMessage = new Label();
+	private final Button btnCancel = new Button("Cancel");
+	
+	private volatile boolean cancelled;
+	
+	// Último progresso informado, aplicado na tela pelo próximo runLater agendado
+	private volatile double progress = ProgressBar.INDETERMINATE_PROGRESS;
+	private volatile String message = "";
+	private final AtomicBoolean scheduled = new AtomicBoolean();
+	
+	public ProgressDialog(String title, Window owner) {
+		progressBar.setPrefWidth(320.0);
+		btnCancel.setOnAction(event -> {
+			cancelled = true;
+			btnCancel.setDisable(true);
+			labelMessage.setText("Cancelling...");
+		});
+		
+		VBox root = new VBox(10.0, labelMessage, progressBar, btnCancel);
+		root.setPadding(new Insets(15.0));
+		
+		stage.setTitle(title);
+		stage.setScene(new Scene(root));
+		stage.setResizable(false);
+		stage.initOwner(owner);
+		stage.initModality(Modality.WINDOW_MODAL);
+		// Fechar pela janela equivale a cancelar
+		stage.setOnCloseRequest(event -> {
+			event.consume();
+			btnCancel.fire();
+		});
+	}
+	
+	public void show() {
+		stage.show();
+	}
+	
+	public void close() {
+		stage.hide();
+	}
+	
+	@Override
+	public void update(long workDone, long totalWork, String message) {
+		this.progress = totalWork > 0 ? Math.min(1.0, (double) workDone / totalWork) : ProgressBar.INDETERMINATE_PROGRESS;
+		this.message = message;
+		if (scheduled.compareAndSet(false, true)) {
+			Platform.runLater(() -> {
+				scheduled.set(false);
+				progressBar.setProgress(progress);
+				if (!cancelled) {
+					labelMessage.setText(this.message);
+				}
+			});
+		}
+	}
+	
+	@Override
+	public boolean isCancelled() {
+		return cancelled;
+	}
+}
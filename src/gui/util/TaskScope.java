@@ -0,0 +1,79 @@
+package gui.util;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyBooleanProperty;
+import javafx.beans.property.ReadOnlyBooleanWrapper;
+import model.services.ServiceExecutor;
+
+/*
+ * Agrupa as tarefas assíncronas de uma tela. Os resultados voltam para a
+ * JavaFX Application Thread com Platform.runLater, busyProperty() indica se
+ * há tarefas em andamento (para indicadores de carregamento) e cancelAll()
+ * descarta as tarefas quando o usuário sai da tela.
+ */
+public class TaskScope implements Executor {
+	
+	// Acessado somente na JavaFX Application Thread
+	private final Set<CompletableFuture<?>> pending = new HashSet<>();
+	
+	private final ReadOnlyBooleanWrapper busy = new ReadOnlyBooleanWrapper(false);
+	
+	private volatile boolean cancelled;
+	
+	public <T> void submit(CompletableFuture<T> future, Consumer<T> onSuccess, Consumer<Throwable> onError) {
+		if (cancelled) {
+			future.cancel(true);
+			return;
+		}
+		pending.add(future);
+		busy.set(true);
+		future.whenComplete((result, error) -> Platform.runLater(() -> {
+			if (!pending.remove(future)) {
+				return; // cancelada
+			}
+			busy.set(!pending.isEmpty());
+			if (error == null) {
+				onSuccess.accept(result);
+			}
+			else if (!(error instanceof CancellationException)) {
+				onError.accept(unwrap(error));
+			}
+		}));
+	}
+	
+	// Executa tarefas de quem precisa de um Executor (ex.: PagedList), enquanto a tela estiver ativa
+	@Override
+	public void execute(Runnable command) {
+		if (!cancelled) {
+			ServiceExecutor.get().execute(command);
+		}
+	}
+	
+	public void cancelAll() {
+		cancelled = true;
+		for (CompletableFuture<?> future : pending) {
+			future.cancel(true);
+		}
+		pending.clear();
+		busy.set(false);
+	}
+	
+	public ReadOnlyBooleanProperty busyProperty() {
+		return busy.getReadOnlyProperty();
+	}
+	
+	private static Throwable unwrap(Throwable error) {
+		if (error instanceof CompletionException && error.getCause() != null) {
+			return error.getCause();
+		}
+		return error;
+	}
+}
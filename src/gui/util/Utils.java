@@ -1,15 +1,12 @@
 package gui.util;
 
-import java.text.SimpleDateFormat;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.Date;
-import java.util.Locale;
 
 import javafx.event.ActionEvent;
 import javafx.scene.Node;
 import javafx.scene.control.DatePicker;
-import javafx.scene.control.TableCell;
 import javafx.scene.control.TableColumn;
 import javafx.stage.Stage;
 import javafx.util.StringConverter;
@@ -37,46 +34,21 @@ public class Utils {
 		}
 	}
 	
+	// Células com formatadores em cache (Formats), sem alterar o Locale padrão
 	public static <T> void formatTableColumnDate(TableColumn<T, Date> tableColumn, String format) {
-		tableColumn.setCellFactory(column -> {
-			TableCell<T, Date> cell = new TableCell<T, Date>() {
-				private SimpleDateFormat sdf = new SimpleDateFormat(format);
-
-				@Override
-				protected void updateItem(Date item, boolean empty) {
-					super.updateItem(item, empty);
-					if (empty) {
-						setText(null);
-					} else {
-						setText(sdf.format(item));
-					}
-				}
-			};
-			return cell;
-		});
+		DateTimeFormatter formatter = Formats.dateFormatter(format);
+		tableColumn.setCellFactory(column -> new FormattedCell<T, Date>(
+				(item, out) -> Formats.appendDate(item, formatter, out)));
 	}
 
 	public static <T> void formatTableColumnDouble(TableColumn<T, Double> tableColumn, int decimalPlaces) {
-		tableColumn.setCellFactory(column -> {
-			TableCell<T, Double> cell = new TableCell<T, Double>() {
-				@Override
-				protected void updateItem(Double item, boolean empty) {
-					super.updateItem(item, empty);
-					if (empty) {
-						setText(null);
-					} else {
-						Locale.setDefault(Locale.US);
-						setText(String.format("%." + decimalPlaces + "f", item));
-					}
-				}
-			};
-			return cell;
-		});
+		tableColumn.setCellFactory(column -> new FormattedCell<T, Double>(
+				(item, out) -> Formats.appendDecimal(item, decimalPlaces, out)));
 	}
 
 	public static void formatDatePicker(DatePicker datePicker, String format) {
 		datePicker.setConverter(new StringConverter<LocalDate>() {
-			DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern(format);
+			DateTimeFormatter dateFormatter = Formats.dateFormatter(format);
 			{
 				datePicker.setPromptText(format.toLowerCase());
 			}
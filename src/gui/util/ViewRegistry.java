@@ -0,0 +1,86 @@
+package gui.util;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.stage.Modality;
+import javafx.stage.Stage;
+import javafx.stage.Window;
+
+/*
+ * Guarda as telas já carregadas: cada FXML é lido e seu controller criado
+ * uma única vez; nas próximas vezes a mesma árvore de nós e o mesmo
+ * controller são reaproveitados. As janelas de formulário também guardam
+ * o Stage. Usado somente na JavaFX Application Thread.
+ */
+public class ViewRegistry {
+	
+	private static final Map<String, View<?>> views = new HashMap<>();
+	
+	// Tela do FXML informado, carregada na primeira chamada
+	@SuppressWarnings("unchecked")
+	public static <C> View<C> get(String absoluteName) throws IOException {
+		View<C> view = (View<C>) views.get(absoluteName);
+		if (view == null) {
+			FXMLLoader loader = new FXMLLoader(ViewRegistry.class.getResource(absoluteName));
+			Parent root = loader.load();
+			view = new View<>(root, loader.getController());
+			views.put(absoluteName, view);
+		}
+		return view;
+	}
+	
+	public static boolean isLoaded(String absoluteName) {
+		return views.containsKey(absoluteName);
+	}
+	
+	public static class View<C> {
+		
+		private final Parent root;
+		private final C controller;
+		
+		// Filhos da raiz no FXML; a janela principal os move para o seu VBox
+		private final List<Node> children;
+		
+		private Stage stage;
+		
+		private View(Parent root, C controller) {
+			this.root = root;
+			this.controller = controller;
+			this.children = Collections.unmodifiableList(new ArrayList<>(root.getChildrenUnmodifiable()));
+		}
+		
+		public Parent getRoot() {
+			return root;
+		}
+		
+		public C getController() {
+			return controller;
+		}
+		
+		public List<Node> getChildren() {
+			return children;
+		}
+		
+		// Janela modal com a raiz da tela, criada na primeira vez e reaproveitada depois
+		public Stage getDialogStage(String title, Window owner) {
+			if (stage == null) {
+				stage = new Stage();
+				stage.setScene(new Scene(root));
+				stage.setResizable(false);
+				stage.initOwner(owner);
+				stage.initModality(Modality.WINDOW_MODAL); // Fica travada não podendo chamar outra janela
+			}
+			stage.setTitle(title);
+			return stage;
+		}
+	}
+}
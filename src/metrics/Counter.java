@@ -0,0 +1,29 @@
+package metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+public class Counter {
+	
+	private final String name;
+	private final LongAdder value = new LongAdder();
+	
+	Counter(String name) {
+		this.name = name;
+	}
+	
+	public String getName() {
+		return name;
+	}
+	
+	public void increment() {
+		value.increment();
+	}
+	
+	public void add(long amount) {
+		value.add(amount);
+	}
+	
+	public long getCount() {
+		return value.sum();
+	}
+}
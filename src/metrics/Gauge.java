@@ -0,0 +1,8 @@
+package metrics;
+
+// Valor lido no momento da exportação (ex.: conexões em uso no pool)
+@FunctionalInterface
+public interface Gauge {
+	
+	Number getValue();
+}
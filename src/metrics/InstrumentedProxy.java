@@ -0,0 +1,94 @@
+package metrics;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/*
+ * Decora uma interface (ex.: SellerDao) medindo cada método:
+ * "<prefixo>.<método>" guarda a latência, "<prefixo>.<método>.rows" as
+ * linhas devolvidas em coleções e "<prefixo>.<método>.errors" as exceções.
+ */
+public class InstrumentedProxy implements InvocationHandler {
+	
+	private final Object target;
+	private final String prefix;
+	
+	// Métricas resolvidas uma vez por método, fora do caminho quente
+	private final ConcurrentMap<Method, MethodMetrics> metrics = new ConcurrentHashMap<>();
+	
+	private InstrumentedProxy(Object target, String prefix) {
+		this.target = target;
+		this.prefix = prefix;
+	}
+	
+	public static <T> T wrap(Class<T> type, T target, String prefix) {
+		return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+				new InstrumentedProxy(target, prefix)));
+	}
+	
+	@Override
+	public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+		if (method.getDeclaringClass() == Object.class) {
+			return invokeObjectMethod(proxy, method, args);
+		}
+		MethodMetrics m = metrics.computeIfAbsent(method, this::createMetrics);
+		long start = System.nanoTime();
+		try {
+			Object result = method.invoke(target, args);
+			if (result instanceof Collection) {
+				m.rows.add(((Collection<?>) result).size());
+			}
+			return result;
+		}
+		catch (InvocationTargetException e) {
+			m.errors.increment();
+			throw e.getCause();
+		}
+		finally {
+			m.timer.stop(start);
+		}
+	}
+	
+	private Object invokeObjectMethod(Object proxy, Method method, Object[] args) throws Throwable {
+		switch (method.getName()) {
+		case "equals":
+			return proxy == args[0];
+		case "hashCode":
+			return System.identityHashCode(proxy);
+		case "toString":
+			return "Instrumented[" + target + "]";
+		default:
+			try {
+				return method.invoke(target, args);
+			}
+			catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+		}
+	}
+	
+	private MethodMetrics createMetrics(Method method) {
+		MetricsRegistry registry = MetricsRegistry.getInstance();
+		String name = prefix + "." + method.getName();
+		return new MethodMetrics(registry.timer(name), registry.counter(name + ".rows"),
+				registry.counter(name + ".errors"));
+	}
+	
+	private static class MethodMetrics {
+		
+		final Timer timer;
+		final Counter rows;
+		final Counter errors;
+		
+		MethodMetrics(Timer timer, Counter rows, Counter errors) {
+			this.timer = timer;
+			this.rows = rows;
+			this.errors = errors;
+		}
+	}
+}
@@ -0,0 +1,104 @@
+package metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanOperationInfo;
+import javax.management.ReflectionException;
+
+/*
+ * Expõe o MetricsRegistry via JMX (jconsole, VisualVM...). Os atributos são
+ * montados a cada consulta, pois as métricas são criadas sob demanda:
+ * timers viram "<nome>.count", "<nome>.p50Millis", "<nome>.p99Millis"...;
+ * contadores e gauges usam o próprio nome. Todos são somente leitura.
+ */
+class MetricsMBean implements DynamicMBean {
+	
+	private final MetricsRegistry registry;
+	
+	MetricsMBean(MetricsRegistry registry) {
+		this.registry = registry;
+	}
+	
+	@Override
+	public Object getAttribute(String attribute) throws AttributeNotFoundException {
+		Counter counter = registry.getCounters().get(attribute);
+		if (counter != null) {
+			return counter.getCount();
+		}
+		Gauge gauge = registry.getGauges().get(attribute);
+		if (gauge != null) {
+			Number value = MetricsRegistry.read(gauge);
+			return value != null ? value.doubleValue() : null;
+		}
+		int dot = attribute.lastIndexOf('.');
+		if (dot > 0) {
+			Timer timer = registry.getTimers().get(attribute.substring(0, dot));
+			if (timer != null) {
+				Object value = MetricsRegistry.timerValues(timer).get(attribute.substring(dot + 1));
+				if (value != null) {
+					return value;
+				}
+			}
+		}
+		throw new AttributeNotFoundException(attribute);
+	}
+	
+	@Override
+	public AttributeList getAttributes(String[] attributes) {
+		AttributeList list = new AttributeList();
+		for (String name : attributes) {
+			try {
+				list.add(new Attribute(name, getAttribute(name)));
+			}
+			catch (AttributeNotFoundException e) {
+				// Atributos desconhecidos são omitidos, como manda a especificação
+			}
+		}
+		return list;
+	}
+	
+	@Override
+	public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+		throw new AttributeNotFoundException("Metrics are read-only: " + attribute.getName());
+	}
+	
+	@Override
+	public AttributeList setAttributes(AttributeList attributes) {
+		return new AttributeList();
+	}
+	
+	@Override
+	public Object invoke(String actionName, Object[] params, String[] signature) throws ReflectionException {
+		throw new ReflectionException(new NoSuchMethodException(actionName));
+	}
+	
+	@Override
+	public MBeanInfo getMBeanInfo() {
+		List<MBeanAttributeInfo> attributes = new ArrayList<>();
+		for (Map.Entry<String, Timer> e : registry.getTimers().entrySet()) {
+			for (Map.Entry<String, Object> v : MetricsRegistry.timerValues(e.getValue()).entrySet()) {
+				attributes.add(attribute(e.getKey() + "." + v.getKey(), v.getValue().getClass().getName()));
+			}
+		}
+		for (String name : registry.getCounters().keySet()) {
+			attributes.add(attribute(name, Long.class.getName()));
+		}
+		for (String name : registry.getGauges().keySet()) {
+			attributes.add(attribute(name, Double.class.getName()));
+		}
+		return new MBeanInfo(getClass().getName(), "Application metrics",
+				attributes.toArray(new MBeanAttributeInfo[0]), null, new MBeanOperationInfo[0], null);
+	}
+	
+	private static MBeanAttributeInfo attribute(String name, String type) {
+		return new MBeanAttributeInfo(name, type, name, true, false, false);
+	}
+}
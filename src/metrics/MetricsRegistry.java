@@ -0,0 +1,101 @@
+package metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/*
+ * Registro único das métricas da aplicação: timers (histograma de latência),
+ * contadores e gauges, identificados por nome (ex.: "dao.seller.findAll").
+ * Tudo fica visível via JMX em coursejdbc:type=Metrics; o MetricsReporter
+ * grava um resumo periódico em log ou CSV.
+ */
+public class MetricsRegistry {
+	
+	private static final Logger LOG = Logger.getLogger(MetricsRegistry.class.getName());
+	
+	public static final String JMX_NAME = "coursejdbc:type=Metrics";
+	
+	private static final MetricsRegistry INSTANCE = new MetricsRegistry();
+	
+	private final ConcurrentMap<String, Timer> timers = new ConcurrentHashMap<>();
+	private final ConcurrentMap<String, Counter> counters = new ConcurrentHashMap<>();
+	private final ConcurrentMap<String, Gauge> gauges = new ConcurrentHashMap<>();
+	
+	private MetricsRegistry() {
+		registerMBean();
+	}
+	
+	public static MetricsRegistry getInstance() {
+		return INSTANCE;
+	}
+	
+	public Timer timer(String name) {
+		return timers.computeIfAbsent(name, Timer::new);
+	}
+	
+	public Counter counter(String name) {
+		return counters.computeIfAbsent(name, Counter::new);
+	}
+	
+	// Substitui o gauge anterior de mesmo nome (ex.: o pool foi recriado)
+	public void gauge(String name, Gauge gauge) {
+		gauges.put(name, gauge);
+	}
+	
+	// Cópias ordenadas por nome, para exportação
+	public SortedMap<String, Timer> getTimers() {
+		return Collections.unmodifiableSortedMap(new TreeMap<>(timers));
+	}
+	
+	public SortedMap<String, Counter> getCounters() {
+		return Collections.unmodifiableSortedMap(new TreeMap<>(counters));
+	}
+	
+	public SortedMap<String, Gauge> getGauges() {
+		return Collections.unmodifiableSortedMap(new TreeMap<>(gauges));
+	}
+	
+	// Um gauge com erro não pode derrubar a exportação das demais métricas
+	static Number read(Gauge gauge) {
+		try {
+			return gauge.getValue();
+		}
+		catch (RuntimeException e) {
+			return null;
+		}
+	}
+	
+	static Map<String, Object> timerValues(Timer timer) {
+		Map<String, Object> values = new TreeMap<>();
+		values.put("count", timer.getCount());
+		values.put("meanMillis", timer.getMeanMillis());
+		values.put("p50Millis", timer.getPercentileMillis(50));
+		values.put("p99Millis", timer.getPercentileMillis(99));
+		values.put("maxMillis", timer.getMaxMillis());
+		return values;
+	}
+	
+	private void registerMBean() {
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName(JMX_NAME);
+			if (!server.isRegistered(name)) {
+				server.registerMBean(new MetricsMBean(this), name);
+			}
+		}
+		catch (JMException | RuntimeException e) {
+			LOG.log(Level.WARNING, "Could not register metrics MBean", e);
+		}
+	}
+}
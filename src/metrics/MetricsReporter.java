@@ -0,0 +1,132 @@
+package metrics;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/*
+ * Grava periodicamente as métricas que tiveram uso:
+ * metrics.reportIntervalSeconds (0 desliga) e, opcionalmente,
+ * metrics.csvFile para acrescentar as linhas em um CSV além do log.
+ */
+public class MetricsReporter {
+	
+	private static final Logger LOG = Logger.getLogger(MetricsReporter.class.getName());
+	
+	private static final String CSV_HEADER = "timestamp,name,count,meanMillis,p50Millis,p99Millis,maxMillis,value";
+	
+	private static ScheduledExecutorService scheduler;
+	
+	public static synchronized void start(Properties props) {
+		stop();
+		long interval = longProperty(props, "metrics.reportIntervalSeconds", 0);
+		if (interval <= 0) {
+			return;
+		}
+		String csv = props.getProperty("metrics.csvFile", "").trim();
+		Path csvFile = csv.isEmpty() ? null : Paths.get(csv);
+		
+		scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "metrics-reporter");
+			t.setDaemon(true);
+			return t;
+		});
+		scheduler.scheduleAtFixedRate(() -> report(csvFile), interval, interval, TimeUnit.SECONDS);
+	}
+	
+	public static synchronized void stop() {
+		if (scheduler != null) {
+			scheduler.shutdownNow();
+			scheduler = null;
+		}
+	}
+	
+	// Um resumo por linha: contagem e latências dos timers, valor de contadores e gauges
+	public static void report(Path csvFile) {
+		MetricsRegistry registry = MetricsRegistry.getInstance();
+		String now = LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+		StringBuilder log = new StringBuilder("Metrics snapshot");
+		StringBuilder csv = new StringBuilder();
+		
+		for (Map.Entry<String, Timer> e : registry.getTimers().entrySet()) {
+			Timer t = e.getValue();
+			if (t.getCount() == 0) {
+				continue;
+			}
+			double mean = t.getMeanMillis();
+			double p50 = t.getPercentileMillis(50);
+			double p99 = t.getPercentileMillis(99);
+			double max = t.getMaxMillis();
+			log.append(String.format(Locale.ROOT, "%n  %s count=%d mean=%.3fms p50=%.3fms p99=%.3fms max=%.3fms",
+					e.getKey(), t.getCount(), mean, p50, p99, max));
+			csv.append(String.format(Locale.ROOT, "%s,%s,%d,%.3f,%.3f,%.3f,%.3f,%n",
+					now, e.getKey(), t.getCount(), mean, p50, p99, max));
+		}
+		for (Map.Entry<String, Counter> e : registry.getCounters().entrySet()) {
+			long count = e.getValue().getCount();
+			if (count == 0) {
+				continue;
+			}
+			log.append(String.format(Locale.ROOT, "%n  %s=%d", e.getKey(), count));
+			csv.append(String.format(Locale.ROOT, "%s,%s,%d,,,,,%n", now, e.getKey(), count));
+		}
+		for (Map.Entry<String, Gauge> e : registry.getGauges().entrySet()) {
+			Number value = MetricsRegistry.read(e.getValue());
+			if (value == null) {
+				continue;
+			}
+			log.append(String.format(Locale.ROOT, "%n  %s=%s", e.getKey(), value));
+			csv.append(String.format(Locale.ROOT, "%s,%s,,,,,,%s%n", now, e.getKey(), value));
+		}
+		
+		LOG.info(log.toString());
+		if (csvFile != null) {
+			appendCsv(csvFile, csv);
+		}
+	}
+	
+	private static void appendCsv(Path csvFile, CharSequence lines) {
+		try {
+			boolean newFile = !Files.exists(csvFile) || Files.size(csvFile) == 0;
+			try (BufferedWriter writer = Files.newBufferedWriter(csvFile, StandardCharsets.UTF_8,
+					StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+				if (newFile) {
+					writer.write(CSV_HEADER);
+					writer.newLine();
+				}
+				writer.append(lines);
+			}
+		}
+		catch (IOException e) {
+			LOG.log(Level.WARNING, "Could not write metrics to " + csvFile, e);
+		}
+	}
+	
+	private static long longProperty(Properties props, String name, long defaultValue) {
+		String value = props.getProperty(name);
+		if (value == null || value.trim().isEmpty()) {
+			return defaultValue;
+		}
+		try {
+			return Long.parseLong(value.trim());
+		}
+		catch (NumberFormatException e) {
+			LOG.warning("Invalid value for " + name + ": " + value);
+			return defaultValue;
+		}
+	}
+}
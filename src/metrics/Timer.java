@@ -0,0 +1,103 @@
+package metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Histograma de latências com buckets logarítmicos (8 por potência de 2,
+ * erro máximo de ~12%), de 1 microssegundo até ~1 dia. Gravar é só
+ * incrementar um contador, sem locks e sem alocação.
+ */
+public class Timer {
+	
+	private static final int SUB_BUCKETS = 8;
+	private static final int MAX_EXPONENT = 37; // 2^37 us ~ 38 horas
+	private static final int BUCKETS = SUB_BUCKETS + (MAX_EXPONENT - 2) * SUB_BUCKETS;
+	
+	private final String name;
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+	private final LongAdder count = new LongAdder();
+	private final LongAdder totalNanos = new LongAdder();
+	private final AtomicLong maxNanos = new AtomicLong();
+	
+	Timer(String name) {
+		this.name = name;
+	}
+	
+	public String getName() {
+		return name;
+	}
+	
+	public void record(long nanos) {
+		if (nanos < 0) {
+			return;
+		}
+		counts.incrementAndGet(bucket(TimeUnit.NANOSECONDS.toMicros(nanos)));
+		count.increment();
+		totalNanos.add(nanos);
+		maxNanos.accumulateAndGet(nanos, Math::max);
+	}
+	
+	// Uso: long start = System.nanoTime(); ... timer.stop(start);
+	public void stop(long startNanos) {
+		record(System.nanoTime() - startNanos);
+	}
+	
+	public long getCount() {
+		return count.sum();
+	}
+	
+	public double getMeanMillis() {
+		long c = count.sum();
+		return c == 0 ? 0.0 : totalNanos.sum() / (c * 1_000_000.0);
+	}
+	
+	public double getMaxMillis() {
+		return maxNanos.get() / 1_000_000.0;
+	}
+	
+	// Percentil aproximado (limite superior do bucket), em milissegundos
+	public double getPercentileMillis(double percentile) {
+		long total = 0;
+		long[] snapshot = new long[BUCKETS];
+		for (int i = 0; i < BUCKETS; i++) {
+			snapshot[i] = counts.get(i);
+			total += snapshot[i];
+		}
+		if (total == 0) {
+			return 0.0;
+		}
+		long rank = (long) Math.ceil(percentile / 100.0 * total);
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += snapshot[i];
+			if (seen >= rank) {
+				return Math.min(upperBoundMicros(i) / 1000.0, getMaxMillis());
+			}
+		}
+		return getMaxMillis();
+	}
+	
+	static int bucket(long micros) {
+		if (micros < SUB_BUCKETS) {
+			return (int) micros;
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(micros);
+		if (exponent >= MAX_EXPONENT) {
+			return BUCKETS - 1;
+		}
+		int sub = (int) ((micros >>> (exponent - 3)) & (SUB_BUCKETS - 1));
+		return SUB_BUCKETS + (exponent - 3) * SUB_BUCKETS + sub;
+	}
+	
+	static long upperBoundMicros(int bucket) {
+		if (bucket < SUB_BUCKETS) {
+			return bucket + 1;
+		}
+		int exponent = (bucket - SUB_BUCKETS) / SUB_BUCKETS + 3;
+		int sub = (bucket - SUB_BUCKETS) % SUB_BUCKETS;
+		return ((long) (SUB_BUCKETS + sub + 1)) << (exponent - 3);
+	}
+}
@@ -0,0 +1,79 @@
+package model.dao;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/*
+ * Resultado de uma operação em lote: quantas linhas foram gravadas
+ * e quais falharam (com a posição na coleção de entrada e o motivo).
+ */
+public class BatchResult<T> {
+	
+	// Motivo das linhas que não tinham erro, mas foram desfeitas junto com o bloco em que outra linha falhou
+	public static final String ROLLED_BACK = "Rolled back with failed chunk";
+	
+	private int succeeded;
+	private List<Failure<T>> failures = new ArrayList<>();
+	
+	public int getSucceeded() {
+		return succeeded;
+	}
+	
+	public void addSucceeded(int count) {
+		succeeded += count;
+	}
+	
+	public List<Failure<T>> getFailures() {
+		return Collections.unmodifiableList(failures);
+	}
+	
+	public void addFailure(T item, int index, String message) {
+		failures.add(new Failure<>(item, index, message));
+	}
+	
+	public boolean hasFailures() {
+		return !failures.isEmpty();
+	}
+	
+	@Override
+	public String toString() {
+		return "BatchResult [succeeded=" + succeeded + ", failed=" + failures.size() + "]";
+	}
+	
+	public static class Failure<T> {
+		
+		private final T item;
+		private final int index;
+		private final String message;
+		
+		public Failure(T item, int index, String message) {
+			this.item = item;
+			this.index = index;
+			this.message = message;
+		}
+		
+		public T getItem() {
+			return item;
+		}
+		
+		// Posição do item na coleção enviada ao DAO
+		public int getIndex() {
+			return index;
+		}
+		
+		public String getMessage() {
+			return message;
+		}
+		
+		// true quando a linha em si não tinha problema e pode ser enviada de novo
+		public boolean isRolledBack() {
+			return ROLLED_BACK.equals(message);
+		}
+		
+		@Override
+		public String toString() {
+			return "Failure [index=" + index + ", item=" + item + ", message=" + message + "]";
+		}
+	}
+}
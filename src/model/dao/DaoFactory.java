@@ -1,19 +1,67 @@
 package model.dao;
 
+import java.util.concurrent.TimeUnit;
+
 import db.DB;
+import metrics.InstrumentedProxy;
+import metrics.MetricsRegistry;
+import model.dao.impl.CachingSellerDao;
 import model.dao.impl.DepartmentDaoJDBC;
+import model.dao.impl.LruCache;
+import model.dao.impl.ReportDaoJDBC;
 import model.dao.impl.SellerDaoJDBC;
+import model.entities.Seller;
 
 public class DaoFactory {
 	
+	// Cache de vendedores compartilhado por todos os DAOs (cache.seller.enabled no db.properties)
+	private static final LruCache<Integer, Seller> sellerCache = createSellerCache();
+	
 	// Retorna um Seller
 	public static SellerDao createSellerDao() {
 		
 		//Deixa protegido a implementação somente a instaciação
-		return new SellerDaoJDBC(DB.getConnection());
+		SellerDao dao = new SellerDaoJDBC();
+		if (sellerCache != null) {
+			dao = new CachingSellerDao(dao, sellerCache);
+		}
+		// Latência e linhas por método, como o chamador as vê (com o cache)
+		return InstrumentedProxy.wrap(SellerDao.class, dao, "dao.seller");
 	}
 	
 	public static DepartmentDao createDepartmentDao() {
-			return new DepartmentDaoJDBC(DB.getConnection());
+			return InstrumentedProxy.wrap(DepartmentDao.class, new DepartmentDaoJDBC(), "dao.department");
+	}
+	
+	public static ReportDao createReportDao() {
+		return InstrumentedProxy.wrap(ReportDao.class, new ReportDaoJDBC(), "dao.report");
+	}
+	
+	// null quando o cache está desligado
+	public static LruCache<Integer, Seller> getSellerCache() {
+		return sellerCache;
+	}
+	
+	// Os vendedores em cache guardam o Department; uma mudança de departamento descarta todos
+	public static void invalidateSellerCache() {
+		if (sellerCache != null) {
+			sellerCache.clear();
+		}
+	}
+	
+	private static LruCache<Integer, Seller> createSellerCache() {
+		boolean enabled = Boolean.parseBoolean(DB.getProperties().getProperty("cache.seller.enabled", "false"));
+		if (!enabled) {
+			return null;
+		}
+		LruCache<Integer, Seller> cache = new LruCache<>(DB.getIntProperty("cache.seller.maxEntries", 10000),
+				DB.getIntProperty("cache.seller.maxAgeSeconds", 300), TimeUnit.SECONDS);
+		MetricsRegistry registry = MetricsRegistry.getInstance();
+		registry.gauge("cache.seller.hits", cache::getHits);
+		registry.gauge("cache.seller.misses", cache::getMisses);
+		registry.gauge("cache.seller.evictions", cache::getEvictions);
+		registry.gauge("cache.seller.hitRatio", cache::getHitRatio);
+		registry.gauge("cache.seller.size", cache::size);
+		return cache;
 	}
 }
@@ -0,0 +1,190 @@
+package model.dao;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import db.DB;
+import metrics.MetricsRegistry;
+import model.entities.Department;
+
+/*
+ * Cache de departamentos compartilhado por toda a aplicação.
+ * Os departamentos mudam pouco, então findAll/findById são lidos do banco
+ * só quando o cache expira (cache.department.ttlSeconds) ou é invalidado por
+ * uma gravação. Cada Id tem uma única instância de Department enquanto
+ * estiver no cache, inclusive a usada pelos vendedores.
+ * Cada invalidate() muda a geração: o que foi lido do banco antes dele
+ * é devolvido ao chamador, mas não entra no cache.
+ */
+public class DepartmentCache {
+	
+	private static final DepartmentCache INSTANCE = new DepartmentCache(
+			TimeUnit.SECONDS.toNanos(DB.getIntProperty("cache.department.ttlSeconds", 300)),
+			DB.getIntProperty("cache.department.maxSize", 1000));
+	
+	private final long ttlNanos;
+	private final int maxSize;
+	
+	private final Map<Integer, Entry> entries = new ConcurrentHashMap<>();
+	
+	// Lista completa (ordenada por nome, como o findAll do DAO); null quando precisa recarregar
+	private volatile List<Department> all;
+	private volatile long allLoadedAt;
+	
+	// Alterada (sob o lock do cache) a cada invalidate()
+	private volatile long generation;
+	
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	
+	DepartmentCache(long ttlNanos, int maxSize) {
+		this.ttlNanos = ttlNanos;
+		this.maxSize = maxSize;
+	}
+	
+	static {
+		MetricsRegistry registry = MetricsRegistry.getInstance();
+		registry.gauge("cache.department.hits", INSTANCE::getHits);
+		registry.gauge("cache.department.misses", INSTANCE::getMisses);
+		registry.gauge("cache.department.hitRate", INSTANCE::getHitRate);
+		registry.gauge("cache.department.size", INSTANCE::size);
+	}
+	
+	public static DepartmentCache getInstance() {
+		return INSTANCE;
+	}
+	
+	public List<Department> findAll(Supplier<List<Department>> loader) {
+		List<Department> list = all;
+		if (list != null && !expired(allLoadedAt)) {
+			hits.incrementAndGet();
+			return new ArrayList<>(list);
+		}
+		misses.incrementAndGet();
+		
+		long gen = generation;
+		List<Department> loaded = new ArrayList<>();
+		for (Department dep : loader.get()) {
+			loaded.add(canonical(dep, gen));
+		}
+		synchronized (this) {
+			if (gen == generation) {
+				allLoadedAt = System.nanoTime();
+				all = Collections.unmodifiableList(loaded);
+			}
+		}
+		return new ArrayList<>(loaded);
+	}
+	
+	public Department findById(Integer id, Function<Integer, Department> loader) {
+		Entry entry = entries.get(id);
+		// As instâncias criadas a partir do join com seller não têm a versão; essas são relidas
+		if (entry != null && !expired(entry.loadedAt) && entry.department.getVersion() != null) {
+			hits.incrementAndGet();
+			return entry.department;
+		}
+		misses.incrementAndGet();
+		
+		long gen = generation;
+		Department dep = loader.apply(id);
+		return dep == null ? null : canonical(dep, gen);
+	}
+	
+	// Ler antes de executar a consulta cujas linhas vão para canonical(id, name, generation)
+	public long generation() {
+		return generation;
+	}
+	
+	/*
+	 * Instância única para o Id. Se o nome lido do banco for diferente do que
+	 * está no cache, o departamento mudou e a instância é substituída.
+	 */
+	public Department canonical(Integer id, String name, long generation) {
+		Entry entry = entries.get(id);
+		if (entry != null && !expired(entry.loadedAt) && Objects.equals(entry.department.getName(), name)) {
+			return entry.department;
+		}
+		return store(new Department(id, name), generation);
+	}
+	
+	// Lido do banco com todas as colunas: também troca a instância quando a versão mudou
+	private Department canonical(Department dep, long generation) {
+		Entry entry = entries.get(dep.getId());
+		if (entry != null && !expired(entry.loadedAt) && Objects.equals(entry.department.getName(), dep.getName())
+				&& Objects.equals(entry.department.getVersion(), dep.getVersion())) {
+			return entry.department;
+		}
+		return store(dep, generation);
+	}
+	
+	// Lido antes de um invalidate(): devolve sem guardar
+	private Department store(Department dep, long generation) {
+		synchronized (this) {
+			if (generation != this.generation) {
+				return dep;
+			}
+			entries.put(dep.getId(), new Entry(dep));
+		}
+		if (entries.size() > maxSize) {
+			evictOldest();
+		}
+		return dep;
+	}
+	
+	// Chamado após qualquer gravação de departamento
+	public synchronized void invalidate() {
+		generation++;
+		all = null;
+		entries.clear();
+	}
+	
+	public long getHits() {
+		return hits.get();
+	}
+	
+	public long getMisses() {
+		return misses.get();
+	}
+	
+	public double getHitRate() {
+		long h = hits.get();
+		long total = h + misses.get();
+		return total == 0 ? 0.0 : (double) h / total;
+	}
+	
+	public int size() {
+		return entries.size();
+	}
+	
+	private boolean expired(long loadedAt) {
+		return System.nanoTime() - loadedAt > ttlNanos;
+	}
+	
+	private void evictOldest() {
+		List<Map.Entry<Integer, Entry>> list = new ArrayList<>(entries.entrySet());
+		list.sort(Comparator.comparingLong(e -> e.getValue().loadedAt));
+		for (int i = 0; i < list.size() - maxSize; i++) {
+			entries.remove(list.get(i).getKey(), list.get(i).getValue());
+		}
+		all = null;
+	}
+	
+	private static class Entry {
+		
+		private final Department department;
+		private final long loadedAt = System.nanoTime();
+		
+		Entry(Department department) {
+			this.department = department;
+		}
+	}
+}
@@ -1,6 +1,8 @@
 package model.dao;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 import model.entities.Department;
 
@@ -11,4 +13,12 @@ public interface DepartmentDao {
 	void deleteById(Integer Id);
 	Department findById(Integer Id);
 	List<Department> findAll();
+	
+	// Leitura em streaming, na ordem do findAll; o Stream deve ser fechado por quem o consome
+	Stream<Department> streamAll();
+	
+	// Operações em lote (JDBC batch, em blocos transacionais)
+	BatchResult<Department> insertAll(Collection<Department> list);
+	BatchResult<Department> updateAll(Collection<Department> list);
+	BatchResult<Integer> deleteByIds(Collection<Integer> ids);
 }
@@ -0,0 +1,20 @@
+package model.dao;
+
+import java.util.List;
+
+import model.entities.BirthYearBucket;
+import model.entities.DepartmentSummary;
+import model.entities.SalaryBand;
+
+// Consultas agregadas (GROUP BY) executadas no banco
+public interface ReportDao {
+	
+	// Um item por departamento, inclusive os sem vendedores; ordenado por nome
+	List<DepartmentSummary> findDepartmentSummaries();
+	
+	// Faixas de largura bandWidth que têm ao menos um vendedor, em ordem crescente
+	List<SalaryBand> findSalaryBands(double bandWidth);
+	
+	// Vendedores por departamento e por intervalo de yearsPerBucket anos de nascimento
+	List<BirthYearBucket> findBirthYearBuckets(int yearsPerBucket);
+}
@@ -0,0 +1,155 @@
+package model.dao;
+
+import java.util.Date;
+import java.util.Objects;
+
+import model.entities.Department;
+
+/*
+ * Filtros e ordenação de uma consulta de vendedores, convertidos pelo DAO
+ * em SQL parametrizado. Campos null não filtram. Os prefixos comparam
+ * como o LIKE do banco (no MySQL, sem diferenciar maiúsculas).
+ * A ordenação sempre desempata pelo Id, o que permite paginação por chave.
+ */
+public class SellerCriteria {
+	
+	public enum SortField { ID, NAME, EMAIL, BIRTH_DATE, BASE_SALARY, DEPARTMENT }
+	
+	private String namePrefix;
+	private String emailPrefix;
+	private Double minBaseSalary;
+	private Double maxBaseSalary;
+	private Date birthDateFrom;
+	private Date birthDateTo;
+	private Department department;
+	private SortField sortField = SortField.NAME;
+	private boolean ascending = true;
+	
+	public SellerCriteria() {
+	}
+	
+	public SellerCriteria(SellerCriteria other) {
+		this.namePrefix = other.namePrefix;
+		this.emailPrefix = other.emailPrefix;
+		this.minBaseSalary = other.minBaseSalary;
+		this.maxBaseSalary = other.maxBaseSalary;
+		this.birthDateFrom = other.birthDateFrom;
+		this.birthDateTo = other.birthDateTo;
+		this.department = other.department;
+		this.sortField = other.sortField;
+		this.ascending = other.ascending;
+	}
+
+	public String getNamePrefix() {
+		return namePrefix;
+	}
+
+	public void setNamePrefix(String namePrefix) {
+		this.namePrefix = blankToNull(namePrefix);
+	}
+
+	public String getEmailPrefix() {
+		return emailPrefix;
+	}
+
+	public void setEmailPrefix(String emailPrefix) {
+		this.emailPrefix = blankToNull(emailPrefix);
+	}
+
+	public Double getMinBaseSalary() {
+		return minBaseSalary;
+	}
+
+	public void setMinBaseSalary(Double minBaseSalary) {
+		this.minBaseSalary = minBaseSalary;
+	}
+
+	public Double getMaxBaseSalary() {
+		return maxBaseSalary;
+	}
+
+	public void setMaxBaseSalary(Double maxBaseSalary) {
+		this.maxBaseSalary = maxBaseSalary;
+	}
+
+	public Date getBirthDateFrom() {
+		return birthDateFrom;
+	}
+
+	public void setBirthDateFrom(Date birthDateFrom) {
+		this.birthDateFrom = birthDateFrom;
+	}
+
+	public Date getBirthDateTo() {
+		return birthDateTo;
+	}
+
+	public void setBirthDateTo(Date birthDateTo) {
+		this.birthDateTo = birthDateTo;
+	}
+
+	public Department getDepartment() {
+		return department;
+	}
+
+	public void setDepartment(Department department) {
+		this.department = department;
+	}
+
+	public SortField getSortField() {
+		return sortField;
+	}
+
+	public void setSortField(SortField sortField) {
+		this.sortField = sortField != null ? sortField : SortField.NAME;
+	}
+
+	public boolean isAscending() {
+		return ascending;
+	}
+
+	public void setAscending(boolean ascending) {
+		this.ascending = ascending;
+	}
+	
+	// false quando nenhum filtro está ativo (só a ordenação)
+	public boolean hasFilters() {
+		return namePrefix != null || emailPrefix != null || minBaseSalary != null || maxBaseSalary != null
+				|| birthDateFrom != null || birthDateTo != null || department != null;
+	}
+	
+	private static String blankToNull(String str) {
+		return str == null || str.trim().isEmpty() ? null : str.trim();
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(namePrefix, emailPrefix, minBaseSalary, maxBaseSalary, birthDateFrom, birthDateTo,
+				department, sortField, ascending);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		SellerCriteria other = (SellerCriteria) obj;
+		return Objects.equals(namePrefix, other.namePrefix) && Objects.equals(emailPrefix, other.emailPrefix)
+				&& Objects.equals(minBaseSalary, other.minBaseSalary)
+				&& Objects.equals(maxBaseSalary, other.maxBaseSalary)
+				&& Objects.equals(birthDateFrom, other.birthDateFrom) && Objects.equals(birthDateTo, other.birthDateTo)
+				&& Objects.equals(department, other.department) && sortField == other.sortField
+				&& ascending == other.ascending;
+	}
+
+	@Override
+	public String toString() {
+		return "SellerCriteria [namePrefix=" + namePrefix + ", emailPrefix=" + emailPrefix + ", minBaseSalary="
+				+ minBaseSalary + ", maxBaseSalary=" + maxBaseSalary + ", birthDateFrom=" + birthDateFrom
+				+ ", birthDateTo=" + birthDateTo + ", department=" + department + ", sortField=" + sortField
+				+ ", ascending=" + ascending + "]";
+	}
+}
@@ -1,6 +1,8 @@
 package model.dao;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 import model.entities.Department;
 import model.entities.Seller;
@@ -13,5 +15,28 @@ public interface SellerDao {
 	Seller findById(Integer Id);
 	List<Seller> findAll();
 	List<Seller> findByDepartment(Department department);
+	
+	// Paginação por chave (Name, Id): a página seguinte ao último vendedor recebido (null = primeira página)
+	List<Seller> findPage(Seller last, int pageSize);
+	
+	// Mesma ordem do findPage, mas por posição (para saltos sem a página anterior em memória)
+	List<Seller> findRange(int offset, int limit);
+	int count();
+	
+	// Mesmas consultas com filtros e ordenação (a paginação por chave segue a ordenação pedida)
+	List<Seller> findPage(SellerCriteria criteria, Seller last, int pageSize);
+	List<Seller> findRange(SellerCriteria criteria, int offset, int limit);
+	int count(SellerCriteria criteria);
+	
+	// Leitura em streaming de todos os vendedores; o Stream deve ser fechado por quem o consome
+	Stream<Seller> streamAll();
+	
+	// Streaming com os filtros e a ordenação da criteria (exportação da lista como está na tela)
+	Stream<Seller> stream(SellerCriteria criteria);
+	
+	// Operações em lote (JDBC batch, em blocos transacionais)
+	BatchResult<Seller> insertAll(Collection<Seller> list);
+	BatchResult<Seller> updateAll(Collection<Seller> list);
+	BatchResult<Integer> deleteByIds(Collection<Integer> ids);
 
 }
@@ -0,0 +1,156 @@
+package model.dao.impl;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import model.dao.BatchResult;
+import model.dao.SellerCriteria;
+import model.dao.SellerDao;
+import model.entities.Department;
+import model.entities.Seller;
+
+/*
+ * Cache de segundo nível na frente de outro SellerDao.
+ * findById é atendido pelo cache quando possível; as listagens alimentam o
+ * cache e as gravações removem os vendedores afetados.
+ * O streamAll não alimenta o cache para não expulsar as entradas úteis.
+ * A geração do cache é lida antes de cada consulta: se uma gravação removeu
+ * algo do cache nesse meio tempo, o resultado não é guardado.
+ */
+public class CachingSellerDao implements SellerDao {
+	
+	private final SellerDao dao;
+	private final LruCache<Integer, Seller> cache;
+	
+	public CachingSellerDao(SellerDao dao, LruCache<Integer, Seller> cache) {
+		this.dao = dao;
+		this.cache = cache;
+	}
+
+	@Override
+	public void insert(Seller obj) {
+		dao.insert(obj);
+		cache.remove(obj.getId());
+	}
+
+	@Override
+	public void update(Seller obj) {
+		try {
+			dao.update(obj);
+		}
+		finally {
+			cache.remove(obj.getId());
+		}
+	}
+
+	@Override
+	public void deleteById(Integer Id) {
+		try {
+			dao.deleteById(Id);
+		}
+		finally {
+			cache.remove(Id);
+		}
+	}
+
+	@Override
+	public Seller findById(Integer Id) {
+		Seller obj = cache.get(Id);
+		if (obj == null) {
+			long generation = cache.generation();
+			obj = dao.findById(Id);
+			if (obj != null) {
+				cache.put(Id, obj, generation);
+			}
+		}
+		return obj;
+	}
+
+	@Override
+	public List<Seller> findAll() {
+		return populate(cache.generation(), dao.findAll());
+	}
+
+	@Override
+	public List<Seller> findByDepartment(Department department) {
+		return populate(cache.generation(), dao.findByDepartment(department));
+	}
+
+	@Override
+	public List<Seller> findPage(Seller last, int pageSize) {
+		return populate(cache.generation(), dao.findPage(last, pageSize));
+	}
+
+	@Override
+	public List<Seller> findRange(int offset, int limit) {
+		return populate(cache.generation(), dao.findRange(offset, limit));
+	}
+
+	@Override
+	public int count() {
+		return dao.count();
+	}
+
+	@Override
+	public List<Seller> findPage(SellerCriteria criteria, Seller last, int pageSize) {
+		return populate(cache.generation(), dao.findPage(criteria, last, pageSize));
+	}
+
+	@Override
+	public List<Seller> findRange(SellerCriteria criteria, int offset, int limit) {
+		return populate(cache.generation(), dao.findRange(criteria, offset, limit));
+	}
+
+	@Override
+	public int count(SellerCriteria criteria) {
+		return dao.count(criteria);
+	}
+
+	@Override
+	public Stream<Seller> streamAll() {
+		return dao.streamAll();
+	}
+	
+	@Override
+	public Stream<Seller> stream(SellerCriteria criteria) {
+		return dao.stream(criteria);
+	}
+
+	@Override
+	public BatchResult<Seller> insertAll(Collection<Seller> list) {
+		return dao.insertAll(list);
+	}
+
+	@Override
+	public BatchResult<Seller> updateAll(Collection<Seller> list) {
+		try {
+			return dao.updateAll(list);
+		}
+		finally {
+			for (Seller obj : list) {
+				cache.remove(obj.getId());
+			}
+		}
+	}
+
+	@Override
+	public BatchResult<Integer> deleteByIds(Collection<Integer> ids) {
+		try {
+			return dao.deleteByIds(ids);
+		}
+		finally {
+			for (Integer id : ids) {
+				cache.remove(id);
+			}
+		}
+	}
+	
+	// Chamado como populate(cache.generation(), dao...): os argumentos são avaliados nessa ordem
+	private List<Seller> populate(long generation, List<Seller> list) {
+		for (Seller obj : list) {
+			cache.put(obj.getId(), obj, generation);
+		}
+		return list;
+	}
+}
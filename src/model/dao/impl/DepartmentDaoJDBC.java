@@ -6,36 +6,50 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 import db.DB;
+import db.DbConcurrencyException;
 import db.DbException;
 import db.DbIntegrityException;
+import db.TransactionManager;
+import model.dao.BatchResult;
 import model.dao.DepartmentDao;
 import model.entities.Department;
 
 public class DepartmentDaoJDBC implements DepartmentDao {
 
-	private Connection conn;
-
-	public DepartmentDaoJDBC(Connection conn) {
-		this.conn = conn;
+	private static final String INSERT_SQL = "INSERT INTO department " +
+			"(Name) " +
+			"VALUES " +
+			"(?)";
+	
+	// Só grava se a versão ainda é a que foi lida (controle de concorrência otimista)
+	private static final String UPDATE_SQL = "UPDATE department " +
+			"SET Name = ?, Version = Version + 1 " +
+			"WHERE Id = ? AND Version = ?";
+	
+	private static final String DELETE_SQL = "DELETE FROM department WHERE Id = ?";
+
+	// Cada operação empresta uma conexão do pool e a devolve no finally
+	public DepartmentDaoJDBC() {
 	}
 
 	@Override
 	public Department findById(Integer id) {
+		Connection conn = null;
 		PreparedStatement st = null;
 		ResultSet rs = null;
 		try {
+			conn = DB.getConnection();
 			st = conn.prepareStatement(
-				"SELECT * FROM department WHERE Id = ?");
+				"SELECT " + DepartmentRowMapper.COLUMNS + " FROM department WHERE Id = ?");
 			st.setInt(1, id);
 			rs = st.executeQuery();
 			if (rs.next()) {
-				Department obj = new Department();
-				obj.setId(rs.getInt("Id"));
-				obj.setName(rs.getString("Name"));
-				return obj;
+				return new DepartmentRowMapper(rs).mapRow(rs);
 			}
 			return null;
 		}
@@ -45,25 +59,26 @@ public class DepartmentDaoJDBC implements DepartmentDao {
 		finally {
 			DB.closeStatement(st);
 			DB.closeResultSet(rs);
+			DB.closeConnection(conn);
 		}
 	}
 
 	@Override
 	public List<Department> findAll() {
+		Connection conn = null;
 		PreparedStatement st = null;
 		ResultSet rs = null;
 		try {
+			conn = DB.getConnection();
 			st = conn.prepareStatement(
-				"SELECT * FROM department ORDER BY Name");
+				"SELECT " + DepartmentRowMapper.COLUMNS + " FROM department ORDER BY Name");
 			rs = st.executeQuery();
 
 			List<Department> list = new ArrayList<>();
+			RowMapper<Department> mapper = new DepartmentRowMapper(rs);
 
 			while (rs.next()) {
-				Department obj = new Department();
-				obj.setId(rs.getInt("Id"));
-				obj.setName(rs.getString("Name"));
-				list.add(obj);
+				list.add(mapper.mapRow(rs));
 			}
 			return list;
 		}
@@ -73,19 +88,23 @@ public class DepartmentDaoJDBC implements DepartmentDao {
 		finally {
 			DB.closeStatement(st);
 			DB.closeResultSet(rs);
+			DB.closeConnection(conn);
 		}
 	}
 
+	@Override
+	public Stream<Department> streamAll() {
+		return ResultSetStream.of("SELECT " + DepartmentRowMapper.COLUMNS + " FROM department ORDER BY Name", 
+				null, DepartmentRowMapper::new);
+	}
+
 	@Override
 	public void insert(Department obj) {
+		Connection conn = null;
 		PreparedStatement st = null;
 		try {
-			st = conn.prepareStatement(
-				"INSERT INTO department " +
-				"(Name) " +
-				"VALUES " +
-				"(?)", 
-				Statement.RETURN_GENERATED_KEYS);
+			conn = DB.getConnection();
+			st = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS);
 
 			st.setString(1, obj.getName());
 
@@ -95,8 +114,13 @@ public class DepartmentDaoJDBC implements DepartmentDao {
 				ResultSet rs = st.getGeneratedKeys();
 				if (rs.next()) {
 					int id = rs.getInt(1);
-					obj.setId(id);
+					// Dentro de uma transação, só depois do commit
+					TransactionManager.afterCommit(() -> {
+						obj.setId(id);
+						obj.setVersion(0);
+					});
 				}
+				DB.closeResultSet(rs);
 			}
 			else {
 				throw new DbException("Unexpected error! No rows affected!");
@@ -107,37 +131,43 @@ public class DepartmentDaoJDBC implements DepartmentDao {
 		} 
 		finally {
 			DB.closeStatement(st);
+			DB.closeConnection(conn);
 		}
 	}
 
 	@Override
 	public void update(Department obj) {
+		Connection conn = null;
 		PreparedStatement st = null;
 		try {
-			st = conn.prepareStatement(
-				"UPDATE department " +
-				"SET Name = ? " +
-				"WHERE Id = ?");
+			conn = DB.getConnection();
+			st = conn.prepareStatement(UPDATE_SQL);
 
 			st.setString(1, obj.getName());
 			st.setInt(2, obj.getId());
+			st.setObject(3, obj.getVersion());
 
-			st.executeUpdate();
+			if (st.executeUpdate() == 0) {
+				throw new DbConcurrencyException(DbConcurrencyException.MESSAGE + ": department " + obj.getId());
+			}
+			TransactionManager.afterCommit(() -> obj.setVersion(obj.getVersion() + 1));
 		}
 		catch (SQLException e) {
 			throw new DbException(e.getMessage());
 		} 
 		finally {
 			DB.closeStatement(st);
+			DB.closeConnection(conn);
 		}
 	}
 
 	@Override
 	public void deleteById(Integer id) {
+		Connection conn = null;
 		PreparedStatement st = null;
 		try {
-			st = conn.prepareStatement(
-				"DELETE FROM department WHERE Id = ?");
+			conn = DB.getConnection();
+			st = conn.prepareStatement(DELETE_SQL);
 
 			st.setInt(1, id);
 
@@ -148,6 +178,33 @@ public class DepartmentDaoJDBC implements DepartmentDao {
 		} 
 		finally {
 			DB.closeStatement(st);
+			DB.closeConnection(conn);
 		}
 	}
+
+	@Override
+	public BatchResult<Department> insertAll(Collection<Department> list) {
+		return new JdbcBatch<Department>(INSERT_SQL, (st, obj) -> st.setString(1, obj.getName()))
+				.withGeneratedKeys((obj, id) -> {
+					obj.setId(id);
+					obj.setVersion(0);
+				})
+				.execute(list);
+	}
+
+	@Override
+	public BatchResult<Department> updateAll(Collection<Department> list) {
+		return new JdbcBatch<Department>(UPDATE_SQL, (st, obj) -> {
+			st.setString(1, obj.getName());
+			st.setInt(2, obj.getId());
+			st.setObject(3, obj.getVersion());
+		}).withNoRowsMessage(DbConcurrencyException.MESSAGE)
+				.onSuccess(obj -> obj.setVersion(obj.getVersion() + 1))
+				.execute(list);
+	}
+
+	@Override
+	public BatchResult<Integer> deleteByIds(Collection<Integer> ids) {
+		return new JdbcBatch<Integer>(DELETE_SQL, (st, id) -> st.setInt(1, id)).execute(ids);
+	}
 }
\ No newline at end of file
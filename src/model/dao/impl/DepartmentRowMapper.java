@@ -0,0 +1,31 @@
+package model.dao.impl;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+
+import model.entities.Department;
+
+class DepartmentRowMapper implements RowMapper<Department> {
+	
+	// Colunas lidas pelo mapper, para usar no SELECT no lugar de "*"
+	static final String COLUMNS = "department.Id, department.Name, department.Version";
+	
+	private final int id;
+	private final int name;
+	private final int version;
+	
+	DepartmentRowMapper(ResultSet rs) throws SQLException {
+		ResultSetMetaData md = rs.getMetaData();
+		id = RowMapper.columnIndex(md, "Id");
+		name = RowMapper.columnIndex(md, "Name");
+		version = RowMapper.columnIndex(md, "Version");
+	}
+	
+	@Override
+	public Department mapRow(ResultSet rs) throws SQLException {
+		Department obj = new Department(rs.getInt(id), rs.getString(name));
+		obj.setVersion(rs.getInt(version));
+		return obj;
+	}
+}
@@ -0,0 +1,272 @@
+package model.dao.impl;
+
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+import db.DB;
+import db.DbException;
+import db.TransactionManager;
+import model.dao.BatchResult;
+
+/*
+ * Executa um mesmo SQL para uma coleção de itens usando JDBC batch.
+ * Os itens são enviados em blocos (batch.chunkSize no db.properties) e
+ * cada bloco é uma transação: se uma linha falha, o bloco inteiro é desfeito
+ * e todas as suas linhas aparecem no BatchResult.
+ * Dentro de TransactionManager.execute() cada bloco vira um savepoint da
+ * transação em andamento, e o commit fica para o final dela (as chaves
+ * geradas e o onSuccess só chegam às entidades depois desse commit).
+ */
+class JdbcBatch<T> {
+	
+	// Preenche os parâmetros do statement para um item
+	interface Binder<T> {
+		void bind(PreparedStatement st, T item) throws SQLException;
+	}
+	
+	// Recebe a chave gerada de um item inserido
+	interface KeyHandler<T> {
+		void accept(T item, int key);
+	}
+	
+	private final String sql;
+	private final Binder<T> binder;
+	private KeyHandler<T> keyHandler;
+	private Consumer<T> successHandler;
+	private String noRowsMessage = "No rows affected";
+	private int chunkSize = DB.getIntProperty("batch.chunkSize", 500);
+	
+	JdbcBatch(String sql, Binder<T> binder) {
+		this.sql = sql;
+		this.binder = binder;
+	}
+	
+	JdbcBatch<T> withGeneratedKeys(KeyHandler<T> keyHandler) {
+		this.keyHandler = keyHandler;
+		return this;
+	}
+	
+	// Chamado para cada item gravado, depois que o bloco (ou a transação de fora) foi confirmado
+	JdbcBatch<T> onSuccess(Consumer<T> successHandler) {
+		this.successHandler = successHandler;
+		return this;
+	}
+	
+	// Motivo registrado para as linhas que o SQL não alterou (ex.: versão diferente no UPDATE)
+	JdbcBatch<T> withNoRowsMessage(String noRowsMessage) {
+		this.noRowsMessage = noRowsMessage;
+		return this;
+	}
+	
+	JdbcBatch<T> withChunkSize(int chunkSize) {
+		if (chunkSize < 1) {
+			throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+		}
+		this.chunkSize = chunkSize;
+		return this;
+	}
+	
+	BatchResult<T> execute(Collection<T> items) {
+		BatchResult<T> result = new BatchResult<>();
+		if (items.isEmpty()) {
+			return result;
+		}
+		
+		Connection conn = null;
+		Boolean autoCommit = null;
+		boolean joined = TransactionManager.isActive();
+		RuntimeException failure = null;
+		try {
+			conn = DB.getConnection();
+			if (!joined) {
+				autoCommit = conn.getAutoCommit();
+				conn.setAutoCommit(false);
+			}
+			
+			List<T> chunk = new ArrayList<>(Math.min(chunkSize, items.size()));
+			int firstIndex = 0;
+			for (T item : items) {
+				chunk.add(item);
+				if (chunk.size() == chunkSize) {
+					executeChunk(conn, joined, chunk, firstIndex, result);
+					firstIndex += chunk.size();
+					chunk.clear();
+				}
+			}
+			if (!chunk.isEmpty()) {
+				executeChunk(conn, joined, chunk, firstIndex, result);
+			}
+			return result;
+		}
+		catch (SQLException e) {
+			failure = new DbException(e.getMessage());
+			throw failure;
+		}
+		catch (RuntimeException e) {
+			failure = e;
+			throw e;
+		}
+		finally {
+			restoreAutoCommit(conn, autoCommit, failure);
+			DB.closeConnection(conn);
+		}
+	}
+	
+	private void executeChunk(Connection conn, boolean joined, List<T> chunk, int firstIndex, 
+			BatchResult<T> result) throws SQLException {
+		PreparedStatement st = null;
+		Savepoint savepoint = joined ? conn.setSavepoint() : null;
+		try {
+			st = keyHandler != null 
+					? conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS) 
+					: conn.prepareStatement(sql);
+			for (T item : chunk) {
+				binder.bind(st, item);
+				st.addBatch();
+			}
+			int[] counts = st.executeBatch();
+			
+			// Lê as chaves antes do commit, mas só as grava nas entidades se o bloco for confirmado
+			int[] keys = keyHandler != null ? readKeys(st, chunk.size()) : null;
+			if (savepoint == null) {
+				conn.commit();
+			}
+			else {
+				conn.releaseSavepoint(savepoint);
+			}
+			
+			List<T> written = new ArrayList<>(chunk.size());
+			int[] writtenKeys = keys != null ? new int[chunk.size()] : null;
+			for (int i = 0; i < chunk.size(); i++) {
+				if (i < counts.length && counts[i] == 0) {
+					result.addFailure(chunk.get(i), firstIndex + i, noRowsMessage);
+					continue;
+				}
+				if (keys != null) {
+					writtenKeys[written.size()] = keys[i];
+				}
+				written.add(chunk.get(i));
+				result.addSucceeded(1);
+			}
+			// Numa transação maior as linhas ainda podem ser desfeitas: ids e versões só vão para as entidades no commit dela
+			if (keys != null || successHandler != null) {
+				TransactionManager.afterCommit(() -> applyHandlers(written, writtenKeys));
+			}
+		}
+		catch (BatchUpdateException e) {
+			rollback(conn, savepoint);
+			reportFailedChunk(chunk, firstIndex, e.getUpdateCounts(), e.getMessage(), result);
+		}
+		catch (SQLException e) {
+			rollback(conn, savepoint);
+			reportFailedChunk(chunk, firstIndex, null, e.getMessage(), result);
+		}
+		catch (RuntimeException e) {
+			// Ex.: NullPointerException no binder: o lote montado até aqui não pode ficar no statement
+			discardChunk(conn, st, savepoint, e);
+			throw e;
+		}
+		finally {
+			DB.closeStatement(st);
+		}
+	}
+	
+	private void applyHandlers(List<T> written, int[] keys) {
+		for (int i = 0; i < written.size(); i++) {
+			if (keys != null) {
+				keyHandler.accept(written.get(i), keys[i]);
+			}
+			if (successHandler != null) {
+				successHandler.accept(written.get(i));
+			}
+		}
+	}
+	
+	// Desfaz o bloco e limpa o lote; falhas aqui ficam como suprimidas da exceção original
+	private static void discardChunk(Connection conn, PreparedStatement st, Savepoint savepoint, RuntimeException cause) {
+		if (st != null) {
+			try {
+				st.clearBatch();
+			}
+			catch (SQLException e) {
+				cause.addSuppressed(e);
+			}
+		}
+		try {
+			rollback(conn, savepoint);
+		}
+		catch (SQLException e) {
+			cause.addSuppressed(e);
+		}
+	}
+	
+	private static void rollback(Connection conn, Savepoint savepoint) throws SQLException {
+		if (savepoint == null) {
+			conn.rollback();
+		}
+		else {
+			conn.rollback(savepoint);
+			conn.releaseSavepoint(savepoint);
+		}
+	}
+	
+	private int[] readKeys(PreparedStatement st, int count) throws SQLException {
+		int[] keys = new int[count];
+		ResultSet rs = null;
+		try {
+			rs = st.getGeneratedKeys();
+			for (int i = 0; i < count && rs.next(); i++) {
+				keys[i] = rs.getInt(1);
+			}
+			return keys;
+		}
+		finally {
+			DB.closeResultSet(rs);
+		}
+	}
+	
+	/*
+	 * Marca a linha que causou o erro com a mensagem do banco; as demais
+	 * linhas do bloco foram desfeitas junto com ela.
+	 * Alguns drivers param na primeira falha (updateCounts menor que o bloco),
+	 * outros continuam e marcam a linha com EXECUTE_FAILED.
+	 */
+	private void reportFailedChunk(List<T> chunk, int firstIndex, int[] counts, String message,
+			BatchResult<T> result) {
+		boolean[] culprits = new boolean[chunk.size()];
+		boolean found = false;
+		for (int i = 0; counts != null && i < chunk.size(); i++) {
+			culprits[i] = (i < counts.length && counts[i] == Statement.EXECUTE_FAILED) || i == counts.length;
+			found |= culprits[i];
+		}
+		for (int i = 0; i < chunk.size(); i++) {
+			// Sem como identificar a linha, todas recebem a mensagem do banco
+			String reason = culprits[i] || !found ? message : BatchResult.ROLLED_BACK;
+			result.addFailure(chunk.get(i), firstIndex + i, reason);
+		}
+	}
+	
+	// Se a operação já falhou, um erro aqui não pode esconder o original
+	private static void restoreAutoCommit(Connection conn, Boolean autoCommit, RuntimeException failure) {
+		if (conn != null && autoCommit != null) {
+			try {
+				conn.setAutoCommit(autoCommit);
+			}
+			catch (SQLException e) {
+				if (failure == null) {
+					throw new DbException(e.getMessage());
+				}
+				failure.addSuppressed(e);
+			}
+		}
+	}
+}
@@ -0,0 +1,135 @@
+package model.dao.impl;
+
+import java.lang.ref.SoftReference;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Mapa LRU limitado e seguro para várias threads. Os valores ficam em
+ * SoftReference, então o GC pode liberá-los se faltar memória; uma entrada
+ * liberada conta como miss e como remoção.
+ * As entradas também expiram depois de maxAge, e um valor lido do banco
+ * antes de um remove()/clear() não é guardado (put com a geração).
+ */
+public class LruCache<K, V> {
+	
+	private final int maxEntries;
+	private final long maxAgeNanos;
+	private final Map<K, Ref<V>> map;
+	
+	// Alterada (sob o lock do map) a cada remove() ou clear()
+	private long generation;
+	
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong evictions = new AtomicLong();
+	
+	public LruCache(int maxEntries) {
+		this(maxEntries, 0, TimeUnit.SECONDS);
+	}
+	
+	// maxAge 0: as entradas só saem por LRU, remoção ou GC
+	public LruCache(int maxEntries, long maxAge, TimeUnit unit) {
+		this.maxEntries = maxEntries;
+		this.maxAgeNanos = maxAge > 0 ? unit.toNanos(maxAge) : Long.MAX_VALUE;
+		this.map = new LinkedHashMap<K, Ref<V>>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<K, Ref<V>> eldest) {
+				if (size() > LruCache.this.maxEntries) {
+					evictions.incrementAndGet();
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+	
+	public V get(K key) {
+		V value = null;
+		synchronized (map) {
+			Ref<V> entry = map.get(key);
+			if (entry != null) {
+				value = System.nanoTime() - entry.storedAt > maxAgeNanos ? null : entry.get();
+				if (value == null) {
+					map.remove(key);
+					evictions.incrementAndGet();
+				}
+			}
+		}
+		(value != null ? hits : misses).incrementAndGet();
+		return value;
+	}
+	
+	public void put(K key, V value) {
+		synchronized (map) {
+			map.put(key, new Ref<>(value));
+		}
+	}
+	
+	// Ler antes de consultar o banco; o valor lido vai para put(key, value, generation)
+	public long generation() {
+		synchronized (map) {
+			return generation;
+		}
+	}
+	
+	// Guarda só se nada foi removido do cache desde generation()
+	public void put(K key, V value, long generation) {
+		synchronized (map) {
+			if (generation == this.generation) {
+				map.put(key, new Ref<>(value));
+			}
+		}
+	}
+	
+	public void remove(K key) {
+		synchronized (map) {
+			generation++;
+			map.remove(key);
+		}
+	}
+	
+	public void clear() {
+		synchronized (map) {
+			generation++;
+			map.clear();
+		}
+	}
+	
+	public int size() {
+		synchronized (map) {
+			return map.size();
+		}
+	}
+	
+	public long getHits() {
+		return hits.get();
+	}
+	
+	public long getMisses() {
+		return misses.get();
+	}
+	
+	public long getEvictions() {
+		return evictions.get();
+	}
+	
+	public double getHitRatio() {
+		long h = hits.get();
+		long total = h + misses.get();
+		return total == 0 ? 0.0 : (double) h / total;
+	}
+	
+	private static class Ref<V> extends SoftReference<V> {
+		
+		private final long storedAt = System.nanoTime();
+		
+		Ref(V value) {
+			super(value);
+		}
+	}
+}
@@ -0,0 +1,136 @@
+package model.dao.impl;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import db.DB;
+import db.DbException;
+import model.dao.DepartmentCache;
+import model.dao.ReportDao;
+import model.entities.BirthYearBucket;
+import model.entities.DepartmentSummary;
+import model.entities.SalaryBand;
+
+// Os agregados são calculados no banco; só o resultado (poucas linhas) vem para a aplicação
+public class ReportDaoJDBC implements ReportDao {
+	
+	private static final String SUMMARY_SQL = "SELECT department.Id, department.Name, COUNT(seller.Id), "
+			+ "COALESCE(SUM(seller.BaseSalary), 0), COALESCE(AVG(seller.BaseSalary), 0), "
+			+ "COALESCE(MIN(seller.BaseSalary), 0), COALESCE(MAX(seller.BaseSalary), 0) "
+			+ "FROM department LEFT JOIN seller ON seller.DepartmentId = department.Id "
+			+ "GROUP BY department.Id, department.Name "
+			+ "ORDER BY department.Name";
+	
+	// Agrupa pelo alias: o MySQL não reconhece duas expressões com parâmetros como iguais
+	private static final String SALARY_BAND_SQL = "SELECT FLOOR(BaseSalary / ?) AS Band, COUNT(*), AVG(BaseSalary) "
+			+ "FROM seller "
+			+ "GROUP BY Band "
+			+ "ORDER BY Band";
+	
+	private static final String BIRTH_YEAR_SQL = "SELECT department.Id, department.Name, "
+			+ "FLOOR(YEAR(seller.BirthDate) / ?) AS Bucket, COUNT(*) "
+			+ "FROM seller INNER JOIN department ON seller.DepartmentId = department.Id "
+			+ "GROUP BY department.Id, department.Name, Bucket "
+			+ "ORDER BY department.Name, Bucket";
+	
+	public ReportDaoJDBC() {
+	}
+
+	@Override
+	public List<DepartmentSummary> findDepartmentSummaries() {
+		Connection conn = null;
+		PreparedStatement st = null;
+		ResultSet rs = null;
+		try {
+			conn = DB.getConnection();
+			st = conn.prepareStatement(SUMMARY_SQL);
+			DepartmentCache departments = DepartmentCache.getInstance();
+			long generation = departments.generation();
+			rs = st.executeQuery();
+			
+			List<DepartmentSummary> list = new ArrayList<>();
+			while (rs.next()) {
+				list.add(new DepartmentSummary(departments.canonical(rs.getInt(1), rs.getString(2), generation), 
+						rs.getInt(3), rs.getDouble(4), rs.getDouble(5), rs.getDouble(6), rs.getDouble(7)));
+			}
+			return list;
+		}
+		catch (SQLException e) {
+			throw new DbException(e.getMessage());
+		}
+		finally {
+			DB.closeStatement(st);
+			DB.closeResultSet(rs);
+			DB.closeConnection(conn);
+		}
+	}
+
+	@Override
+	public List<SalaryBand> findSalaryBands(double bandWidth) {
+		if (bandWidth <= 0) {
+			throw new IllegalArgumentException("Band width must be positive: " + bandWidth);
+		}
+		Connection conn = null;
+		PreparedStatement st = null;
+		ResultSet rs = null;
+		try {
+			conn = DB.getConnection();
+			st = conn.prepareStatement(SALARY_BAND_SQL);
+			st.setDouble(1, bandWidth);
+			rs = st.executeQuery();
+			
+			List<SalaryBand> list = new ArrayList<>();
+			while (rs.next()) {
+				double lower = rs.getLong(1) * bandWidth;
+				list.add(new SalaryBand(lower, lower + bandWidth, rs.getInt(2), rs.getDouble(3)));
+			}
+			return list;
+		}
+		catch (SQLException e) {
+			throw new DbException(e.getMessage());
+		}
+		finally {
+			DB.closeStatement(st);
+			DB.closeResultSet(rs);
+			DB.closeConnection(conn);
+		}
+	}
+
+	@Override
+	public List<BirthYearBucket> findBirthYearBuckets(int yearsPerBucket) {
+		if (yearsPerBucket <= 0) {
+			throw new IllegalArgumentException("Years per bucket must be positive: " + yearsPerBucket);
+		}
+		Connection conn = null;
+		PreparedStatement st = null;
+		ResultSet rs = null;
+		try {
+			conn = DB.getConnection();
+			st = conn.prepareStatement(BIRTH_YEAR_SQL);
+			st.setInt(1, yearsPerBucket);
+			DepartmentCache departments = DepartmentCache.getInstance();
+			long generation = departments.generation();
+			rs = st.executeQuery();
+			
+			List<BirthYearBucket> list = new ArrayList<>();
+			while (rs.next()) {
+				int fromYear = rs.getInt(3) * yearsPerBucket;
+				list.add(new BirthYearBucket(departments.canonical(rs.getInt(1), rs.getString(2), generation), 
+						fromYear, fromYear + yearsPerBucket - 1, rs.getInt(4)));
+			}
+			return list;
+		}
+		catch (SQLException e) {
+			throw new DbException(e.getMessage());
+		}
+		finally {
+			DB.closeStatement(st);
+			DB.closeResultSet(rs);
+			DB.closeConnection(conn);
+		}
+	}
+}
@@ -0,0 +1,80 @@
+package model.dao.impl;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import db.DB;
+import db.DbException;
+
+/*
+ * Transforma um ResultSet forward-only em Stream, lendo uma linha por vez.
+ * A conexão, o statement e o ResultSet só são liberados no close() do Stream,
+ * por isso quem consome deve usar try-with-resources.
+ */
+class ResultSetStream {
+	
+	interface ParameterBinder {
+		void bind(PreparedStatement st) throws SQLException;
+	}
+	
+	static <T> Stream<T> of(String sql, ParameterBinder binder, RowMapper.Factory<T> mapperFactory) {
+		Connection conn = null;
+		PreparedStatement st = null;
+		ResultSet rs = null;
+		RowMapper<T> mapper;
+		try {
+			conn = DB.getConnection();
+			// Fora do cache de statements: o fetch size de streaming não deve vazar para outras consultas
+			st = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+			st.setFetchSize(DB.getStreamFetchSize());
+			if (binder != null) {
+				binder.bind(st);
+			}
+			rs = st.executeQuery();
+			mapper = mapperFactory.create(rs);
+		}
+		catch (SQLException | RuntimeException e) {
+			close(conn, st, rs);
+			throw e instanceof DbException ? (DbException) e : new DbException(e.getMessage());
+		}
+		
+		final Connection fConn = conn;
+		final PreparedStatement fSt = st;
+		final ResultSet fRs = rs;
+		
+		Spliterator<T> spliterator = new Spliterators.AbstractSpliterator<T>(Long.MAX_VALUE, 
+				Spliterator.ORDERED | Spliterator.NONNULL) {
+			@Override
+			public boolean tryAdvance(Consumer<? super T> action) {
+				try {
+					if (!fRs.next()) {
+						return false;
+					}
+					action.accept(mapper.mapRow(fRs));
+					return true;
+				}
+				catch (SQLException e) {
+					throw new DbException(e.getMessage());
+				}
+			}
+		};
+		return StreamSupport.stream(spliterator, false).onClose(() -> close(fConn, fSt, fRs));
+	}
+	
+	private static void close(Connection conn, PreparedStatement st, ResultSet rs) {
+		try {
+			DB.closeResultSet(rs);
+			DB.closeStatement(st);
+		}
+		finally {
+			DB.closeConnection(conn);
+		}
+	}
+}
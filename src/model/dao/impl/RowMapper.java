@@ -0,0 +1,31 @@
+package model.dao.impl;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+
+/*
+ * Converte a linha atual de um ResultSet em objeto. As implementações
+ * resolvem as posições das colunas uma vez, a partir do ResultSetMetaData,
+ * e leem cada linha por índice em vez de procurar a coluna pelo nome.
+ * Um mapper vale para um único ResultSet.
+ */
+interface RowMapper<T> {
+	
+	T mapRow(ResultSet rs) throws SQLException;
+	
+	// Cria o mapper para um ResultSet já executado
+	interface Factory<T> {
+		RowMapper<T> create(ResultSet rs) throws SQLException;
+	}
+	
+	// Posição (1..n) da coluna com o rótulo informado
+	static int columnIndex(ResultSetMetaData md, String label) throws SQLException {
+		for (int i = 1; i <= md.getColumnCount(); i++) {
+			if (label.equalsIgnoreCase(md.getColumnLabel(i))) {
+				return i;
+			}
+		}
+		throw new SQLException("Column not found in result set: " + label);
+	}
+}
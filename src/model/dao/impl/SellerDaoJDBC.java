@@ -6,12 +6,17 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collection;
 import java.util.List;
-import java.util.Map;
+import java.util.stream.Stream;
 
 import db.DB;
+import db.DbConcurrencyException;
 import db.DbException;
+import db.TransactionManager;
+import model.dao.BatchResult;
+import model.dao.DepartmentCache;
+import model.dao.SellerCriteria;
 import model.dao.SellerDao;
 import model.entities.Department;
 import model.entities.Seller;
@@ -19,10 +24,27 @@ import model.entities.Seller;
 // Reponsável por implementar o DAO de Seller
 public class SellerDaoJDBC implements SellerDao {
 
-	private Connection conn;
+	private static final String INSERT_SQL = "INSERT INTO seller "
+			+"(Name, Email, BirthDate, BaseSalary, DepartmentId) "
+			+"VALUES (?, ?, ?, ?, ?)";
 	
-	public SellerDaoJDBC(Connection conn) {
-		this.conn = conn;
+	// Só grava se a versão ainda é a que foi lida (controle de concorrência otimista)
+	private static final String UPDATE_SQL = "UPDATE seller "
+			+"SET Name = ?, Email = ?, BirthDate = ?, BaseSalary = ?, DepartmentId = ?, Version = Version + 1 "
+			+"WHERE Id = ? AND Version = ? ";
+	
+	private static final String DELETE_SQL = "DELETE FROM seller WHERE Id = ?";
+	
+	// Colunas explícitas, lidas por índice pelo SellerRowMapper
+	private static final String SELECT_SQL = "SELECT " + SellerRowMapper.COLUMNS + " "
+			+ "FROM seller INNER JOIN department "
+			+ "ON seller.DepartmentId = department.Id ";
+	
+	// Ordem estável para a paginação por chave: (Name, Id), coberta pelo índice idx_seller_name
+	private static final String KEYSET_ORDER = "ORDER BY seller.Name, seller.Id ";
+	
+	// Cada operação empresta uma conexão do pool e a devolve no finally
+	public SellerDaoJDBC() {
 	}
 	
 	/**
@@ -30,19 +52,13 @@ public class SellerDaoJDBC implements SellerDao {
 	 */
 	@Override
 	public void insert(Seller obj) {
+		Connection conn = null;
 		PreparedStatement st = null;
 		try {
-			st = conn.prepareStatement(
-					"INSERT INTO seller "
-					+"(Name, Email, BirthDate, BaseSalary, DepartmentId) "
-					+"VALUES (?, ?, ?, ?, ?)", 
-					Statement.RETURN_GENERATED_KEYS); // Para retornar o ID 
+			conn = DB.getConnection();
+			st = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS); // Para retornar o ID 
 			
-			st.setString(1, obj.getName());
-			st.setString(2, obj.getEmail());
-			st.setDate(3, new java.sql.Date(obj.getBirthDate().getTime()));
-			st.setDouble(4, obj.getBaseSalary());
-			st.setInt(5, obj.getDepartment().getId());
+			bindSeller(st, obj);
 			
 			int rowsAffects = st.executeUpdate();
 			
@@ -50,7 +66,11 @@ public class SellerDaoJDBC implements SellerDao {
 				ResultSet rs = st.getGeneratedKeys();
 				if (rs.next()) {
 					int Id = rs.getInt(1);
-					obj.setId(Id);
+					// Dentro de uma transação, só depois do commit
+					TransactionManager.afterCommit(() -> {
+						obj.setId(Id);
+						obj.setVersion(0);
+					});
 				}
 				DB.closeResultSet(rs);
 			}
@@ -63,42 +83,45 @@ public class SellerDaoJDBC implements SellerDao {
 		}
 		finally {
 			DB.closeStatement(st);
+			DB.closeConnection(conn);
 		}
 		
 	}
 
 	@Override
 	public void update(Seller obj) {
+		Connection conn = null;
 		PreparedStatement st = null;
 		try {
-			st = conn.prepareStatement(
-					"UPDATE seller "
-					+"SET Name = ?, Email = ?, BirthDate = ?, BaseSalary = ?, DepartmentId = ? "
-					+"WHERE Id = ? ");  
+			conn = DB.getConnection();
+			st = conn.prepareStatement(UPDATE_SQL);  
 			
-			st.setString(1, obj.getName());
-			st.setString(2, obj.getEmail());
-			st.setDate(3, new java.sql.Date(obj.getBirthDate().getTime()));
-			st.setDouble(4, obj.getBaseSalary());
-			st.setInt(5, obj.getDepartment().getId());
+			bindSeller(st, obj);
 			st.setInt(6, obj.getId());
+			st.setObject(7, obj.getVersion());
 			
-			st.executeUpdate();
+			if (st.executeUpdate() == 0) {
+				throw new DbConcurrencyException(DbConcurrencyException.MESSAGE + ": seller " + obj.getId());
+			}
+			TransactionManager.afterCommit(() -> obj.setVersion(obj.getVersion() + 1));
 		}
 		catch (SQLException e) {
 			throw new DbException(e.getMessage());
 		}
 		finally {
 			DB.closeStatement(st);
+			DB.closeConnection(conn);
 		}
 		
 	}
 
 	@Override
 	public void deleteById(Integer Id) {
+		Connection conn = null;
 		PreparedStatement st = null;
 		try {
-			st = conn.prepareStatement("DELETE FROM seller WHERE Id = ?");
+			conn = DB.getConnection();
+			st = conn.prepareStatement(DELETE_SQL);
 			
 			st.setInt(1, Id);
 			st.executeUpdate();
@@ -108,34 +131,62 @@ public class SellerDaoJDBC implements SellerDao {
 		}
 		finally {
 			DB.closeStatement(st);
+			DB.closeConnection(conn);
 		}
 	}
 
+	// Parâmetros comuns ao INSERT e ao UPDATE
+	private static void bindSeller(PreparedStatement st, Seller obj) throws SQLException {
+		st.setString(1, obj.getName());
+		st.setString(2, obj.getEmail());
+		st.setDate(3, new java.sql.Date(obj.getBirthDate().getTime()));
+		st.setDouble(4, obj.getBaseSalary());
+		st.setInt(5, obj.getDepartment().getId());
+	}
+
+	@Override
+	public BatchResult<Seller> insertAll(Collection<Seller> list) {
+		return new JdbcBatch<Seller>(INSERT_SQL, SellerDaoJDBC::bindSeller)
+				.withGeneratedKeys((obj, id) -> {
+					obj.setId(id);
+					obj.setVersion(0);
+				})
+				.execute(list);
+	}
+
+	@Override
+	public BatchResult<Seller> updateAll(Collection<Seller> list) {
+		return new JdbcBatch<Seller>(UPDATE_SQL, (st, obj) -> {
+			bindSeller(st, obj);
+			st.setInt(6, obj.getId());
+			st.setObject(7, obj.getVersion());
+		}).withNoRowsMessage(DbConcurrencyException.MESSAGE)
+				.onSuccess(obj -> obj.setVersion(obj.getVersion() + 1))
+				.execute(list);
+	}
+
+	@Override
+	public BatchResult<Integer> deleteByIds(Collection<Integer> ids) {
+		return new JdbcBatch<Integer>(DELETE_SQL, (st, id) -> st.setInt(1, id)).execute(ids);
+	}
+
 	@Override
 	public Seller findById(Integer Id) {
+		Connection conn = null;
 		PreparedStatement st = null;
 		ResultSet rs = null;
 		
 		try {
-			st = conn.prepareStatement(
-					"SELECT seller.*,department.Name as DepName "
-					+ "FROM seller INNER JOIN department "
-					+ "ON seller.DepartmentId = department.Id "
-					+ "WHERE seller.Id = ?");
+			conn = DB.getConnection();
+			st = conn.prepareStatement(SELECT_SQL + "WHERE seller.Id = ?");
 			
 			st.setInt(1, Id);
+			long generation = DepartmentCache.getInstance().generation();
 			rs = st.executeQuery();
 			
-			/* 
-			 * Instanciar os objetos associados em Memória
-			 * */
-			
 			// Testar se veio algum resultado
 			if (rs.next()) {
-				Department dep = instantiateDepartment(rs);
-				
-				Seller obj = instantiateSeller(rs, dep);
-				return obj;
+				return new SellerRowMapper(rs, generation).mapRow(rs);
 			}
 			return null; //Que o vendedor é nulo, não existe nenhum vendedor com o Id selecionado
 		}
@@ -145,64 +196,23 @@ public class SellerDaoJDBC implements SellerDao {
 		finally {
 			DB.closeStatement(st);
 			DB.closeResultSet(rs);
+			DB.closeConnection(conn);
 		}
 	}
 
-	private Seller instantiateSeller(ResultSet rs, Department dep) throws SQLException {
-		Seller obj = new Seller();
-		obj.setId(rs.getInt("Id"));
-		obj.setName(rs.getString("Name"));
-		obj.setEmail(rs.getString("Email"));
-		obj.setBaseSalary(rs.getDouble("BaseSalary"));
-		obj.setBirthDate(new java.util.Date(rs.getTimestamp("BirthDate").getTime()));
-		
-		//Associando com o objeto Department
-		obj.setDepartment(dep);
-		return obj;
-	}
-
-	//Propagado a exceção 
-	private Department instantiateDepartment(ResultSet rs) throws SQLException {
-		Department dep = new Department();
-		//Setados os campos de Departamento
-		dep.setId(rs.getInt("DepartmentId"));
-		dep.setName(rs.getString("DepName"));
-		return dep;
-	}
-
 	@Override
 	public List<Seller> findAll() {
+		Connection conn = null;
 		PreparedStatement st = null;
 		ResultSet rs = null;
 		
 		try {
-			st = conn.prepareStatement(
-					"SELECT seller.*,department.Name as DepName "
-					+ "FROM seller INNER JOIN department "
-					+ "ON seller.DepartmentId = department.Id "
-					+ "ORDER BY Name");
+			conn = DB.getConnection();
+			st = conn.prepareStatement(SELECT_SQL + KEYSET_ORDER);
 			
+			long generation = DepartmentCache.getInstance().generation();
 			rs = st.executeQuery();
-			
-			// Pois irá retornar uma lista de resultado e a chamada do método é uma Lista
-			List<Seller> list = new ArrayList<>();
-			Map<Integer, Department> map = new HashMap<>();
-			
-						
-			// Testar se veio algum resultado, pois podem retornar mais de 1 resultado
-			while (rs.next()) {
-				
-				// Busca no map se já tem um departmaneto, para só incluir o que não existir
-				Department dep = map.get(rs.getInt("DepartmentId"));
-				
-				if (dep == null) {
-					dep = instantiateDepartment(rs);
-					map.put(rs.getInt("DepartmentId"),dep);
-				}
-				Seller obj = instantiateSeller(rs, dep);
-				list.add(obj);
-			}
-			return list;
+			return readList(rs, 16, generation);
 		}
 		catch (SQLException e) {
 			throw new DbException(e.getMessage());
@@ -210,44 +220,70 @@ public class SellerDaoJDBC implements SellerDao {
 		finally {
 			DB.closeStatement(st);
 			DB.closeResultSet(rs);
+			DB.closeConnection(conn);
 		}
 	}
 
 	@Override
 	public List<Seller> findByDepartment(Department department) {
+		Connection conn = null;
 		PreparedStatement st = null;
 		ResultSet rs = null;
 		
 		try {
-			st = conn.prepareStatement(
-					"SELECT seller.*,department.Name as DepName "
-					+ "FROM seller INNER JOIN department "
-					+ "ON seller.DepartmentId = department.Id "
-					+ "WHERE DepartmentId = ? "
-					+ "ORDER BY Name");
+			conn = DB.getConnection();
+			st = conn.prepareStatement(SELECT_SQL
+					+ "WHERE seller.DepartmentId = ? "
+					+ KEYSET_ORDER); // atendido pelo índice (DepartmentId, Name, Id)
 			
 			st.setInt(1, department.getId());
+			long generation = DepartmentCache.getInstance().generation();
 			rs = st.executeQuery();
+			return readList(rs, 16, generation);
+		}
+		catch (SQLException e) {
+			throw new DbException(e.getMessage());
+		}
+		finally {
+			DB.closeStatement(st);
+			DB.closeResultSet(rs);
+			DB.closeConnection(conn);
+		}
+	}
+
+	// A ordem padrão (Name, Id) é a mesma do streamAll e do KEYSET_ORDER
+	@Override
+	public List<Seller> findPage(Seller last, int pageSize) {
+		return findPage(new SellerCriteria(), last, pageSize);
+	}
+
+	@Override
+	public List<Seller> findRange(int offset, int limit) {
+		return findRange(new SellerCriteria(), offset, limit);
+	}
+
+	@Override
+	public int count() {
+		return count(new SellerCriteria());
+	}
+
+	@Override
+	public List<Seller> findPage(SellerCriteria criteria, Seller last, int pageSize) {
+		Connection conn = null;
+		PreparedStatement st = null;
+		ResultSet rs = null;
+		
+		try {
+			conn = DB.getConnection();
 			
-			// Pois irá retornar uma lista de resultado e a chamada do método é uma Lista
-			List<Seller> list = new ArrayList<>();
-			Map<Integer, Department> map = new HashMap<>();
-			
-						
-			// Testar se veio algum resultado, pois podem retornar mais de 1 resultado
-			while (rs.next()) {
-				
-				// Busca no map se já tem um departmaneto, para só incluir o que não existir
-				Department dep = map.get(rs.getInt("DepartmentId"));
-				
-				if (dep == null) {
-					dep = instantiateDepartment(rs);
-					map.put(rs.getInt("DepartmentId"),dep);
-				}
-				Seller obj = instantiateSeller(rs, dep);
-				list.add(obj);
-			}
-			return list;
+			// Sem último vendedor é a primeira página; senão continua a partir da chave dele na ordenação
+			SellerQuery query = new SellerQuery(criteria);
+			st = conn.prepareStatement(query.pageSql(SELECT_SQL, last));
+			int index = query.bind(st, last);
+			st.setInt(index, pageSize);
+			long generation = DepartmentCache.getInstance().generation();
+			rs = st.executeQuery();
+			return readList(rs, pageSize, generation);
 		}
 		catch (SQLException e) {
 			throw new DbException(e.getMessage());
@@ -255,7 +291,86 @@ public class SellerDaoJDBC implements SellerDao {
 		finally {
 			DB.closeStatement(st);
 			DB.closeResultSet(rs);
+			DB.closeConnection(conn);
+		}
+	}
+
+	@Override
+	public List<Seller> findRange(SellerCriteria criteria, int offset, int limit) {
+		Connection conn = null;
+		PreparedStatement st = null;
+		ResultSet rs = null;
+		
+		try {
+			conn = DB.getConnection();
+			SellerQuery query = new SellerQuery(criteria);
+			st = conn.prepareStatement(query.rangeSql(SELECT_SQL));
+			int index = query.bind(st, null);
+			st.setInt(index, limit);
+			st.setInt(index + 1, offset);
+			long generation = DepartmentCache.getInstance().generation();
+			rs = st.executeQuery();
+			return readList(rs, limit, generation);
+		}
+		catch (SQLException e) {
+			throw new DbException(e.getMessage());
+		}
+		finally {
+			DB.closeStatement(st);
+			DB.closeResultSet(rs);
+			DB.closeConnection(conn);
+		}
+	}
+
+	@Override
+	public int count(SellerCriteria criteria) {
+		Connection conn = null;
+		PreparedStatement st = null;
+		ResultSet rs = null;
+		
+		try {
+			conn = DB.getConnection();
+			SellerQuery query = new SellerQuery(criteria);
+			st = conn.prepareStatement(query.countSql());
+			query.bind(st, null);
+			rs = st.executeQuery();
+			return rs.next() ? rs.getInt(1) : 0;
+		}
+		catch (SQLException e) {
+			throw new DbException(e.getMessage());
+		}
+		finally {
+			DB.closeStatement(st);
+			DB.closeResultSet(rs);
+			DB.closeConnection(conn);
+		}
+	}
+
+	@Override
+	public Stream<Seller> streamAll() {
+		long generation = DepartmentCache.getInstance().generation();
+		return ResultSetStream.of(SELECT_SQL + KEYSET_ORDER, null, rs -> new SellerRowMapper(rs, generation));
+	}
+	
+	@Override
+	public Stream<Seller> stream(SellerCriteria criteria) {
+		SellerQuery query = new SellerQuery(criteria);
+		long generation = DepartmentCache.getInstance().generation();
+		return ResultSetStream.of(query.streamSql(SELECT_SQL), st -> query.bind(st, null), 
+				rs -> new SellerRowMapper(rs, generation));
+	}
+
+	/*
+	 * Posições das colunas resolvidas uma vez por ResultSet. generation é a do
+	 * DepartmentCache, lida antes de executar a consulta.
+	 */
+	private List<Seller> readList(ResultSet rs, int expectedSize, long generation) throws SQLException {
+		List<Seller> list = new ArrayList<>(expectedSize);
+		RowMapper<Seller> mapper = new SellerRowMapper(rs, generation);
+		while (rs.next()) {
+			list.add(mapper.mapRow(rs));
 		}
+		return list;
 	}
 
 }
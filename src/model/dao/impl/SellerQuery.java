@@ -0,0 +1,162 @@
+package model.dao.impl;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import model.dao.SellerCriteria;
+import model.entities.Seller;
+
+/*
+ * Monta o WHERE e o ORDER BY de uma SellerCriteria, sempre com parâmetros
+ * (nada do usuário é concatenado no SQL). O mesmo formato de critério gera
+ * o mesmo texto de SQL, então o statement é reaproveitado pelo cache do pool.
+ */
+class SellerQuery {
+	
+	private final SellerCriteria criteria;
+	private final String sortColumn;
+	private final StringBuilder where = new StringBuilder();
+	private final List<Object> parameters = new ArrayList<>();
+	
+	SellerQuery(SellerCriteria criteria) {
+		this.criteria = criteria;
+		this.sortColumn = sortColumn(criteria.getSortField());
+		
+		if (criteria.getNamePrefix() != null) {
+			condition("seller.Name LIKE ?", likePrefix(criteria.getNamePrefix()));
+		}
+		if (criteria.getEmailPrefix() != null) {
+			condition("seller.Email LIKE ?", likePrefix(criteria.getEmailPrefix()));
+		}
+		if (criteria.getMinBaseSalary() != null) {
+			condition("seller.BaseSalary >= ?", criteria.getMinBaseSalary());
+		}
+		if (criteria.getMaxBaseSalary() != null) {
+			condition("seller.BaseSalary <= ?", criteria.getMaxBaseSalary());
+		}
+		if (criteria.getBirthDateFrom() != null) {
+			condition("seller.BirthDate >= ?", sqlDate(criteria.getBirthDateFrom()));
+		}
+		if (criteria.getBirthDateTo() != null) {
+			condition("seller.BirthDate <= ?", sqlDate(criteria.getBirthDateTo()));
+		}
+		if (criteria.getDepartment() != null) {
+			condition("seller.DepartmentId = ?", criteria.getDepartment().getId());
+		}
+	}
+	
+	// Só a tabela seller: os filtros não dependem do department
+	String countSql() {
+		return "SELECT COUNT(*) FROM seller " + whereClause(null);
+	}
+	
+	// Página seguinte ao vendedor last (null = primeira página)
+	String pageSql(String selectSql, Seller last) {
+		return selectSql + whereClause(last) + orderBy() + "LIMIT ?";
+	}
+	
+	// Todas as linhas, sem LIMIT, para leitura em streaming
+	String streamSql(String selectSql) {
+		return selectSql + whereClause(null) + orderBy();
+	}
+	
+	String rangeSql(String selectSql) {
+		return selectSql + whereClause(null) + orderBy() + "LIMIT ? OFFSET ?";
+	}
+	
+	// Liga os filtros, a chave do last (se houver) e devolve o índice do próximo parâmetro
+	int bind(PreparedStatement st, Seller last) throws SQLException {
+		int index = 1;
+		for (Object value : parameters) {
+			st.setObject(index++, value);
+		}
+		if (last != null) {
+			if (criteria.getSortField() != SellerCriteria.SortField.ID) {
+				Object key = sortKey(last);
+				st.setObject(index++, key);
+				st.setObject(index++, key);
+			}
+			st.setInt(index++, last.getId());
+		}
+		return index;
+	}
+	
+	private void condition(String sql, Object value) {
+		where.append(where.length() == 0 ? "WHERE " : "AND ").append(sql).append(' ');
+		parameters.add(value);
+	}
+	
+	private String whereClause(Seller last) {
+		if (last == null) {
+			return where.toString();
+		}
+		String op = criteria.isAscending() ? ">" : "<";
+		String keyset = criteria.getSortField() == SellerCriteria.SortField.ID
+				? "seller.Id " + op + " ? "
+				: "(" + sortColumn + " " + op + " ? OR (" + sortColumn + " = ? AND seller.Id " + op + " ?)) ";
+		return where.length() == 0 ? "WHERE " + keyset : where + "AND " + keyset;
+	}
+	
+	private String orderBy() {
+		String direction = criteria.isAscending() ? "" : " DESC";
+		if (criteria.getSortField() == SellerCriteria.SortField.ID) {
+			return "ORDER BY seller.Id" + direction + " ";
+		}
+		return "ORDER BY " + sortColumn + direction + ", seller.Id" + direction + " ";
+	}
+	
+	private static String sortColumn(SellerCriteria.SortField field) {
+		switch (field) {
+		case ID:
+			return "seller.Id";
+		case EMAIL:
+			return "seller.Email";
+		case BIRTH_DATE:
+			return "seller.BirthDate";
+		case BASE_SALARY:
+			return "seller.BaseSalary";
+		case DEPARTMENT:
+			// department.Name aceita NULL, que quebraria a comparação da paginação por chave
+			return "COALESCE(department.Name, '')";
+		default:
+			return "seller.Name";
+		}
+	}
+	
+	// Valor da coluna de ordenação no vendedor, na mesma forma que o banco compara
+	private Object sortKey(Seller last) {
+		switch (criteria.getSortField()) {
+		case EMAIL:
+			return last.getEmail();
+		case BIRTH_DATE:
+			return sqlDate(last.getBirthDate());
+		case BASE_SALARY:
+			return last.getBaseSalary();
+		case DEPARTMENT:
+			String name = last.getDepartment() != null ? last.getDepartment().getName() : null;
+			return name != null ? name : "";
+		default:
+			return last.getName();
+		}
+	}
+	
+	// Escapa os curingas do LIKE digitados pelo usuário (o caractere de escape padrão é a barra invertida)
+	private static String likePrefix(String prefix) {
+		StringBuilder sb = new StringBuilder(prefix.length() + 1);
+		for (int i = 0; i < prefix.length(); i++) {
+			char c = prefix.charAt(i);
+			if (c == '%' || c == '_' || c == '\\') {
+				sb.append('\\');
+			}
+			sb.append(c);
+		}
+		return sb.append('%').toString();
+	}
+	
+	private static java.sql.Date sqlDate(Date date) {
+		return new java.sql.Date(date.getTime());
+	}
+}
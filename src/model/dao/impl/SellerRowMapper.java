@@ -0,0 +1,66 @@
+package model.dao.impl;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.Map;
+
+import model.dao.DepartmentCache;
+import model.entities.Department;
+import model.entities.Seller;
+
+/*
+ * Mapper do SELECT de vendedor com o nome do departamento (join).
+ * Os departamentos repetidos no mesmo ResultSet são resolvidos uma vez só
+ * e vêm do DepartmentCache.
+ */
+class SellerRowMapper implements RowMapper<Seller> {
+	
+	// Colunas lidas pelo mapper, para usar no SELECT no lugar de "seller.*"
+	static final String COLUMNS = "seller.Id, seller.Name, seller.Email, seller.BirthDate, "
+			+ "seller.BaseSalary, seller.DepartmentId, seller.Version, department.Name AS DepName";
+	
+	private final int id;
+	private final int name;
+	private final int email;
+	private final int birthDate;
+	private final int baseSalary;
+	private final int departmentId;
+	private final int version;
+	private final int depName;
+	
+	private final Map<Integer, Department> departments = new HashMap<>();
+	// Geração do DepartmentCache lida antes de a consulta ser executada
+	private final long cacheGeneration;
+	
+	SellerRowMapper(ResultSet rs, long cacheGeneration) throws SQLException {
+		this.cacheGeneration = cacheGeneration;
+		ResultSetMetaData md = rs.getMetaData();
+		id = RowMapper.columnIndex(md, "Id");
+		name = RowMapper.columnIndex(md, "Name");
+		email = RowMapper.columnIndex(md, "Email");
+		birthDate = RowMapper.columnIndex(md, "BirthDate");
+		baseSalary = RowMapper.columnIndex(md, "BaseSalary");
+		departmentId = RowMapper.columnIndex(md, "DepartmentId");
+		version = RowMapper.columnIndex(md, "Version");
+		depName = RowMapper.columnIndex(md, "DepName");
+	}
+	
+	@Override
+	public Seller mapRow(ResultSet rs) throws SQLException {
+		int depId = rs.getInt(departmentId);
+		Department dep = departments.get(depId);
+		if (dep == null) {
+			dep = DepartmentCache.getInstance().canonical(depId, rs.getString(depName), cacheGeneration);
+			departments.put(depId, dep);
+		}
+		
+		Timestamp birth = rs.getTimestamp(birthDate);
+		Seller obj = new Seller(rs.getInt(id), rs.getString(name), rs.getString(email), 
+				birth == null ? null : new java.util.Date(birth.getTime()), rs.getDouble(baseSalary), dep);
+		obj.setVersion(rs.getInt(version));
+		return obj;
+	}
+}
@@ -0,0 +1,67 @@
+package model.entities;
+
+import java.io.Serializable;
+
+// Vendedores de um departamento nascidos entre fromYear e toYear (inclusive)
+public class BirthYearBucket implements Serializable {
+	
+	private static final long serialVersionUID = 1L;
+	
+	private Department department;
+	private int fromYear;
+	private int toYear;
+	private int headcount;
+	
+	public BirthYearBucket() {
+	}
+
+	public BirthYearBucket(Department department, int fromYear, int toYear, int headcount) {
+		this.department = department;
+		this.fromYear = fromYear;
+		this.toYear = toYear;
+		this.headcount = headcount;
+	}
+
+	public Department getDepartment() {
+		return department;
+	}
+
+	public void setDepartment(Department department) {
+		this.department = department;
+	}
+	
+	// Para a coluna da tabela
+	public String getDepartmentName() {
+		return department != null ? department.getName() : null;
+	}
+
+	public int getFromYear() {
+		return fromYear;
+	}
+
+	public void setFromYear(int fromYear) {
+		this.fromYear = fromYear;
+	}
+
+	public int getToYear() {
+		return toYear;
+	}
+
+	public void setToYear(int toYear) {
+		this.toYear = toYear;
+	}
+
+	public int getHeadcount() {
+		return headcount;
+	}
+
+	public void setHeadcount(int headcount) {
+		this.headcount = headcount;
+	}
+
+	@Override
+	public String toString() {
+		return "BirthYearBucket [department=" + department + ", fromYear=" + fromYear + ", toYear=" + toYear
+				+ ", headcount=" + headcount + "]";
+	}
+}
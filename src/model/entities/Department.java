@@ -9,6 +9,9 @@ public class Department implements Serializable{
 	private Integer id;
 	private String name;
 	
+	// Versão da linha no banco, usada para detectar alterações concorrentes (null = ainda não gravado)
+	private Integer version;
+	
 	//Construtores
 	public Department() {
 	}
@@ -35,6 +38,14 @@ public class Department implements Serializable{
 		this.name = name;
 	}
 
+	public Integer getVersion() {
+		return version;
+	}
+
+	public void setVersion(Integer version) {
+		this.version = version;
+	}
+
 	//HashCode and Equals
 	@Override
 	public int hashCode() {
@@ -0,0 +1,89 @@
+package model.entities;
+
+import java.io.Serializable;
+
+// Totais de um departamento calculados no banco (relatório)
+public class DepartmentSummary implements Serializable {
+	
+	private static final long serialVersionUID = 1L;
+	
+	private Department department;
+	private int headcount;
+	private double totalSalary;
+	private double averageSalary;
+	private double minSalary;
+	private double maxSalary;
+	
+	public DepartmentSummary() {
+	}
+
+	public DepartmentSummary(Department department, int headcount, double totalSalary, double averageSalary,
+			double minSalary, double maxSalary) {
+		this.department = department;
+		this.headcount = headcount;
+		this.totalSalary = totalSalary;
+		this.averageSalary = averageSalary;
+		this.minSalary = minSalary;
+		this.maxSalary = maxSalary;
+	}
+
+	public Department getDepartment() {
+		return department;
+	}
+
+	public void setDepartment(Department department) {
+		this.department = department;
+	}
+	
+	// Para a coluna da tabela
+	public String getDepartmentName() {
+		return department != null ? department.getName() : null;
+	}
+
+	public int getHeadcount() {
+		return headcount;
+	}
+
+	public void setHeadcount(int headcount) {
+		this.headcount = headcount;
+	}
+
+	public double getTotalSalary() {
+		return totalSalary;
+	}
+
+	public void setTotalSalary(double totalSalary) {
+		this.totalSalary = totalSalary;
+	}
+
+	public double getAverageSalary() {
+		return averageSalary;
+	}
+
+	public void setAverageSalary(double averageSalary) {
+		this.averageSalary = averageSalary;
+	}
+
+	public double getMinSalary() {
+		return minSalary;
+	}
+
+	public void setMinSalary(double minSalary) {
+		this.minSalary = minSalary;
+	}
+
+	public double getMaxSalary() {
+		return maxSalary;
+	}
+
+	public void setMaxSalary(double maxSalary) {
+		this.maxSalary = maxSalary;
+	}
+
+	@Override
+	public String toString() {
+		return "DepartmentSummary [department=" + department + ", headcount=" + headcount + ", totalSalary="
+				+ totalSalary + ", averageSalary=" + averageSalary + ", minSalary=" + minSalary + ", maxSalary="
+				+ maxSalary + "]";
+	}
+}
@@ -0,0 +1,62 @@
+package model.entities;
+
+import java.io.Serializable;
+
+// Faixa salarial [lowerBound, upperBound) com a quantidade de vendedores nela
+public class SalaryBand implements Serializable {
+	
+	private static final long serialVersionUID = 1L;
+	
+	private double lowerBound;
+	private double upperBound;
+	private int headcount;
+	private double averageSalary;
+	
+	public SalaryBand() {
+	}
+
+	public SalaryBand(double lowerBound, double upperBound, int headcount, double averageSalary) {
+		this.lowerBound = lowerBound;
+		this.upperBound = upperBound;
+		this.headcount = headcount;
+		this.averageSalary = averageSalary;
+	}
+
+	public double getLowerBound() {
+		return lowerBound;
+	}
+
+	public void setLowerBound(double lowerBound) {
+		this.lowerBound = lowerBound;
+	}
+
+	public double getUpperBound() {
+		return upperBound;
+	}
+
+	public void setUpperBound(double upperBound) {
+		this.upperBound = upperBound;
+	}
+
+	public int getHeadcount() {
+		return headcount;
+	}
+
+	public void setHeadcount(int headcount) {
+		this.headcount = headcount;
+	}
+
+	public double getAverageSalary() {
+		return averageSalary;
+	}
+
+	public void setAverageSalary(double averageSalary) {
+		this.averageSalary = averageSalary;
+	}
+
+	@Override
+	public String toString() {
+		return "SalaryBand [lowerBound=" + lowerBound + ", upperBound=" + upperBound + ", headcount=" + headcount
+				+ ", averageSalary=" + averageSalary + "]";
+	}
+}
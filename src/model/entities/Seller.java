@@ -16,6 +16,9 @@ public class Seller implements Serializable{
 	//Criada a associação com o Departamento
 	private Department department;
 	
+	// Versão da linha no banco, usada para detectar alterações concorrentes (null = ainda não gravado)
+	private Integer version;
+	
 	//Construtores
 	public Seller() {
 	}
@@ -78,6 +81,14 @@ public class Seller implements Serializable{
 		this.department = department;
 	}
 
+	public Integer getVersion() {
+		return version;
+	}
+
+	public void setVersion(Integer version) {
+		this.version = version;
+	}
+
 	//HashCode and Equals
 	@Override
 	public int hashCode() {
@@ -14,6 +14,11 @@ public class ValidationException extends RuntimeException {
 		super(msg);
 	}
 	
+	public ValidationException(String msg, Map<String, String> errors) {
+		super(msg);
+		this.errors.putAll(errors);
+	}
+	
 	public Map<String, String> getErrors(){
 		return errors;
 	}
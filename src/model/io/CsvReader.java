@@ -0,0 +1,180 @@
+package model.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Leitor de CSV (RFC 4180) em streaming: lê um registro por vez, sem
+ * carregar o arquivo em memória. Aceita campos entre aspas com vírgulas,
+ * aspas duplicadas ("") e quebras de linha, e ignora o BOM do UTF-8.
+ * Aberto por open(Path), lê o arquivo por um FileChannel, o que permite
+ * acompanhar o progresso pela posição do canal.
+ */
+public class CsvReader implements Closeable {
+	
+	private static final int BUFFER_SIZE = 64 * 1024;
+	
+	private final Reader in;
+	private final FileChannel channel;
+	private final char separator;
+	
+	private final char[] buffer = new char[BUFFER_SIZE];
+	private int pos;
+	private int limit;
+	
+	// Linha atual do arquivo e a linha onde começou o último registro lido
+	private long line = 1;
+	private long recordLine;
+	private boolean first = true;
+	
+	private final StringBuilder field = new StringBuilder();
+	
+	public CsvReader(Reader in, char separator) {
+		this(in, null, separator);
+	}
+	
+	private CsvReader(Reader in, FileChannel channel, char separator) {
+		this.in = in;
+		this.channel = channel;
+		this.separator = separator;
+	}
+	
+	public static CsvReader open(Path path) throws IOException {
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+		try {
+			Reader reader = Channels.newReader(channel, StandardCharsets.UTF_8.newDecoder(), -1);
+			return new CsvReader(reader, channel, ',');
+		}
+		catch (RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+	
+	// Próximo registro, ou null no fim do arquivo. Linhas em branco são puladas
+	public List<String> readRecord() throws IOException {
+		int c = read();
+		while (c == '\r' || c == '\n') {
+			c = read();
+		}
+		if (c < 0) {
+			return null;
+		}
+		recordLine = line;
+		
+		List<String> record = new ArrayList<>();
+		field.setLength(0);
+		boolean quoted = false;
+		boolean afterQuote = false;
+		while (true) {
+			if (quoted) {
+				if (c < 0) {
+					throw new IOException("Unterminated quoted field starting at line " + recordLine);
+				}
+				if (c == '"') {
+					int next = read();
+					if (next == '"') {
+						field.append('"');
+					}
+					else {
+						quoted = false;
+						afterQuote = true;
+						c = next;
+						continue;
+					}
+				}
+				else {
+					field.append((char) c);
+				}
+			}
+			else if (c == separator) {
+				record.add(field.toString());
+				field.setLength(0);
+				afterQuote = false;
+			}
+			else if (c == '\n' || c == '\r' || c < 0) {
+				if (c == '\r') {
+					int next = read();
+					if (next != '\n') {
+						unread();
+					}
+				}
+				record.add(field.toString());
+				return record;
+			}
+			else if (c == '"' && field.length() == 0 && !afterQuote) {
+				quoted = true;
+			}
+			else {
+				field.append((char) c);
+			}
+			c = read();
+		}
+	}
+	
+	// Linha do arquivo (a partir de 1) em que começou o último registro lido
+	public long getRecordLine() {
+		return recordLine;
+	}
+	
+	// Bytes já lidos do arquivo e o tamanho total; -1 quando não foi aberto por open(Path)
+	public long getBytesRead() throws IOException {
+		return channel != null ? channel.position() : -1;
+	}
+	
+	public long getSize() throws IOException {
+		return channel != null ? channel.size() : -1;
+	}
+	
+	private int read() throws IOException {
+		if (pos == limit) {
+			limit = in.read(buffer, 0, buffer.length);
+			pos = 0;
+			if (limit <= 0) {
+				limit = 0;
+				return -1;
+			}
+			if (first) {
+				first = false;
+				if (buffer[0] == '\uFEFF') {
+					pos = 1;
+					return read();
+				}
+			}
+		}
+		char c = buffer[pos++];
+		if (c == '\n') {
+			line++;
+		}
+		else if (c == '\r' && (pos == limit || buffer[pos] != '\n')) {
+			line++;
+		}
+		return c;
+	}
+	
+	// Só é chamado logo depois de um read() que não chegou ao fim do arquivo
+	private void unread() {
+		if (limit > 0 && pos > 0) {
+			pos--;
+			if (buffer[pos] == '\n' || buffer[pos] == '\r') {
+				line--;
+			}
+		}
+	}
+	
+	@Override
+	public void close() throws IOException {
+		in.close();
+		if (channel != null) {
+			channel.close();
+		}
+	}
+}
@@ -0,0 +1,82 @@
+package model.io;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/*
+ * Gravação de CSV (RFC 4180): só coloca entre aspas os campos que têm
+ * vírgula, aspas ou quebra de linha. Valores null viram campo vazio.
+ */
+public class CsvWriter implements RecordWriter {
+	
+	private final Writer out;
+	private final char separator;
+	
+	public CsvWriter(Writer out, char separator) {
+		this.out = out;
+		this.separator = separator;
+	}
+	
+	public static CsvWriter open(Path path) throws IOException {
+		return new CsvWriter(Files.newBufferedWriter(path, StandardCharsets.UTF_8), ',');
+	}
+	
+	@Override
+	public void writeRecord(Object... fields) throws IOException {
+		for (int i = 0; i < fields.length; i++) {
+			if (i > 0) {
+				out.write(separator);
+			}
+			writeField(fields[i]);
+		}
+		out.write("\r\n");
+	}
+	
+	public void writeRecord(List<?> fields) throws IOException {
+		writeRecord(fields.toArray());
+	}
+	
+	private void writeField(Object value) throws IOException {
+		if (value == null) {
+			return;
+		}
+		String text = value.toString();
+		if (!needsQuotes(text)) {
+			out.write(text);
+			return;
+		}
+		out.write('"');
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (c == '"') {
+				out.write('"');
+			}
+			out.write(c);
+		}
+		out.write('"');
+	}
+	
+	private boolean needsQuotes(String text) {
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (c == separator || c == '"' || c == '\n' || c == '\r') {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	@Override
+	public void flush() throws IOException {
+		out.flush();
+	}
+	
+	@Override
+	public void close() throws IOException {
+		out.close();
+	}
+}
@@ -0,0 +1,70 @@
+package model.io;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+// Formatos de exportação; o formato e a compressão saem da extensão do arquivo
+public enum ExportFormat {
+	
+	CSV(".csv"), 
+	JSON_LINES(".jsonl");
+	
+	private static final int BUFFER_SIZE = 64 * 1024;
+	private static final String GZIP_EXTENSION = ".gz";
+	
+	private final String extension;
+	
+	private ExportFormat(String extension) {
+		this.extension = extension;
+	}
+	
+	public String getExtension() {
+		return extension;
+	}
+	
+	// "dados.jsonl.gz" -> JSON_LINES; qualquer outra extensão -> CSV
+	public static ExportFormat forFileName(String fileName) {
+		String name = stripGzip(fileName.toLowerCase(Locale.ROOT));
+		return name.endsWith(JSON_LINES.extension) || name.endsWith(".json") ? JSON_LINES : CSV;
+	}
+	
+	public static boolean isGzip(String fileName) {
+		return fileName.toLowerCase(Locale.ROOT).endsWith(GZIP_EXTENSION);
+	}
+	
+	/*
+	 * Abre o arquivo com um buffer de BUFFER_SIZE (e gzip, se pedido) e, no
+	 * CSV, já grava o cabeçalho. Fechar o RecordWriter fecha o arquivo.
+	 */
+	public RecordWriter open(Path path, boolean gzip, String... columns) throws IOException {
+		OutputStream out = Files.newOutputStream(path);
+		try {
+			if (gzip) {
+				out = new GZIPOutputStream(out, BUFFER_SIZE);
+			}
+			Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+			if (this == JSON_LINES) {
+				return new JsonLinesWriter(writer, columns);
+			}
+			CsvWriter csv = new CsvWriter(writer, ',');
+			csv.writeRecord((Object[]) columns);
+			return csv;
+		}
+		catch (IOException | RuntimeException e) {
+			out.close();
+			throw e;
+		}
+	}
+	
+	private static String stripGzip(String fileName) {
+		return isGzip(fileName) ? fileName.substring(0, fileName.length() - GZIP_EXTENSION.length()) : fileName;
+	}
+}
@@ -0,0 +1,95 @@
+package model.io;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/*
+ * JSON Lines: um objeto JSON por linha, com as chaves na ordem das colunas.
+ * Números e booleanos são gravados sem aspas; null vira null; o resto é
+ * gravado como string escapada.
+ */
+public class JsonLinesWriter implements RecordWriter {
+	
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+	
+	private final Writer out;
+	
+	// Chaves já escapadas e com aspas, montadas uma vez só
+	private final String[] keys;
+	
+	public JsonLinesWriter(Writer out, String... columns) throws IOException {
+		this.out = out;
+		this.keys = new String[columns.length];
+		for (int i = 0; i < columns.length; i++) {
+			StringBuilder sb = new StringBuilder();
+			appendString(sb, columns[i]);
+			keys[i] = sb.append(':').toString();
+		}
+	}
+	
+	@Override
+	public void writeRecord(Object... values) throws IOException {
+		StringBuilder sb = new StringBuilder(128);
+		sb.append('{');
+		for (int i = 0; i < keys.length; i++) {
+			if (i > 0) {
+				sb.append(',');
+			}
+			sb.append(keys[i]);
+			Object value = i < values.length ? values[i] : null;
+			if (value == null) {
+				sb.append("null");
+			}
+			else if (value instanceof Number || value instanceof Boolean) {
+				sb.append(value);
+			}
+			else {
+				appendString(sb, value.toString());
+			}
+		}
+		sb.append("}\n");
+		out.write(sb.toString());
+	}
+	
+	private static void appendString(StringBuilder sb, String text) {
+		sb.append('"');
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			switch (c) {
+			case '"':
+				sb.append("\\\"");
+				break;
+			case '\\':
+				sb.append("\\\\");
+				break;
+			case '\n':
+				sb.append("\\n");
+				break;
+			case '\r':
+				sb.append("\\r");
+				break;
+			case '\t':
+				sb.append("\\t");
+				break;
+			default:
+				if (c < 0x20) {
+					sb.append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xF]);
+				}
+				else {
+					sb.append(c);
+				}
+			}
+		}
+		sb.append('"');
+	}
+	
+	@Override
+	public void flush() throws IOException {
+		out.flush();
+	}
+	
+	@Override
+	public void close() throws IOException {
+		out.close();
+	}
+}
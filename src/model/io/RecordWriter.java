@@ -0,0 +1,11 @@
+package model.io;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+
+// Grava um registro por vez, na ordem das colunas definidas ao abrir o arquivo
+public interface RecordWriter extends Closeable, Flushable {
+	
+	void writeRecord(Object... values) throws IOException;
+}
@@ -0,0 +1,21 @@
+package model.services;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Contador incrementado pelos serviços a cada gravação de vendedor ou
+ * departamento (depois do commit). Quem guarda dados derivados do banco
+ * (ex.: relatórios) compara a versão para saber se eles ainda valem.
+ */
+public class DataVersion {
+	
+	private static final AtomicLong version = new AtomicLong();
+	
+	public static long current() {
+		return version.get();
+	}
+	
+	public static void increment() {
+		version.incrementAndGet();
+	}
+}
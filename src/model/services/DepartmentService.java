@@ -1,8 +1,12 @@
 package model.services;
 
+import java.sql.Connection;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
+import db.TransactionManager;
 import model.dao.DaoFactory;
+import model.dao.DepartmentCache;
 import model.dao.DepartmentDao;
 import model.entities.Department;
 
@@ -11,21 +15,79 @@ public class DepartmentService {
 	//Criada a Dependencia com o DaoFactory
 	private DepartmentDao dao = DaoFactory.createDepartmentDao();
 	
+	private DepartmentCache cache = DepartmentCache.getInstance();
+	
+	// Lido do cache; o banco só é consultado quando o cache expira ou é invalidado
 	public List<Department> findAll(){
-		return dao.findAll();
+		return cache.findAll(dao::findAll);
+	}
+	
+	public Department findById(Integer id) {
+		return cache.findById(id, dao::findById);
 	}
 	
-	//Insere ou atualiza
+	//Insere ou atualiza; o cache é invalidado também em conflito de versão, para o reload ler o banco
 	public void saveOrUpdate(Department obj) {
-		if (obj.getId() == null) { //Insere
-			dao.insert(obj);
+		try {
+			if (obj.getId() == null) { //Insere
+				dao.insert(obj);
+			}
+			else {
+				dao.update(obj);
+			}
 		}
-		else {
-			dao.update(obj);
+		finally {
+			dataChanged();
 		}
 	}
 	
 	public void remove(Department obj) {
-		dao.deleteById(obj.getId());
+		try {
+			dao.deleteById(obj.getId());
+		}
+		finally {
+			dataChanged();
+		}
+	}
+	
+	/*
+	 * Junta dois departamentos: os vendedores de source passam para target e
+	 * source é removido, tudo em um único commit.
+	 */
+	public void merge(Department source, Department target) {
+		try {
+			TransactionManager.execute(Connection.TRANSACTION_READ_COMMITTED, () -> {
+				new SellerService().moveSellers(source, target);
+				dao.deleteById(source.getId());
+				return null;
+			});
+		}
+		finally {
+			dataChanged();
+		}
+	}
+	
+	// Os vendedores em cache e os relatórios guardam dados do departamento
+	static void dataChanged() {
+		DepartmentCache.getInstance().invalidate();
+		DaoFactory.invalidateSellerCache();
+		DataVersion.increment();
+	}
+	
+	// Versões assíncronas, executadas fora da JavaFX Application Thread
+	public CompletableFuture<List<Department>> findAllAsync() {
+		return ServiceExecutor.supplyAsync(this::findAll);
+	}
+	
+	public CompletableFuture<Department> findByIdAsync(Integer id) {
+		return ServiceExecutor.supplyAsync(() -> findById(id));
+	}
+	
+	public CompletableFuture<Void> saveOrUpdateAsync(Department obj) {
+		return ServiceExecutor.runAsync(() -> saveOrUpdate(obj));
+	}
+	
+	public CompletableFuture<Void> removeAsync(Department obj) {
+		return ServiceExecutor.runAsync(() -> remove(obj));
 	}
 }
@@ -0,0 +1,43 @@
+package model.services;
+
+import java.nio.file.Path;
+
+// Resumo de uma exportação
+public class ExportResult {
+	
+	private final long rowsWritten;
+	private final boolean cancelled;
+	private final Path target;
+	
+	public ExportResult(long rowsWritten, boolean cancelled, Path target) {
+		this.rowsWritten = rowsWritten;
+		this.cancelled = cancelled;
+		this.target = target;
+	}
+	
+	public long getRowsWritten() {
+		return rowsWritten;
+	}
+	
+	// Cancelada: o arquivo de destino não foi criado nem alterado
+	public boolean isCancelled() {
+		return cancelled;
+	}
+	
+	public Path getTarget() {
+		return target;
+	}
+	
+	// Texto para mostrar ao usuário no fim da exportação
+	public String getSummary() {
+		if (cancelled) {
+			return "Export cancelled. No file was written.";
+		}
+		return "Exported " + rowsWritten + " rows to " + target;
+	}
+	
+	@Override
+	public String toString() {
+		return "ExportResult [rowsWritten=" + rowsWritten + ", cancelled=" + cancelled + ", target=" + target + "]";
+	}
+}
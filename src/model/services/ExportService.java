@@ -0,0 +1,137 @@
+package model.services;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+import model.dao.DaoFactory;
+import model.dao.DepartmentDao;
+import model.dao.SellerCriteria;
+import model.dao.SellerDao;
+import model.entities.Department;
+import model.entities.Seller;
+import model.io.ExportFormat;
+import model.io.RecordWriter;
+
+/*
+ * Exportação em streaming: as linhas vêm de um ResultSet forward-only e vão
+ * direto para o arquivo (com buffer e gzip opcional), uma por vez, então a
+ * memória usada não depende do número de linhas. O arquivo é gravado em
+ * <destino>.part e só substitui o destino no fim; cancelar ou falhar no
+ * meio não deixa arquivo pela metade.
+ * O CSV de vendedores usa as mesmas colunas da importação.
+ */
+public class ExportService {
+	
+	private static final Logger LOG = Logger.getLogger(ExportService.class.getName());
+	
+	// A cada quantas linhas o progresso é informado e o cancelamento verificado
+	private static final int PROGRESS_INTERVAL = 1000;
+	
+	private static final String[] SELLER_COLUMNS = { "Id", "Name", "Email", "BirthDate", "BaseSalary", "Department" };
+	private static final String[] DEPARTMENT_COLUMNS = { "Id", "Name" };
+	
+	private SellerDao sellerDao = DaoFactory.createSellerDao();
+	private DepartmentDao departmentDao = DaoFactory.createDepartmentDao();
+	
+	// Vendedores com os filtros e a ordenação da criteria; o formato vem da extensão do arquivo
+	public ExportResult exportSellers(SellerCriteria criteria, Path target, ProgressMonitor monitor) {
+		long total = sellerDao.count(criteria);
+		ZoneId zone = ZoneId.systemDefault();
+		try (Stream<Seller> stream = sellerDao.stream(criteria)) {
+			return export(stream, total, target, SELLER_COLUMNS, monitor, (out, obj) -> out.writeRecord(
+					obj.getId(), 
+					obj.getName(), 
+					obj.getEmail(), 
+					obj.getBirthDate() == null ? null : LocalDate.ofInstant(obj.getBirthDate().toInstant(), zone), 
+					obj.getBaseSalary(), 
+					obj.getDepartment() == null ? null : obj.getDepartment().getName()));
+		}
+	}
+	
+	public ExportResult exportDepartments(Path target, ProgressMonitor monitor) {
+		try (Stream<Department> stream = departmentDao.streamAll()) {
+			return export(stream, -1, target, DEPARTMENT_COLUMNS, monitor, 
+					(out, obj) -> out.writeRecord(obj.getId(), obj.getName()));
+		}
+	}
+	
+	// Versões assíncronas, executadas fora da JavaFX Application Thread
+	public CompletableFuture<ExportResult> exportSellersAsync(SellerCriteria criteria, Path target, 
+			ProgressMonitor monitor) {
+		return ServiceExecutor.supplyAsync(() -> exportSellers(criteria, target, monitor));
+	}
+	
+	public CompletableFuture<ExportResult> exportDepartmentsAsync(Path target, ProgressMonitor monitor) {
+		return ServiceExecutor.supplyAsync(() -> exportDepartments(target, monitor));
+	}
+	
+	private interface RowWriter<T> {
+		void write(RecordWriter out, T obj) throws IOException;
+	}
+	
+	private <T> ExportResult export(Stream<T> stream, long total, Path target, String[] columns, 
+			ProgressMonitor monitor, RowWriter<T> rowWriter) {
+		String fileName = target.getFileName().toString();
+		ExportFormat format = ExportFormat.forFileName(fileName);
+		Path temp = target.resolveSibling(fileName + ".part");
+		
+		long rows = 0;
+		boolean completed = false;
+		try {
+			try (RecordWriter out = format.open(temp, ExportFormat.isGzip(fileName), columns)) {
+				Iterator<T> it = stream.iterator();
+				while (it.hasNext()) {
+					rowWriter.write(out, it.next());
+					if (++rows % PROGRESS_INTERVAL == 0) {
+						if (monitor.isCancelled() || Thread.currentThread().isInterrupted()) {
+							return new ExportResult(rows, true, target);
+						}
+						monitor.update(rows, total, "Exported " + rows + " rows");
+					}
+				}
+			}
+			move(temp, target);
+			completed = true;
+			monitor.update(1, 1, "Exported " + rows + " rows");
+			return new ExportResult(rows, false, target);
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		finally {
+			if (!completed) {
+				deleteQuietly(temp);
+			}
+		}
+	}
+	
+	private static void move(Path source, Path target) throws IOException {
+		try {
+			Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (AtomicMoveNotSupportedException e) {
+			Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+	
+	// Chamado quando a exportação já falhou ou foi cancelada: um erro aqui só vai para o log
+	private static void deleteQuietly(Path path) {
+		try {
+			Files.deleteIfExists(path);
+		}
+		catch (IOException e) {
+			LOG.log(Level.WARNING, "Could not delete temporary export file " + path, e);
+		}
+	}
+}
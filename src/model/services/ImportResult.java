@@ -0,0 +1,59 @@
+package model.services;
+
+import java.nio.file.Path;
+
+// Resumo de uma importação: linhas lidas, gravadas e rejeitadas
+public class ImportResult {
+	
+	private final int rowsRead;
+	private final int imported;
+	private final int failed;
+	private final boolean cancelled;
+	private final Path errorReport;
+	
+	public ImportResult(int rowsRead, int imported, int failed, boolean cancelled, Path errorReport) {
+		this.rowsRead = rowsRead;
+		this.imported = imported;
+		this.failed = failed;
+		this.cancelled = cancelled;
+		this.errorReport = errorReport;
+	}
+	
+	public int getRowsRead() {
+		return rowsRead;
+	}
+	
+	public int getImported() {
+		return imported;
+	}
+	
+	public int getFailed() {
+		return failed;
+	}
+	
+	public boolean isCancelled() {
+		return cancelled;
+	}
+	
+	// Arquivo com as linhas rejeitadas e o motivo; null quando não houve erro
+	public Path getErrorReport() {
+		return errorReport;
+	}
+	
+	// Texto para mostrar ao usuário no fim da importação
+	public String getSummary() {
+		StringBuilder sb = new StringBuilder();
+		sb.append(cancelled ? "Import cancelled. " : "Import finished. ");
+		sb.append("Imported ").append(imported).append(" of ").append(rowsRead).append(" rows.");
+		if (errorReport != null) {
+			sb.append("\n").append(failed).append(" rejected row(s) written to ").append(errorReport);
+		}
+		return sb.toString();
+	}
+	
+	@Override
+	public String toString() {
+		return "ImportResult [rowsRead=" + rowsRead + ", imported=" + imported + ", failed=" + failed 
+				+ ", cancelled=" + cancelled + "]";
+	}
+}
@@ -0,0 +1,463 @@
+package model.services;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import db.DbException;
+import model.dao.BatchResult;
+import model.dao.DaoFactory;
+import model.dao.DepartmentDao;
+import model.dao.SellerDao;
+import model.entities.Department;
+import model.entities.Seller;
+import model.exceptions.ValidationException;
+import model.io.CsvReader;
+import model.io.CsvWriter;
+import model.validation.EntityRules;
+import model.validation.Rules;
+
+/*
+ * Importação de vendedores e departamentos a partir de arquivos CSV.
+ * O arquivo é lido em streaming pela thread que chamou (produtor), que
+ * converte e valida cada linha com as mesmas regras do formulário e põe
+ * blocos de CHUNK_SIZE linhas em uma fila limitada; uma segunda thread
+ * (consumidor) grava os blocos com os inserts em lote do DAO. Assim a
+ * leitura do próximo bloco acontece enquanto o anterior vai para o banco,
+ * e a memória usada não depende do tamanho do arquivo.
+ * Cada bloco é confirmado separadamente: cancelar ou falhar no meio mantém
+ * o que já foi gravado. As linhas rejeitadas vão para <arquivo>.errors.csv,
+ * com o número da linha e o motivo.
+ */
+public class ImportService {
+	
+	// Linhas por bloco enviado ao banco e blocos que podem esperar na fila
+	private static final int CHUNK_SIZE = 500;
+	private static final int QUEUE_CAPACITY = 4;
+	
+	private static final String[] SELLER_COLUMNS = { "Name", "Email", "BirthDate", "BaseSalary", "Department" };
+	private static final String[] DEPARTMENT_COLUMNS = { "Name" };
+	
+	// Datas aceitas: ISO (2000-12-31) ou o formato do formulário (31/12/2000)
+	private static final DateTimeFormatter[] DATE_FORMATS = {
+			DateTimeFormatter.ISO_LOCAL_DATE, DateTimeFormatter.ofPattern("dd/MM/yyyy") };
+	
+	private SellerDao sellerDao = DaoFactory.createSellerDao();
+	private DepartmentDao departmentDao = DaoFactory.createDepartmentDao();
+	private DepartmentService departmentService = new DepartmentService();
+	
+	// Colunas: Name, Email, BirthDate, BaseSalary, Department (nome do departamento)
+	public ImportResult importSellers(Path source, ProgressMonitor monitor) {
+		Map<String, Department> departments = new HashMap<>();
+		for (Department dep : departmentService.findAll()) {
+			departments.put(key(dep.getName()), dep);
+		}
+		try {
+			return run(source, monitor, SELLER_COLUMNS, fields -> parseSeller(fields, departments), 
+					sellerDao::insertAll);
+		}
+		finally {
+			DataVersion.increment();
+		}
+	}
+	
+	// Coluna: Name. Nomes que já existem (no banco ou antes no arquivo) são rejeitados
+	public ImportResult importDepartments(Path source, ProgressMonitor monitor) {
+		Set<String> names = new HashSet<>();
+		for (Department dep : departmentService.findAll()) {
+			names.add(key(dep.getName()));
+		}
+		try {
+			return run(source, monitor, DEPARTMENT_COLUMNS, fields -> parseDepartment(fields, names), 
+					departmentDao::insertAll);
+		}
+		finally {
+			DepartmentService.dataChanged();
+		}
+	}
+	
+	// Versões assíncronas, executadas fora da JavaFX Application Thread
+	public CompletableFuture<ImportResult> importSellersAsync(Path source, ProgressMonitor monitor) {
+		return ServiceExecutor.supplyAsync(() -> importSellers(source, monitor));
+	}
+	
+	public CompletableFuture<ImportResult> importDepartmentsAsync(Path source, ProgressMonitor monitor) {
+		return ServiceExecutor.supplyAsync(() -> importDepartments(source, monitor));
+	}
+	
+	// Arquivo de erros gravado ao lado do arquivo importado
+	public static Path errorReportFor(Path source) {
+		return source.resolveSibling(source.getFileName() + ".errors.csv");
+	}
+	
+	private Seller parseSeller(Fields fields, Map<String, Department> departments) {
+		Seller obj = new Seller();
+		obj.setName(fields.get(0));
+		obj.setEmail(fields.get(1));
+		
+		// Erros de conversão; a exceção só é criada para as linhas inválidas
+		Map<String, String> errors = new HashMap<>();
+		String birthDate = fields.get(2);
+		if (!birthDate.isEmpty()) {
+			obj.setBirthDate(parseDate(birthDate));
+			if (obj.getBirthDate() == null) {
+				errors.put("birthDate", "Invalid date: " + birthDate);
+			}
+		}
+		String baseSalary = fields.get(3);
+		if (!baseSalary.isEmpty()) {
+			try {
+				obj.setBaseSalary(Double.parseDouble(baseSalary));
+			}
+			catch (NumberFormatException e) {
+				errors.put("baseSalary", "Invalid number: " + baseSalary);
+			}
+		}
+		String department = fields.get(4);
+		if (!department.isEmpty()) {
+			obj.setDepartment(departments.get(key(department)));
+			if (obj.getDepartment() == null) {
+				errors.put("department", "Unknown department: " + department);
+			}
+		}
+		
+		// Os erros de conversão acima têm prioridade sobre "campo vazio"
+		EntityRules.SELLER.check(obj).forEach(errors::putIfAbsent);
+		if (!errors.isEmpty()) {
+			throw new ValidationException("Validation error", errors);
+		}
+		return obj;
+	}
+	
+	private Department parseDepartment(Fields fields, Set<String> names) {
+		Department obj = new Department();
+		obj.setName(fields.get(0));
+		EntityRules.DEPARTMENT.validate(obj);
+		
+		if (!names.add(key(obj.getName()))) {
+			ValidationException exception = new ValidationException("Validation error");
+			exception.addError("name", "Department already exists: " + obj.getName());
+			throw exception;
+		}
+		return obj;
+	}
+	
+	private static Date parseDate(String text) {
+		for (DateTimeFormatter format : DATE_FORMATS) {
+			try {
+				LocalDate date = LocalDate.parse(text, format);
+				return Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant());
+			}
+			catch (DateTimeParseException e) {
+				// tenta o próximo formato
+			}
+		}
+		return null;
+	}
+	
+	private static String key(String name) {
+		return name.trim().toLowerCase(Locale.ROOT);
+	}
+	
+	private <T> ImportResult run(Path source, ProgressMonitor monitor, String[] columns, 
+			Function<Fields, T> parser, Function<List<T>, BatchResult<T>> writer) {
+		Path reportPath = errorReportFor(source);
+		try (CsvReader reader = CsvReader.open(source); ErrorReport errors = new ErrorReport(reportPath)) {
+			List<String> header = reader.readRecord();
+			if (header == null) {
+				return new ImportResult(0, 0, 0, false, null);
+			}
+			int[] indexes = columnIndexes(header, columns);
+			errors.setHeader(header);
+			
+			ChunkWriter<T> consumer = new ChunkWriter<>(writer, errors, monitor);
+			Thread thread = new Thread(consumer, "import-writer");
+			thread.setDaemon(true);
+			thread.start();
+			
+			int rowsRead = 0;
+			boolean cancelled = false;
+			try {
+				List<Row<T>> chunk = new ArrayList<>(CHUNK_SIZE);
+				List<String> record;
+				while ((record = reader.readRecord()) != null) {
+					if (monitor.isCancelled() || Thread.currentThread().isInterrupted()) {
+						cancelled = true;
+						break;
+					}
+					if (consumer.error != null) {
+						break;
+					}
+					rowsRead++;
+					try {
+						T item = parser.apply(new Fields(record, indexes));
+						chunk.add(new Row<>(reader.getRecordLine(), record, item));
+					}
+					catch (ValidationException e) {
+						errors.add(reader.getRecordLine(), Rules.describe(e.getErrors()), record);
+					}
+					if (chunk.size() == CHUNK_SIZE) {
+						consumer.put(chunk);
+						chunk = new ArrayList<>(CHUNK_SIZE);
+						monitor.update(reader.getBytesRead(), reader.getSize(), 
+								"Read " + rowsRead + " rows, imported " + consumer.imported.get());
+					}
+				}
+				if (!cancelled && !chunk.isEmpty()) {
+					consumer.put(chunk);
+				}
+			}
+			finally {
+				consumer.finish(thread);
+			}
+			
+			if (consumer.error != null) {
+				throw consumer.error instanceof RuntimeException 
+						? (RuntimeException) consumer.error : new DbException(consumer.error.getMessage());
+			}
+			cancelled |= monitor.isCancelled();
+			monitor.update(1, 1, "Read " + rowsRead + " rows, imported " + consumer.imported.get());
+			return new ImportResult(rowsRead, consumer.imported.get(), errors.getCount(), cancelled, 
+					errors.getCount() > 0 ? reportPath : null);
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	// Posição de cada coluna esperada no cabeçalho (sem diferenciar maiúsculas)
+	private static int[] columnIndexes(List<String> header, String[] columns) {
+		Map<String, Integer> positions = new HashMap<>();
+		for (int i = 0; i < header.size(); i++) {
+			positions.putIfAbsent(key(header.get(i)), i);
+		}
+		int[] indexes = new int[columns.length];
+		ValidationException exception = new ValidationException("Missing column(s) in header");
+		for (int i = 0; i < columns.length; i++) {
+			Integer position = positions.get(key(columns[i]));
+			if (position == null) {
+				exception.addError(columns[i], "Missing column");
+			}
+			else {
+				indexes[i] = position;
+			}
+		}
+		if (exception.getErrors().size() > 0) {
+			throw new ValidationException("Missing column(s) in header: " 
+					+ String.join(", ", new TreeMap<>(exception.getErrors()).keySet()));
+		}
+		return indexes;
+	}
+	
+	// Campos de uma linha, na ordem das colunas esperadas
+	private static class Fields {
+		
+		private final List<String> record;
+		private final int[] indexes;
+		
+		Fields(List<String> record, int[] indexes) {
+			this.record = record;
+			this.indexes = indexes;
+		}
+		
+		String get(int column) {
+			int index = indexes[column];
+			return index < record.size() ? record.get(index).trim() : "";
+		}
+	}
+	
+	private static class Row<T> {
+		
+		final long line;
+		final List<String> fields;
+		final T item;
+		
+		Row(long line, List<String> fields, T item) {
+			this.line = line;
+			this.fields = fields;
+			this.item = item;
+		}
+	}
+	
+	/*
+	 * Consumidor: grava os blocos da fila. As linhas que só foram desfeitas
+	 * porque outra linha do mesmo bloco falhou são enviadas de novo; cada
+	 * nova tentativa descarta ao menos a linha culpada, então o laço termina.
+	 * Depois de um erro de banco ou de um cancelamento ele só esvazia a
+	 * fila, para o produtor nunca ficar bloqueado no put().
+	 */
+	private static class ChunkWriter<T> implements Runnable {
+		
+		// Marca de fim da fila (comparada por identidade)
+		private final List<Row<T>> end = new ArrayList<>(0);
+		
+		private final BlockingQueue<List<Row<T>>> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+		private final Function<List<T>, BatchResult<T>> writer;
+		private final ErrorReport errors;
+		private final ProgressMonitor monitor;
+		
+		final AtomicInteger imported = new AtomicInteger();
+		volatile Throwable error;
+		
+		ChunkWriter(Function<List<T>, BatchResult<T>> writer, ErrorReport errors, ProgressMonitor monitor) {
+			this.writer = writer;
+			this.errors = errors;
+			this.monitor = monitor;
+		}
+		
+		void put(List<Row<T>> chunk) {
+			try {
+				queue.put(chunk);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new DbException("Import interrupted");
+			}
+		}
+		
+		// Sinaliza o fim e espera o consumidor gravar o que ainda está na fila
+		void finish(Thread thread) {
+			boolean interrupted = false;
+			while (true) {
+				try {
+					queue.put(end);
+					thread.join();
+					break;
+				}
+				catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		
+		@Override
+		public void run() {
+			while (true) {
+				List<Row<T>> chunk;
+				try {
+					chunk = queue.take();
+				}
+				catch (InterruptedException e) {
+					continue;
+				}
+				if (chunk == end) {
+					return;
+				}
+				if (error != null || monitor.isCancelled()) {
+					continue;
+				}
+				try {
+					write(chunk);
+				}
+				catch (Throwable e) {
+					error = e;
+				}
+			}
+		}
+		
+		private void write(List<Row<T>> chunk) throws IOException {
+			List<Row<T>> pending = chunk;
+			while (!pending.isEmpty()) {
+				List<T> items = new ArrayList<>(pending.size());
+				for (Row<T> row : pending) {
+					items.add(row.item);
+				}
+				BatchResult<T> result = writer.apply(items);
+				imported.addAndGet(result.getSucceeded());
+				
+				List<Row<T>> retry = new ArrayList<>();
+				for (BatchResult.Failure<T> failure : result.getFailures()) {
+					Row<T> row = pending.get(failure.getIndex());
+					if (failure.isRolledBack()) {
+						retry.add(row);
+					}
+					else {
+						errors.add(row.line, failure.getMessage(), row.fields);
+					}
+				}
+				// Nenhuma linha gravada nem rejeitada: evita repetir para sempre
+				if (retry.size() == pending.size()) {
+					for (Row<T> row : retry) {
+						errors.add(row.line, BatchResult.ROLLED_BACK, row.fields);
+					}
+					return;
+				}
+				pending = retry;
+			}
+		}
+	}
+	
+	/*
+	 * Relatório de linhas rejeitadas: número da linha, motivo e os campos
+	 * originais. Só cria o arquivo no primeiro erro; usado pelas duas threads.
+	 * O relatório de uma importação anterior do mesmo arquivo é apagado.
+	 */
+	private static class ErrorReport implements Closeable {
+		
+		private final Path path;
+		private List<String> header = Collections.emptyList();
+		private CsvWriter out;
+		private int count;
+		
+		ErrorReport(Path path) throws IOException {
+			this.path = path;
+			Files.deleteIfExists(path);
+		}
+		
+		synchronized void setHeader(List<String> header) {
+			this.header = header;
+		}
+		
+		synchronized void add(long line, String message, List<String> fields) throws IOException {
+			if (out == null) {
+				out = CsvWriter.open(path);
+				List<Object> columns = new ArrayList<>();
+				columns.add("Line");
+				columns.add("Error");
+				columns.addAll(header);
+				out.writeRecord(columns);
+			}
+			List<Object> record = new ArrayList<>(fields.size() + 2);
+			record.add(line);
+			record.add(message);
+			record.addAll(fields);
+			out.writeRecord(record);
+			count++;
+		}
+		
+		synchronized int getCount() {
+			return count;
+		}
+		
+		@Override
+		public synchronized void close() throws IOException {
+			if (out != null) {
+				out.close();
+			}
+		}
+	}
+}
@@ -0,0 +1,26 @@
+package model.services;
+
+/*
+ * Acompanhamento de tarefas longas (importação/exportação). Os métodos são
+ * chamados pelas threads de trabalho; a implementação da interface gráfica
+ * é que repassa as mudanças para a JavaFX Application Thread.
+ */
+public interface ProgressMonitor {
+	
+	// Monitor que não mostra nada e nunca cancela
+	ProgressMonitor NONE = new ProgressMonitor() {
+		@Override
+		public void update(long workDone, long totalWork, String message) {
+		}
+		
+		@Override
+		public boolean isCancelled() {
+			return false;
+		}
+	};
+	
+	// totalWork <= 0 quando o total não é conhecido
+	void update(long workDone, long totalWork, String message);
+	
+	boolean isCancelled();
+}
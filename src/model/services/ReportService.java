@@ -0,0 +1,91 @@
+package model.services;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import db.DB;
+import model.dao.DaoFactory;
+import model.dao.ReportDao;
+import model.entities.BirthYearBucket;
+import model.entities.DepartmentSummary;
+import model.entities.SalaryBand;
+
+/*
+ * Relatórios de vendedores por departamento. Cada resultado fica em cache
+ * até a próxima gravação de vendedor ou departamento (DataVersion), então
+ * abrir a tela de novo não repete as consultas. As gravações de outros
+ * usuários não mudam a DataVersion: por isso o resultado também expira
+ * depois de reports.maxAgeSeconds.
+ */
+public class ReportService {
+	
+	public static final double DEFAULT_BAND_WIDTH = 1000.0;
+	public static final int DEFAULT_YEARS_PER_BUCKET = 10;
+	
+	private static final long MAX_AGE_NANOS = DB.getIntProperty("reports.maxAgeSeconds", 60) * 1_000_000_000L;
+	
+	// Compartilhado por todas as instâncias; a chave inclui os parâmetros do relatório
+	private static final Map<String, CachedReport<?>> cache = new ConcurrentHashMap<>();
+	
+	private ReportDao dao = DaoFactory.createReportDao();
+	
+	public List<DepartmentSummary> findDepartmentSummaries() {
+		return cached("summary", dao::findDepartmentSummaries);
+	}
+	
+	public List<SalaryBand> findSalaryBands(double bandWidth) {
+		return cached("salaryBands:" + bandWidth, () -> dao.findSalaryBands(bandWidth));
+	}
+	
+	public List<BirthYearBucket> findBirthYearBuckets(int yearsPerBucket) {
+		return cached("birthYears:" + yearsPerBucket, () -> dao.findBirthYearBuckets(yearsPerBucket));
+	}
+	
+	// Versões assíncronas, executadas fora da JavaFX Application Thread
+	public CompletableFuture<List<DepartmentSummary>> findDepartmentSummariesAsync() {
+		return ServiceExecutor.supplyAsync(this::findDepartmentSummaries);
+	}
+	
+	public CompletableFuture<List<SalaryBand>> findSalaryBandsAsync(double bandWidth) {
+		return ServiceExecutor.supplyAsync(() -> findSalaryBands(bandWidth));
+	}
+	
+	public CompletableFuture<List<BirthYearBucket>> findBirthYearBucketsAsync(int yearsPerBucket) {
+		return ServiceExecutor.supplyAsync(() -> findBirthYearBuckets(yearsPerBucket));
+	}
+	
+	/*
+	 * A versão é lida antes da consulta: se houver uma gravação durante ela,
+	 * o resultado fica marcado com a versão antiga e é refeito na próxima chamada.
+	 * Um resultado mais velho que reports.maxAgeSeconds também é refeito.
+	 */
+	@SuppressWarnings("unchecked")
+	private static <T> List<T> cached(String key, Supplier<List<T>> loader) {
+		long version = DataVersion.current();
+		long now = System.nanoTime();
+		CachedReport<?> entry = cache.get(key);
+		if (entry != null && entry.version == version && now - entry.loadedAt <= MAX_AGE_NANOS) {
+			return (List<T>) entry.rows;
+		}
+		List<T> rows = List.copyOf(loader.get());
+		cache.put(key, new CachedReport<>(version, now, rows));
+		return rows;
+	}
+	
+	private static class CachedReport<T> {
+		
+		final long version;
+		// Início da consulta, para a idade não contar a partir do fim dela
+		final long loadedAt;
+		final List<T> rows;
+		
+		CachedReport(long version, long loadedAt, List<T> rows) {
+			this.version = version;
+			this.loadedAt = loadedAt;
+			this.rows = rows;
+		}
+	}
+}
@@ -1,10 +1,21 @@
 package model.services;
 
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
+import db.DbException;
+import db.TransactionManager;
+import model.dao.BatchResult;
 import model.dao.DaoFactory;
+import model.dao.SellerCriteria;
 import model.dao.SellerDao;
+import model.entities.Department;
 import model.entities.Seller;
+import model.validation.EntityRules;
 
 public class SellerService {
 	
@@ -15,17 +26,127 @@ public class SellerService {
 		return dao.findAll();
 	}
 	
+	public Seller findById(Integer id) {
+		return dao.findById(id);
+	}
+	
+	// Próxima página ordenada por nome; passar null para a primeira
+	public List<Seller> findPage(Seller last, int pageSize) {
+		return dao.findPage(last, pageSize);
+	}
+	
+	public List<Seller> findRange(int offset, int limit) {
+		return dao.findRange(offset, limit);
+	}
+	
+	public int count() {
+		return dao.count();
+	}
+	
+	// Consultas filtradas e ordenadas no banco
+	public List<Seller> findPage(SellerCriteria criteria, Seller last, int pageSize) {
+		return dao.findPage(criteria, last, pageSize);
+	}
+	
+	public List<Seller> findRange(SellerCriteria criteria, int offset, int limit) {
+		return dao.findRange(criteria, offset, limit);
+	}
+	
+	public int count(SellerCriteria criteria) {
+		return dao.count(criteria);
+	}
+	
+	// Percorre todos os vendedores sem carregá-los em memória (usar com try-with-resources)
+	public Stream<Seller> streamAll() {
+		return dao.streamAll();
+	}
+	
+	public Stream<Seller> stream(SellerCriteria criteria) {
+		return dao.stream(criteria);
+	}
+	
 	//Insere ou atualiza
 	public void saveOrUpdate(Seller obj) {
-		if (obj.getId() == null) { //Insere
-			dao.insert(obj);
+		try {
+			if (obj.getId() == null) { //Insere
+				dao.insert(obj);
+			}
+			else {
+				dao.update(obj);
+			}
 		}
-		else {
-			dao.update(obj);
+		finally {
+			DataVersion.increment();
 		}
 	}
 	
 	public void remove(Seller obj) {
-		dao.deleteById(obj.getId());
+		try {
+			dao.deleteById(obj.getId());
+		}
+		finally {
+			DataVersion.increment();
+		}
+	}
+	
+	// Insere os novos e atualiza os existentes em um único commit; qualquer falha desfaz tudo
+	// As linhas são validadas antes de abrir a transação (ValidationException com a primeira inválida)
+	public void saveAll(Collection<Seller> list) {
+		EntityRules.SELLER.validateAll(list);
+		
+		List<Seller> inserts = new ArrayList<>();
+		List<Seller> updates = new ArrayList<>();
+		for (Seller obj : list) {
+			(obj.getId() == null ? inserts : updates).add(obj);
+		}
+		try {
+			TransactionManager.execute(() -> {
+				checkBatch(dao.insertAll(inserts));
+				checkBatch(dao.updateAll(updates));
+				return null;
+			});
+		}
+		finally {
+			DataVersion.increment();
+		}
+	}
+	
+	// Transfere todos os vendedores de um departamento para outro em uma única transação
+	public int moveSellers(Department from, Department to) {
+		try {
+			return TransactionManager.execute(Connection.TRANSACTION_READ_COMMITTED, () -> {
+				List<Seller> list = dao.findByDepartment(from);
+				for (Seller obj : list) {
+					obj.setDepartment(to);
+				}
+				checkBatch(dao.updateAll(list));
+				return list.size();
+			});
+		}
+		finally {
+			DataVersion.increment();
+		}
+	}
+	
+	// Uma linha com falha lança a exceção, o que faz a transação inteira ser desfeita
+	private static void checkBatch(BatchResult<?> result) {
+		if (result.hasFailures()) {
+			BatchResult.Failure<?> first = result.getFailures().get(0);
+			throw new DbException(result.getFailures().size() + " row(s) failed; first at index " 
+					+ first.getIndex() + ": " + first.getMessage());
+		}
+	}
+	
+	// Versões assíncronas, executadas fora da JavaFX Application Thread
+	public CompletableFuture<Seller> findByIdAsync(Integer id) {
+		return ServiceExecutor.supplyAsync(() -> findById(id));
+	}
+	
+	public CompletableFuture<Void> saveOrUpdateAsync(Seller obj) {
+		return ServiceExecutor.runAsync(() -> saveOrUpdate(obj));
+	}
+	
+	public CompletableFuture<Void> removeAsync(Seller obj) {
+		return ServiceExecutor.runAsync(() -> remove(obj));
 	}
 }
@@ -0,0 +1,99 @@
+package model.services;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import db.DB;
+import metrics.MetricsRegistry;
+import metrics.Timer;
+
+/*
+ * Executor compartilhado pelos serviços para tirar o acesso ao banco da
+ * JavaFX Application Thread. Usa virtual threads quando a JVM oferece
+ * (Java 21+) e um pool de threads comum nas demais; nos dois casos o número
+ * de tarefas simultâneas é limitado por services.threads (padrão: pool.maxSize).
+ */
+public class ServiceExecutor {
+	
+	// Tempo na fila (esperando thread/permissão) e tempo de execução das tarefas
+	private static final Timer QUEUE_TIMER = MetricsRegistry.getInstance().timer("service.task.queued");
+	private static final Timer RUN_TIMER = MetricsRegistry.getInstance().timer("service.task.run");
+	
+	private static final Executor EXECUTOR = instrumented(create());
+	
+	public static Executor get() {
+		return EXECUTOR;
+	}
+	
+	public static <T> CompletableFuture<T> supplyAsync(Supplier<T> task) {
+		return CompletableFuture.supplyAsync(task, EXECUTOR);
+	}
+	
+	public static CompletableFuture<Void> runAsync(Runnable task) {
+		return CompletableFuture.runAsync(task, EXECUTOR);
+	}
+	
+	private static Executor instrumented(Executor executor) {
+		return task -> {
+			long submitted = System.nanoTime();
+			executor.execute(() -> {
+				long start = System.nanoTime();
+				QUEUE_TIMER.record(start - submitted);
+				try {
+					task.run();
+				}
+				finally {
+					RUN_TIMER.stop(start);
+				}
+			});
+		};
+	}
+	
+	private static Executor create() {
+		int maxThreads = DB.getIntProperty("services.threads", DB.getIntProperty("pool.maxSize", 10));
+		
+		ExecutorService virtual = newVirtualThreadExecutor();
+		if (virtual != null) {
+			Semaphore permits = new Semaphore(maxThreads);
+			return task -> virtual.execute(() -> {
+				permits.acquireUninterruptibly();
+				try {
+					task.run();
+				}
+				finally {
+					permits.release();
+				}
+			});
+		}
+		
+		AtomicInteger counter = new AtomicInteger();
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(maxThreads, maxThreads, 60, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<>(1000), r -> {
+					Thread t = new Thread(r, "service-" + counter.incrementAndGet());
+					t.setDaemon(true);
+					return t;
+				});
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
+	
+	// Executors.newVirtualThreadPerTaskExecutor() por reflexão, para compilar e rodar também no Java 11
+	private static ExecutorService newVirtualThreadExecutor() {
+		try {
+			Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) factory.invoke(null);
+		}
+		catch (ReflectiveOperationException | RuntimeException e) {
+			return null;
+		}
+	}
+}
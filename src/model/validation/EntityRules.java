@@ -0,0 +1,29 @@
+package model.validation;
+
+import model.entities.Department;
+import model.entities.Seller;
+
+/*
+ * Regras de validação das entidades, compartilhadas pelos formulários,
+ * pela importação CSV e pelas gravações em lote. Os nomes dos campos são
+ * as chaves dos erros mostrados no formulário.
+ */
+public final class EntityRules {
+	
+	public static final Rules<Seller> SELLER = new Rules<>();
+	public static final Rules<Department> DEPARTMENT = new Rules<>();
+	
+	static {
+		SELLER.field("name", Seller::getName).required().maxLength(70);
+		SELLER.field("email", Seller::getEmail).required().maxLength(60)
+				.format(Patterns.EMAIL, "Invalid email");
+		SELLER.field("birthDate", Seller::getBirthDate).required();
+		SELLER.field("baseSalary", Seller::getBaseSalary).required().input(Patterns.DECIMAL);
+		SELLER.field("department", Seller::getDepartment).required();
+		
+		DEPARTMENT.field("name", Department::getName).required().maxLength(30);
+	}
+	
+	private EntityRules() {
+	}
+}
@@ -0,0 +1,84 @@
+package model.validation;
+
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/*
+ * Regras de um campo da entidade: obrigatório, tamanho máximo e formato.
+ * O padrão de digitação (input) é só para o formulário: diz quais textos
+ * o campo aceita enquanto o usuário digita.
+ */
+public class FieldRule<T> {
+	
+	public static final String EMPTY = "Field can´t be empty";
+	
+	private final String field;
+	private final Function<T, ?> getter;
+	
+	private boolean required;
+	private int maxLength;
+	private Pattern format;
+	private String formatMessage;
+	private Pattern input;
+	
+	FieldRule(String field, Function<T, ?> getter) {
+		this.field = field;
+		this.getter = getter;
+	}
+	
+	public FieldRule<T> required() {
+		required = true;
+		return this;
+	}
+	
+	public FieldRule<T> maxLength(int maxLength) {
+		this.maxLength = maxLength;
+		return this;
+	}
+	
+	public FieldRule<T> format(Pattern format, String message) {
+		this.format = format;
+		this.formatMessage = message;
+		return this;
+	}
+	
+	public FieldRule<T> input(Pattern input) {
+		this.input = input;
+		return this;
+	}
+	
+	public String getField() {
+		return field;
+	}
+	
+	// 0 quando não há limite
+	public int getMaxLength() {
+		return maxLength;
+	}
+	
+	// null quando o campo aceita qualquer texto
+	public Pattern getInput() {
+		return input;
+	}
+	
+	// Mensagem de erro do campo, ou null se o valor é válido
+	public String check(T obj) {
+		return checkValue(getter.apply(obj));
+	}
+	
+	public String checkValue(Object value) {
+		if (value == null || value instanceof String && ((String) value).trim().isEmpty()) {
+			return required ? EMPTY : null;
+		}
+		if (value instanceof String) {
+			String text = (String) value;
+			if (maxLength > 0 && text.length() > maxLength) {
+				return "Maximum of " + maxLength + " characters";
+			}
+			if (format != null && !format.matcher(text).matches()) {
+				return formatMessage;
+			}
+		}
+		return null;
+	}
+}
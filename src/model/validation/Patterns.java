@@ -0,0 +1,16 @@
+package model.validation;
+
+import java.util.regex.Pattern;
+
+// Expressões usadas nas regras e nos campos de texto, compiladas uma única vez
+public final class Patterns {
+	
+	// Digitação de números inteiros e decimais (aceita o texto incompleto, ex.: "12.")
+	public static final Pattern DIGITS = Pattern.compile("\\d*");
+	public static final Pattern DECIMAL = Pattern.compile("\\d*([\\.]\\d*)?");
+	
+	public static final Pattern EMAIL = Pattern.compile("[^@\\s]+@[^@\\s]+");
+	
+	private Patterns() {
+	}
+}
@@ -0,0 +1,96 @@
+package model.validation;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+import model.dao.BatchResult;
+import model.exceptions.ValidationException;
+
+/*
+ * Conjunto de regras de uma entidade, declaradas campo a campo (EntityRules).
+ * Um objeto válido não aloca nada: check() devolve o mapa vazio e a
+ * ValidationException só é criada quando há erro, o que importa na
+ * importação de arquivos grandes.
+ */
+public class Rules<T> {
+	
+	private final Map<String, FieldRule<T>> fields = new LinkedHashMap<>();
+	
+	// Declara o campo; as regras são encadeadas no retorno
+	public FieldRule<T> field(String name, Function<T, ?> getter) {
+		FieldRule<T> rule = new FieldRule<>(name, getter);
+		fields.put(name, rule);
+		return rule;
+	}
+	
+	public FieldRule<T> get(String name) {
+		FieldRule<T> rule = fields.get(name);
+		if (rule == null) {
+			throw new IllegalArgumentException("No rule for field " + name);
+		}
+		return rule;
+	}
+	
+	// Campo -> mensagem, na ordem em que os campos foram declarados
+	public Map<String, String> check(T obj) {
+		Map<String, String> errors = null;
+		for (FieldRule<T> rule : fields.values()) {
+			String message = rule.check(obj);
+			if (message != null) {
+				if (errors == null) {
+					errors = new LinkedHashMap<>();
+				}
+				errors.put(rule.getField(), message);
+			}
+		}
+		return errors != null ? errors : Collections.emptyMap();
+	}
+	
+	public void validate(T obj) {
+		Map<String, String> errors = check(obj);
+		if (!errors.isEmpty()) {
+			throw new ValidationException("Validation error", errors);
+		}
+	}
+	
+	// Valida todas as linhas de uma vez; as falhas trazem a posição na coleção
+	public BatchResult<T> checkAll(Collection<? extends T> list) {
+		BatchResult<T> result = new BatchResult<>();
+		int index = 0;
+		int valid = 0;
+		for (T obj : list) {
+			Map<String, String> errors = check(obj);
+			if (errors.isEmpty()) {
+				valid++;
+			}
+			else {
+				result.addFailure(obj, index, describe(errors));
+			}
+			index++;
+		}
+		result.addSucceeded(valid);
+		return result;
+	}
+	
+	// Para lotes: a exceção traz os erros da primeira linha inválida
+	public void validateAll(Collection<? extends T> list) {
+		BatchResult<T> result = checkAll(list);
+		if (result.hasFailures()) {
+			BatchResult.Failure<T> first = result.getFailures().get(0);
+			throw new ValidationException(result.getFailures().size() + " invalid row(s); first at index " 
+					+ first.getIndex() + ": " + first.getMessage(), check(first.getItem()));
+		}
+	}
+	
+	// "campo: mensagem; ..." em ordem alfabética, para relatórios de erro
+	public static String describe(Map<String, String> errors) {
+		StringJoiner joiner = new StringJoiner("; ");
+		new TreeMap<>(errors).forEach((field, message) -> joiner.add(field + ": " + message));
+		return joiner.toString();
+	}
+}